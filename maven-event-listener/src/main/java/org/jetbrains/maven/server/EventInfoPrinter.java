@@ -5,6 +5,10 @@ import static org.jetbrains.maven.server.SpyConstants.*;
 
 public final class EventInfoPrinter {
   private static void print(Object type, CharSequence... args) {
+    EventInfoWriter writer = EventInfoWriter.getInstance();
+    if (writer != null && writer.write(type, args)) {
+      return;
+    }
     //noinspection UseOfSystemOutOrSystemErr
     System.out.println(printToBuffer(type, args));
   }
@@ -0,0 +1,90 @@
+// Copyright 2000-2020 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package org.jetbrains.maven.server;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Writes the events to the file given by {@link SpyConstants#EVENTS_FILE_PROPERTY}, so the IDE does not have to find and parse them
+ * in the output.
+ * <p>
+ * Every event is a record of an int length followed by that many bytes:
+ * <pre>
+ *   long threadId, UTF type, byte parameterCount, parameterCount * (UTF name, int valueLength, valueLength bytes of UTF-8 value)
+ * </pre>
+ * Values are not limited in length and keep their line breaks.
+ * <p>
+ * After every record the number of records written so far is printed to the standard output as
+ * {@code PREFIX + SEQUENCE_MARKER + count}, so the IDE reads the events in order with the output lines around them.
+ */
+final class EventInfoWriter {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final EventInfoWriter ourInstance = create();
+
+  private final DataOutputStream myOut;
+  private final ByteArrayOutputStream myRecordBytes = new ByteArrayOutputStream();
+  private final DataOutputStream myRecord = new DataOutputStream(myRecordBytes);
+  private long mySequence;
+
+  private EventInfoWriter(DataOutputStream out) {
+    myOut = out;
+  }
+
+  /**
+   * @return the writer, or null if the events are printed to the standard output
+   */
+  static EventInfoWriter getInstance() {
+    return ourInstance;
+  }
+
+  private static EventInfoWriter create() {
+    String path = System.getProperty(SpyConstants.EVENTS_FILE_PROPERTY);
+    if (path == null || path.length() == 0) {
+      return null;
+    }
+    try {
+      return new EventInfoWriter(new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path, true))));
+    }
+    catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return false if the event could not be written and has to be printed instead
+   */
+  synchronized boolean write(Object type, CharSequence... args) {
+    try {
+      myRecordBytes.reset();
+      myRecord.writeLong(Thread.currentThread().getId());
+      myRecord.writeUTF(String.valueOf(type));
+      int count = args == null ? 0 : args.length / 2;
+      myRecord.writeByte(count);
+      for (int i = 0; i < count; i++) {
+        myRecord.writeUTF(String.valueOf(args[2 * i]));
+        // null is written the way the standard output shows it
+        byte[] bytes = String.valueOf(args[2 * i + 1]).getBytes(UTF_8);
+        myRecord.writeInt(bytes.length);
+        myRecord.write(bytes);
+      }
+      myRecord.flush();
+
+      myOut.writeInt(myRecordBytes.size());
+      myRecordBytes.writeTo(myOut);
+      // the IDE reads the file up to the record when it sees the marker
+      myOut.flush();
+      mySequence++;
+      //noinspection UseOfSystemOutOrSystemErr
+      System.out.println(SpyConstants.PREFIX + SpyConstants.SEQUENCE_MARKER + mySequence);
+      return true;
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+}
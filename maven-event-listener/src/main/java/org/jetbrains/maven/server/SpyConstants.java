@@ -5,4 +5,14 @@ public interface SpyConstants {
   String PREFIX = "[IJ]-";
   String SEPARATOR = "-[IJ]-";
   String NEWLINE = "-[N]-";
+
+  /**
+   * File the events are written to in binary form instead of the standard output, see {@link EventInfoWriter}.
+   */
+  String EVENTS_FILE_PROPERTY = "idea.maven.spy.events.file";
+
+  /**
+   * Starts the line printed after each event written to the {@link #EVENTS_FILE_PROPERTY} file.
+   */
+  String SEQUENCE_MARKER = "#";
 }
@@ -147,6 +147,17 @@ public class MavenArtifact implements Serializable, MavenCoordinate {
     return false;
   }
 
+  /**
+   * @return the resolved flag as reported by the embedder, without checking that the file still exists
+   */
+  public boolean isMarkedResolved() {
+    return myResolved;
+  }
+
+  public boolean isStubbed() {
+    return myStubbed;
+  }
+
   @Nonnull
   public File getFile() {
     return myFile;
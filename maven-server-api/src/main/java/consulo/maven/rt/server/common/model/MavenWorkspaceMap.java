@@ -23,8 +23,15 @@ import java.io.Serializable;
 import java.util.*;
 
 public class MavenWorkspaceMap implements Serializable {
+  private static final int MAX_JOURNAL_SIZE = 4096;
+
   private final Map<MavenId, Data> myMapping = new HashMap<MavenId, Data>();
 
+  private String myId = UUID.randomUUID().toString();
+  private long myGeneration;
+  // the last changes, up to myGeneration; not transferred, the receiving side starts its own journal
+  private transient List<MavenWorkspaceMapDelta.Change> myJournal;
+
   public void register(@Nonnull MavenId id, @Nonnull File file) {
     register(id, file, null);
   }
@@ -33,12 +40,67 @@ public class MavenWorkspaceMap implements Serializable {
     for (MavenId each : getAllIDs(id)) {
       myMapping.put(each, new Data(id, file, outputFile));
     }
+    record(new MavenWorkspaceMapDelta.Change(id, file, outputFile));
   }
 
   public void unregister(@Nonnull MavenId id) {
     for (MavenId each : getAllIDs(id)) {
       myMapping.remove(each);
     }
+    record(new MavenWorkspaceMapDelta.Change(id, null, null));
+  }
+
+  @Nonnull
+  public String getId() {
+    return myId;
+  }
+
+  /**
+   * Incremented by every register/unregister; together with {@link #getId()} identifies the map content.
+   */
+  public long getGeneration() {
+    return myGeneration;
+  }
+
+  /**
+   * @return the changes made after {@code generation}, or {@code null} if they are no longer known and the whole map has to be sent
+   */
+  @Nullable
+  public MavenWorkspaceMapDelta getDeltaSince(long generation) {
+    int journalSize = myJournal == null ? 0 : myJournal.size();
+    if (generation > myGeneration || generation < myGeneration - journalSize) {
+      return null;
+    }
+    List<MavenWorkspaceMapDelta.Change> changes = journalSize == 0
+                                                  ? Collections.<MavenWorkspaceMapDelta.Change>emptyList()
+                                                  : myJournal.subList(journalSize - (int)(myGeneration - generation), journalSize);
+    return new MavenWorkspaceMapDelta(myId, generation, myGeneration, new ArrayList<MavenWorkspaceMapDelta.Change>(changes));
+  }
+
+  /**
+   * @return false if the delta was made against another map or generation; the map is left unchanged then
+   */
+  public boolean applyDelta(@Nonnull MavenWorkspaceMapDelta delta) {
+    if (!myId.equals(delta.getMapId()) || myGeneration != delta.getBaseGeneration()) {
+      return false;
+    }
+    for (MavenWorkspaceMapDelta.Change each : delta.getChanges()) {
+      if (each.file == null) {
+        unregister(each.id);
+      }
+      else {
+        register(each.id, each.file, each.outputFile);
+      }
+    }
+    return myGeneration == delta.getGeneration();
+  }
+
+  private void record(MavenWorkspaceMapDelta.Change change) {
+    myGeneration++;
+    if (myJournal == null || myJournal.size() >= MAX_JOURNAL_SIZE) {
+      myJournal = new ArrayList<MavenWorkspaceMapDelta.Change>();
+    }
+    myJournal.add(change);
   }
 
   @Nullable
@@ -66,6 +128,11 @@ public class MavenWorkspaceMap implements Serializable {
   public MavenWorkspaceMap copy() {
     MavenWorkspaceMap result = new MavenWorkspaceMap();
     result.myMapping.putAll(myMapping);
+    result.myId = myId;
+    result.myGeneration = myGeneration;
+    if (myJournal != null) {
+      result.myJournal = new ArrayList<MavenWorkspaceMapDelta.Change>(myJournal);
+    }
     return result;
   }
 
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2000-2010 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package consulo.maven.rt.server.common.model;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Register/unregister operations that move a {@link MavenWorkspaceMap} from {@code baseGeneration} to {@code generation}.
+ */
+public class MavenWorkspaceMapDelta implements Serializable {
+  private final String myMapId;
+  private final long myBaseGeneration;
+  private final long myGeneration;
+  private final List<Change> myChanges;
+
+  public MavenWorkspaceMapDelta(@Nonnull String mapId, long baseGeneration, long generation, @Nonnull List<Change> changes) {
+    myMapId = mapId;
+    myBaseGeneration = baseGeneration;
+    myGeneration = generation;
+    myChanges = changes;
+  }
+
+  @Nonnull
+  public String getMapId() {
+    return myMapId;
+  }
+
+  public long getBaseGeneration() {
+    return myBaseGeneration;
+  }
+
+  public long getGeneration() {
+    return myGeneration;
+  }
+
+  @Nonnull
+  public List<Change> getChanges() {
+    return myChanges;
+  }
+
+  public static class Change implements Serializable {
+    public final MavenId id;
+    /**
+     * {@code null} for unregistration
+     */
+    @Nullable public final File file;
+    @Nullable public final File outputFile;
+
+    public Change(@Nonnull MavenId id, @Nullable File file, @Nullable File outputFile) {
+      this.id = id;
+      this.file = file;
+      this.outputFile = outputFile;
+    }
+  }
+}
@@ -10,14 +10,24 @@ public class IndexedMavenId implements Serializable
 	public final String version;
 	public final String packaging;
 	public final String description;
+	/**
+	 * Class names of the artifact as the index keeps them, one {@code /package/path/ClassName} per line; not part of the identity
+	 */
+	public final String classNames;
 
 	public IndexedMavenId(String groupId, String artifactId, String version, String packaging, String description)
+	{
+		this(groupId, artifactId, version, packaging, description, null);
+	}
+
+	public IndexedMavenId(String groupId, String artifactId, String version, String packaging, String description, String classNames)
 	{
 		this.groupId = groupId;
 		this.artifactId = artifactId;
 		this.version = version;
 		this.packaging = packaging;
 		this.description = description;
+		this.classNames = classNames;
 	}
 
 	@Override
@@ -20,6 +20,7 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -30,6 +31,7 @@ import consulo.maven.rt.server.common.model.MavenId;
 import consulo.maven.rt.server.common.model.MavenPlugin;
 import consulo.maven.rt.server.common.model.MavenRemoteRepository;
 import consulo.maven.rt.server.common.model.MavenWorkspaceMap;
+import consulo.maven.rt.server.common.model.MavenWorkspaceMapDelta;
 
 public interface MavenServerEmbedder extends Remote
 {
@@ -42,6 +44,17 @@ public interface MavenServerEmbedder extends Remote
 			@Nonnull MavenServerProgressIndicator indicator,
 			boolean alwaysUpdateSnapshots) throws RemoteException;
 
+	/**
+	 * Same as {@link #customize} but brings the workspace map received by a previous customization up to date instead of replacing it.
+	 *
+	 * @return false if the embedder's workspace map is not the delta's base; nothing is customized then and the full map has to be sent
+	 */
+	boolean customize(@Nonnull MavenWorkspaceMapDelta workspaceMapDelta,
+			boolean failOnUnresolvedDependency,
+			@Nonnull MavenServerConsole console,
+			@Nonnull MavenServerProgressIndicator indicator,
+			boolean alwaysUpdateSnapshots) throws RemoteException;
+
 	void customizeComponents() throws RemoteException;
 
 	@Nonnull
@@ -53,12 +66,32 @@ public interface MavenServerEmbedder extends Remote
 			@Nonnull Collection<String> activeProfiles,
 			@Nonnull Collection<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
 
+	/**
+	 * @return one result per file, in the order of {@code files}
+	 */
+	@Nonnull
+	List<MavenServerExecutionResult> resolveProjects(@Nonnull Collection<File> files,
+			@Nonnull Collection<String> activeProfiles,
+			@Nonnull Collection<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
+
 	@Nullable
 	String evaluateEffectivePom(@Nonnull File file, @Nonnull List<String> activeProfiles, @Nonnull List<String> inactiveProfiles) throws RemoteException, MavenServerProcessCanceledException;
 
 	@Nonnull
 	MavenArtifact resolve(@Nonnull MavenArtifactInfo info, @Nonnull List<MavenRemoteRepository> remoteRepositories) throws RemoteException, MavenServerProcessCanceledException;
 
+	/**
+	 * Resolves the artifacts with a single call, transferring up to {@code threads} of them at once where the Maven version allows it.
+	 *
+	 * @param listener notified of every artifact as soon as it is resolved
+	 * @return one artifact per info, in the order of {@code artifacts}; the ones that cannot be resolved are returned with missing files
+	 */
+	@Nonnull
+	List<MavenArtifact> resolveArtifacts(@Nonnull List<MavenArtifactInfo> artifacts,
+			@Nonnull List<MavenRemoteRepository> remoteRepositories,
+			int threads,
+			@Nullable MavenServerDownloadListener listener) throws RemoteException, MavenServerProcessCanceledException;
+
 	@Nonnull
 	List<MavenArtifact> resolveTransitively(@Nonnull List<MavenArtifactInfo> artifacts,
 			@Nonnull List<MavenRemoteRepository> remoteRepositories) throws RemoteException, MavenServerProcessCanceledException;
@@ -77,6 +110,22 @@ public interface MavenServerEmbedder extends Remote
 			boolean alsoMake,
 			boolean alsoMakeDependents) throws RemoteException, MavenServerProcessCanceledException;
 
+	/**
+	 * Runs the goals once over the selected projects of the reactor of the file instead of once per project, with {@code threads}
+	 * builder threads where the Maven version allows it.
+	 *
+	 * @return the result of every project of the build by the path of its pom, with the models carrying the source roots the goals left;
+	 * if the build fails, the problems are reported in the result of {@code file}
+	 */
+	@Nonnull
+	Map<String, MavenServerExecutionResult> executeReactor(@Nonnull File file,
+			@Nonnull Collection<String> activeProfiles,
+			@Nonnull Collection<String> inactiveProfiles,
+			@Nonnull List<String> goals,
+			@Nonnull List<String> selectedProjects,
+			boolean alsoMake,
+			int threads) throws RemoteException, MavenServerProcessCanceledException;
+
 	void reset() throws RemoteException;
 
 	void release() throws RemoteException;
@@ -15,9 +15,13 @@
  */
 package consulo.maven.rt.m3.common.server;
 
+import consulo.maven.rt.server.common.model.MavenId;
+import consulo.maven.rt.server.common.model.MavenModel;
+import consulo.maven.rt.server.common.model.MavenProjectProblem;
 import consulo.maven.rt.server.common.model.MavenRemoteRepository;
 import consulo.maven.rt.server.common.server.MavenRemoteObject;
 import consulo.maven.rt.server.common.server.MavenServerEmbedder;
+import consulo.maven.rt.server.common.server.MavenServerExecutionResult;
 import consulo.maven.rt.server.common.server.MavenServerSettings;
 import org.apache.maven.AbstractMavenLifecycleParticipant;
 import org.apache.maven.MavenExecutionException;
@@ -27,9 +31,15 @@ import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.artifact.metadata.ArtifactMetadataSource;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.execution.BuildFailure;
+import org.apache.maven.execution.BuildSuccess;
+import org.apache.maven.execution.BuildSummary;
 import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Profile;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.dependency.tree.DependencyNode;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
@@ -38,6 +48,7 @@ import java.rmi.RemoteException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 
 
@@ -114,4 +125,77 @@ public abstract class Maven3ServerEmbedder extends MavenRemoteObject implements
 	public abstract void executeWithMavenSession(MavenExecutionRequest request, Runnable runnable);
 
 	public abstract MavenExecutionRequest createRequest(File file, List<String> activeProfiles, List<String> inactiveProfiles, List<String> goals) throws RemoteException;
+
+	@Nonnull
+	public abstract File getLocalRepositoryFile();
+
+	protected abstract void validate(@Nonnull File file,
+			@Nonnull Collection<Exception> exceptions,
+			@Nonnull Collection<MavenProjectProblem> problems,
+			@Nullable Collection<MavenId> unresolvedArtifacts) throws RemoteException;
+
+	/**
+	 * Converts the result of one project of a reactor build; the projects that failed or were skipped get no data.
+	 */
+	@Nonnull
+	protected MavenServerExecutionResult createReactorExecutionResult(@Nonnull MavenExecutionResult executionResult,
+			@Nonnull MavenProject mavenProject) throws RemoteException
+	{
+		Collection<MavenProjectProblem> problems = new ArrayList<MavenProjectProblem>();
+
+		BuildSummary summary = executionResult.getBuildSummary(mavenProject);
+		if(!(summary instanceof BuildSuccess))
+		{
+			if(summary instanceof BuildFailure)
+			{
+				Throwable cause = ((BuildFailure) summary).getCause();
+				Exception exception = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+				validate(mavenProject.getFile(), Collections.singletonList(exception), problems, null);
+			}
+			// not built when an upstream project fails
+			return new MavenServerExecutionResult(null, problems, Collections.<MavenId>emptySet());
+		}
+
+		MavenModel model = MavenModelConverter.convertModel(mavenProject.getModel(), mavenProject.getCompileSourceRoots(),
+				mavenProject.getTestCompileSourceRoots(), Collections.<Artifact>emptyList(), Collections.<DependencyNode>emptyList(),
+				Collections.<Artifact>emptyList(), getLocalRepositoryFile());
+		MavenServerExecutionResult.ProjectData data = new MavenServerExecutionResult.ProjectData(model,
+				MavenModelConverter.convertToMap(mavenProject.getModel()), null, collectActivatedProfiles(mavenProject));
+		return new MavenServerExecutionResult(data, problems, Collections.<MavenId>emptySet());
+	}
+
+	protected static Collection<String> collectActivatedProfiles(MavenProject mavenProject) throws RemoteException
+	{
+		// for some reason project's active profiles do not contain parent's profiles - only local and settings'.
+		// parent's profiles do not contain settings' profiles.
+
+		List<Profile> profiles = new ArrayList<Profile>();
+		try
+		{
+			while(mavenProject != null)
+			{
+				profiles.addAll(mavenProject.getActiveProfiles());
+				mavenProject = mavenProject.getParent();
+			}
+		}
+		catch(Exception e)
+		{
+			// don't bother user if maven failed to build parent project
+			Maven3ServerGlobals.getLogger().info(e);
+		}
+		return collectProfilesIds(profiles);
+	}
+
+	protected static Collection<String> collectProfilesIds(List<Profile> profiles)
+	{
+		Collection<String> result = new HashSet<String>();
+		for(Profile each : profiles)
+		{
+			if(each.getId() != null)
+			{
+				result.add(each.getId());
+			}
+		}
+		return result;
+	}
 }
@@ -291,8 +291,9 @@ public abstract class Maven3ServerIndexerImpl extends MavenRemoteObject implemen
 
 				String packaging = doc.get(ArtifactInfo.PACKAGING);
 				String description = doc.get(ArtifactInfo.DESCRIPTION);
+				String classNames = doc.get(SEARCH_TERM_CLASS_NAMES);
 
-				result.add(new IndexedMavenId(groupId, artifactId, version, packaging, description));
+				result.add(new IndexedMavenId(groupId, artifactId, version, packaging, description, classNames));
 
 				if(result.size() == CHUNK_SIZE)
 				{
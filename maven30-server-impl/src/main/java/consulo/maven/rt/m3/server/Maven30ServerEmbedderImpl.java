@@ -264,25 +264,6 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         return new MavenExecutionResult(null, Collections.singletonList((Exception) e));
     }
 
-    private static Collection<String> collectActivatedProfiles(MavenProject mavenProject)
-        throws RemoteException {
-        // for some reason project's active profiles do not contain parent's profiles - only local and settings'.
-        // parent's profiles do not contain settings' profiles.
-
-        List<Profile> profiles = new ArrayList<Profile>();
-        try {
-            while (mavenProject != null) {
-                profiles.addAll(mavenProject.getActiveProfiles());
-                mavenProject = mavenProject.getParent();
-            }
-        }
-        catch (Exception e) {
-            // don't bother user if maven failed to build parent project
-            Maven3ServerGlobals.getLogger().info(e);
-        }
-        return collectProfilesIds(profiles);
-    }
-
     private static List<Exception> filterExceptions(List<Throwable> list) {
         for (Throwable throwable : list) {
             if (!(throwable instanceof Exception)) {
@@ -403,16 +384,6 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         return result;
     }
 
-    private static Collection<String> collectProfilesIds(List<Profile> profiles) {
-        Collection<String> result = new HashSet<String>();
-        for (Profile each : profiles) {
-            if (each.getId() != null) {
-                result.add(each.getId());
-            }
-        }
-        return result;
-    }
-
     private static ProfileActivator[] getProfileActivators(File basedir) throws RemoteException {
         SystemPropertyProfileActivator sysPropertyActivator = new SystemPropertyProfileActivator();
         DefaultContext context = new DefaultContext();
@@ -511,6 +482,20 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         }
     }
 
+    @Override
+    public boolean customize(@Nonnull MavenWorkspaceMapDelta workspaceMapDelta,
+                             boolean failOnUnresolvedDependency,
+                             @Nonnull MavenServerConsole console,
+                             @Nonnull MavenServerProgressIndicator indicator,
+                             boolean alwaysUpdateSnapshots) throws RemoteException {
+        MavenWorkspaceMap workspaceMap = myWorkspaceMap;
+        if (workspaceMap == null || !workspaceMap.applyDelta(workspaceMapDelta)) {
+            return false;
+        }
+        customize(workspaceMap, failOnUnresolvedDependency, console, indicator, alwaysUpdateSnapshots);
+        return true;
+    }
+
     @Override
     public void customizeComponents() throws RemoteException {
         // replace some plexus components
@@ -534,11 +519,32 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
                                                      @Nonnull Collection<String> activeProfiles,
                                                      @Nonnull Collection<String> inactiveProfiles)
         throws RemoteException, MavenServerProcessCanceledException {
-        DependencyTreeResolutionListener listener = new DependencyTreeResolutionListener(myConsoleWrapper);
+        return resolveProjects(Collections.singletonList(file), activeProfiles, inactiveProfiles).get(0);
+    }
 
-        MavenExecutionResult result = doResolveProject(file, new ArrayList<String>(activeProfiles), new ArrayList<String>(inactiveProfiles),
-            Arrays.<ResolutionListener>asList(listener));
-        return createExecutionResult(file, result, listener.getRootNode());
+    @Nonnull
+    @Override
+    public List<MavenServerExecutionResult> resolveProjects(@Nonnull Collection<File> files,
+                                                            @Nonnull Collection<String> activeProfiles,
+                                                            @Nonnull Collection<String> inactiveProfiles)
+        throws RemoteException, MavenServerProcessCanceledException {
+        List<File> filesToResolve = new ArrayList<File>(files);
+        List<DependencyTreeResolutionListener> listeners = new ArrayList<DependencyTreeResolutionListener>(filesToResolve.size());
+        List<List<ResolutionListener>> listenersPerFile = new ArrayList<List<ResolutionListener>>(filesToResolve.size());
+        for (int i = 0; i < filesToResolve.size(); i++) {
+            DependencyTreeResolutionListener listener = new DependencyTreeResolutionListener(myConsoleWrapper);
+            listeners.add(listener);
+            listenersPerFile.add(Arrays.<ResolutionListener>asList(listener));
+        }
+
+        List<MavenExecutionResult> results =
+            doResolveProjects(filesToResolve, new ArrayList<String>(activeProfiles), new ArrayList<String>(inactiveProfiles), listenersPerFile);
+
+        List<MavenServerExecutionResult> executionResults = new ArrayList<MavenServerExecutionResult>(filesToResolve.size());
+        for (int i = 0; i < filesToResolve.size(); i++) {
+            executionResults.add(createExecutionResult(filesToResolve.get(i), results.get(i), listeners.get(i).getRootNode()));
+        }
+        return executionResults;
     }
 
     @Nullable
@@ -585,98 +591,167 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
                                                  @Nonnull final List<String> activeProfiles,
                                                  @Nonnull final List<String> inactiveProfiles,
                                                  final List<ResolutionListener> listeners) throws RemoteException {
-        final MavenExecutionRequest request = createRequest(file, activeProfiles, inactiveProfiles, Collections.<String>emptyList());
+        return doResolveProjects(Collections.singletonList(file), activeProfiles, inactiveProfiles, Collections.singletonList(listeners)).get(0);
+    }
+
+    /**
+     * Builds all given poms with a single {@link ProjectBuilder#build(List, boolean, ProjectBuildingRequest)} call, so parents,
+     * imported boms and plugin descriptors shared by the reactor are built only once, and then resolves dependencies of each project.
+     * <p/>
+     * If the batch can not be built as a whole (e.g. one of the poms is broken), every pom is resolved separately,
+     * so that problems are reported for the right project.
+     *
+     * @return results in the order of {@code files}
+     */
+    @Nonnull
+    public List<MavenExecutionResult> doResolveProjects(@Nonnull final List<File> files,
+                                                        @Nonnull final List<String> activeProfiles,
+                                                        @Nonnull final List<String> inactiveProfiles,
+                                                        @Nonnull final List<List<ResolutionListener>> listeners) throws RemoteException {
+        final MavenExecutionRequest request = createRequest(files.get(0), activeProfiles, inactiveProfiles, Collections.<String>emptyList());
 
         request.setUpdateSnapshots(myAlwaysUpdateSnapshots);
 
-        final AtomicReference<MavenExecutionResult> ref = new AtomicReference<MavenExecutionResult>();
+        final List<MavenExecutionResult> executionResults = new ArrayList<MavenExecutionResult>(files.size());
+        final AtomicReference<Exception> buildFailure = new AtomicReference<Exception>();
 
         executeWithMavenSession(request, new Runnable() {
             @Override
             public void run() {
+                List<ProjectBuildingResult> buildingResults;
                 try {
-                    // copied from DefaultMavenProjectBuilder.buildWithDependencies
-                    ProjectBuilder builder = getComponent(ProjectBuilder.class);
-
-                    CustomMaven3ModelInterpolator2 modelInterpolator = (CustomMaven3ModelInterpolator2) getComponent(ModelInterpolator.class);
+                    buildingResults = buildProjects(files, request);
+                }
+                catch (Exception e) {
+                    buildFailure.set(e);
+                    return;
+                }
 
-                    String savedLocalRepository = modelInterpolator.getLocalRepository();
-                    modelInterpolator.setLocalRepository(request.getLocalRepositoryPath().getAbsolutePath());
-                    List<ProjectBuildingResult> results;
+                RepositorySystemSession repositorySession = getComponent(LegacySupport.class).getRepositorySession();
+                if (repositorySession instanceof DefaultRepositorySystemSession) {
+                    ((DefaultRepositorySystemSession) repositorySession).setTransferListener(new Maven30TransferListenerAdapter(myCurrentIndicator));
 
-                    try {
-                        // Don't use build(File projectFile, ProjectBuildingRequest request) , because it don't use cache !!!!!!!! (see http://devnet.jetbrains.com/message/5500218)
-                        results = builder.build(Collections.singletonList(new File(file.getPath())), false, request.getProjectBuildingRequest());
-                    }
-                    finally {
-                        modelInterpolator.setLocalRepository(savedLocalRepository);
+                    if (myWorkspaceMap != null) {
+                        ((DefaultRepositorySystemSession) repositorySession).setWorkspaceReader(new Maven30WorkspaceReader(myWorkspaceMap));
                     }
+                }
 
-                    ProjectBuildingResult buildingResult = results.get(0);
-
-                    MavenProject project = buildingResult.getProject();
-
-                    RepositorySystemSession repositorySession = getComponent(LegacySupport.class).getRepositorySession();
-                    if (repositorySession instanceof DefaultRepositorySystemSession) {
-                        ((DefaultRepositorySystemSession) repositorySession).setTransferListener(new Maven30TransferListenerAdapter(myCurrentIndicator));
+                List<MavenProject> projects = new ArrayList<MavenProject>(buildingResults.size());
+                for (ProjectBuildingResult each : buildingResults) {
+                    projects.add(each.getProject());
+                }
 
-                        if (myWorkspaceMap != null) {
-                            ((DefaultRepositorySystemSession) repositorySession).setWorkspaceReader(new Maven30WorkspaceReader(myWorkspaceMap));
-                        }
+                List<Exception> exceptions = new ArrayList<Exception>();
+                try {
+                    loadExtensions(projects, exceptions);
+                }
+                catch (Exception e) {
+                    for (int i = 0; i < files.size(); i++) {
+                        executionResults.add(handleException(e));
                     }
+                    return;
+                }
 
-                    List<Exception> exceptions = new ArrayList<Exception>();
-                    loadExtensions(project, exceptions);
-
-                    //Artifact projectArtifact = project.getArtifact();
-                    //Map managedVersions = project.getManagedVersionMap();
-                    //ArtifactMetadataSource metadataSource = getComponent(ArtifactMetadataSource.class);
-                    project.setDependencyArtifacts(project.createArtifacts(getComponent(ArtifactFactory.class), null, null));
-                    //
-
-                    if (USE_MVN2_COMPATIBLE_DEPENDENCY_RESOLVING) {
-                        ArtifactResolutionRequest resolutionRequest = new ArtifactResolutionRequest();
-                        resolutionRequest.setArtifactDependencies(project.getDependencyArtifacts());
-                        resolutionRequest.setArtifact(project.getArtifact());
-                        resolutionRequest.setManagedVersionMap(project.getManagedVersionMap());
-                        resolutionRequest.setLocalRepository(myLocalRepository);
-                        resolutionRequest.setRemoteRepositories(project.getRemoteArtifactRepositories());
-                        resolutionRequest.setListeners(listeners);
-
-                        resolutionRequest.setResolveRoot(false);
-                        resolutionRequest.setResolveTransitively(true);
-
-                        ArtifactResolver resolver = getComponent(ArtifactResolver.class);
-                        ArtifactResolutionResult result = resolver.resolve(resolutionRequest);
-
-                        project.setArtifacts(result.getArtifacts());
-                        // end copied from DefaultMavenProjectBuilder.buildWithDependencies
-                        ref.set(new MavenExecutionResult(project, exceptions));
+                for (int i = 0; i < projects.size(); i++) {
+                    try {
+                        executionResults.add(resolveProjectDependencies(projects.get(i), repositorySession, new ArrayList<Exception>(exceptions), listeners.get(i)));
                     }
-                    else {
-                        final DependencyResolutionResult dependencyResolutionResult = resolveDependencies(project, repositorySession);
-                        final List<Dependency> dependencies = dependencyResolutionResult.getDependencies();
-
-                        Set<Artifact> artifacts = new LinkedHashSet<Artifact>(dependencies.size());
-                        for (Dependency dependency : dependencies) {
-                            final Artifact artifact = RepositoryUtils.toArtifact(dependency.getArtifact());
-                            artifact.setScope(dependency.getScope());
-                            artifact.setOptional(dependency.isOptional());
-                            artifacts.add(artifact);
-                            resolveAsModule(artifact);
-                        }
-
-                        project.setArtifacts(artifacts);
-                        ref.set(new MavenExecutionResult(project, dependencyResolutionResult, exceptions));
+                    catch (Exception e) {
+                        executionResults.add(handleException(e));
                     }
                 }
-                catch (Exception e) {
-                    ref.set(handleException(e));
-                }
             }
         });
 
-        return ref.get();
+        Exception failure = buildFailure.get();
+        if (failure != null) {
+            if (files.size() == 1) {
+                return Collections.singletonList(handleException(failure));
+            }
+
+            executionResults.clear();
+            for (int i = 0; i < files.size(); i++) {
+                executionResults.add(doResolveProject(files.get(i), activeProfiles, inactiveProfiles, listeners.get(i)));
+            }
+        }
+        return executionResults;
+    }
+
+    @Nonnull
+    private List<ProjectBuildingResult> buildProjects(@Nonnull List<File> files, @Nonnull MavenExecutionRequest request) throws ProjectBuildingException {
+        // copied from DefaultMavenProjectBuilder.buildWithDependencies
+        ProjectBuilder builder = getComponent(ProjectBuilder.class);
+
+        CustomMaven3ModelInterpolator2 modelInterpolator = (CustomMaven3ModelInterpolator2) getComponent(ModelInterpolator.class);
+
+        String savedLocalRepository = modelInterpolator.getLocalRepository();
+        modelInterpolator.setLocalRepository(request.getLocalRepositoryPath().getAbsolutePath());
+
+        List<File> pomFiles = new ArrayList<File>(files.size());
+        for (File each : files) {
+            pomFiles.add(new File(each.getPath()));
+        }
+
+        List<ProjectBuildingResult> results;
+        try {
+            // Don't use build(File projectFile, ProjectBuildingRequest request) , because it don't use cache !!!!!!!! (see http://devnet.jetbrains.com/message/5500218)
+            results = builder.build(pomFiles, false, request.getProjectBuildingRequest());
+        }
+        finally {
+            modelInterpolator.setLocalRepository(savedLocalRepository);
+        }
+
+        if (results.size() != pomFiles.size()) {
+            throw new IllegalStateException("Unexpected number of built projects: " + results.size() + " instead of " + pomFiles.size());
+        }
+        return results;
+    }
+
+    @Nonnull
+    private MavenExecutionResult resolveProjectDependencies(@Nonnull MavenProject project,
+                                                            RepositorySystemSession repositorySession,
+                                                            @Nonnull List<Exception> exceptions,
+                                                            List<ResolutionListener> listeners) throws Exception {
+        //Artifact projectArtifact = project.getArtifact();
+        //Map managedVersions = project.getManagedVersionMap();
+        //ArtifactMetadataSource metadataSource = getComponent(ArtifactMetadataSource.class);
+        project.setDependencyArtifacts(project.createArtifacts(getComponent(ArtifactFactory.class), null, null));
+        //
+
+        if (USE_MVN2_COMPATIBLE_DEPENDENCY_RESOLVING) {
+            ArtifactResolutionRequest resolutionRequest = new ArtifactResolutionRequest();
+            resolutionRequest.setArtifactDependencies(project.getDependencyArtifacts());
+            resolutionRequest.setArtifact(project.getArtifact());
+            resolutionRequest.setManagedVersionMap(project.getManagedVersionMap());
+            resolutionRequest.setLocalRepository(myLocalRepository);
+            resolutionRequest.setRemoteRepositories(project.getRemoteArtifactRepositories());
+            resolutionRequest.setListeners(listeners);
+
+            resolutionRequest.setResolveRoot(false);
+            resolutionRequest.setResolveTransitively(true);
+
+            ArtifactResolver resolver = getComponent(ArtifactResolver.class);
+            ArtifactResolutionResult result = resolver.resolve(resolutionRequest);
+
+            project.setArtifacts(result.getArtifacts());
+            // end copied from DefaultMavenProjectBuilder.buildWithDependencies
+            return new MavenExecutionResult(project, exceptions);
+        }
+
+        final DependencyResolutionResult dependencyResolutionResult = resolveDependencies(project, repositorySession);
+        final List<Dependency> dependencies = dependencyResolutionResult.getDependencies();
+
+        Set<Artifact> artifacts = new LinkedHashSet<Artifact>(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            final Artifact artifact = RepositoryUtils.toArtifact(dependency.getArtifact());
+            artifact.setScope(dependency.getScope());
+            artifact.setOptional(dependency.isOptional());
+            artifacts.add(artifact);
+            resolveAsModule(artifact);
+        }
+
+        project.setArtifacts(artifacts);
+        return new MavenExecutionResult(project, dependencyResolutionResult, exceptions);
     }
 
     private boolean resolveAsModule(Artifact a) {
@@ -734,14 +809,14 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
     /**
      * adapted from {@link DefaultMaven#doExecute(MavenExecutionRequest)}
      */
-    private void loadExtensions(MavenProject project, List<Exception> exceptions) {
+    private void loadExtensions(List<MavenProject> projects, List<Exception> exceptions) {
         ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
-        Collection<AbstractMavenLifecycleParticipant> lifecycleParticipants = getLifecycleParticipants(Arrays.asList(project));
+        Collection<AbstractMavenLifecycleParticipant> lifecycleParticipants = getLifecycleParticipants(projects);
         if (!lifecycleParticipants.isEmpty()) {
             LegacySupport legacySupport = getComponent(LegacySupport.class);
             MavenSession session = legacySupport.getSession();
-            session.setCurrentProject(project);
-            session.setProjects(Arrays.asList(project));
+            session.setCurrentProject(projects.get(0));
+            session.setProjects(projects);
 
             for (AbstractMavenLifecycleParticipant listener : lifecycleParticipants) {
                 Thread.currentThread().setContextClassLoader(listener.getClass().getClassLoader());
@@ -834,6 +909,7 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
     }
 
     @Nonnull
+    @Override
     public File getLocalRepositoryFile() {
         return new File(myLocalRepository.getBasedir());
     }
@@ -892,10 +968,11 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         return new MavenServerExecutionResult(data, problems, unresolvedArtifacts);
     }
 
-    private void validate(@Nonnull File file,
-                          @Nonnull Collection<Exception> exceptions,
-                          @Nonnull Collection<MavenProjectProblem> problems,
-                          @Nullable Collection<MavenId> unresolvedArtifacts) throws RemoteException {
+    @Override
+    protected void validate(@Nonnull File file,
+                            @Nonnull Collection<Exception> exceptions,
+                            @Nonnull Collection<MavenProjectProblem> problems,
+                            @Nullable Collection<MavenId> unresolvedArtifacts) throws RemoteException {
         for (Throwable each : exceptions) {
             Maven3ServerGlobals.getLogger().info(each);
 
@@ -942,6 +1019,26 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         return doResolve(info, remoteRepositories);
     }
 
+    @Nonnull
+    @Override
+    public List<MavenArtifact> resolveArtifacts(@Nonnull List<MavenArtifactInfo> artifacts,
+                                                @Nonnull List<MavenRemoteRepository> remoteRepositories,
+                                                int threads,
+                                                @Nullable MavenServerDownloadListener listener)
+        throws RemoteException, MavenServerProcessCanceledException {
+        // the legacy resolver transfers one artifact at a time
+        List<ArtifactRepository> repos = convertRepositories(remoteRepositories);
+        List<MavenArtifact> result = new ArrayList<MavenArtifact>(artifacts.size());
+        for (MavenArtifactInfo each : artifacts) {
+            MavenArtifact artifact = MavenModelConverter.convertArtifact(doResolve(createArtifact(each), repos), getLocalRepositoryFile());
+            if (listener != null && artifact.isResolved()) {
+                listener.artifactDownloaded(artifact.getFile(), artifact.getRelativePath());
+            }
+            result.add(artifact);
+        }
+        return result;
+    }
+
     @Nonnull
     @Override
     public List<MavenArtifact> resolveTransitively(@Nonnull List<MavenArtifactInfo> artifacts,
@@ -1095,6 +1192,38 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
         return createExecutionResult(file, result, null);
     }
 
+    @Nonnull
+    @Override
+    public Map<String, MavenServerExecutionResult> executeReactor(@Nonnull File file,
+                                                                  @Nonnull Collection<String> activeProfiles,
+                                                                  @Nonnull Collection<String> inactiveProfiles,
+                                                                  @Nonnull List<String> goals,
+                                                                  @Nonnull List<String> selectedProjects,
+                                                                  boolean alsoMake,
+                                                                  int threads) throws RemoteException, MavenServerProcessCanceledException {
+        MavenExecutionRequest request = createExecuteRequest(file, new ArrayList<String>(activeProfiles), new ArrayList<String>(inactiveProfiles), goals,
+            selectedProjects, alsoMake, false);
+        if (threads > 1) {
+            request.setThreadCount(String.valueOf(threads));
+        }
+
+        org.apache.maven.execution.MavenExecutionResult executionResult = safeExecute(request, getComponent(Maven.class));
+
+        Map<String, MavenServerExecutionResult> results = new LinkedHashMap<String, MavenServerExecutionResult>();
+        List<MavenProject> projects = executionResult.getTopologicallySortedProjects();
+        if (projects != null) {
+            for (MavenProject each : projects) {
+                results.put(each.getFile().getPath(), createReactorExecutionResult(executionResult, each));
+            }
+        }
+        if (!results.containsKey(file.getPath())) {
+            Collection<MavenProjectProblem> problems = new ArrayList<MavenProjectProblem>();
+            validate(file, filterExceptions(executionResult.getExceptions()), problems, null);
+            results.put(file.getPath(), new MavenServerExecutionResult(null, problems, Collections.<MavenId>emptySet()));
+        }
+        return results;
+    }
+
     private MavenExecutionResult doExecute(@Nonnull final File file,
                                            @Nonnull final List<String> activeProfiles,
                                            @Nonnull final List<String> inactiveProfiles,
@@ -1102,6 +1231,20 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
                                            @Nonnull final List<String> selectedProjects,
                                            boolean alsoMake,
                                            boolean alsoMakeDependents) throws RemoteException {
+        MavenExecutionRequest request = createExecuteRequest(file, activeProfiles, inactiveProfiles, goals, selectedProjects, alsoMake, alsoMakeDependents);
+
+        org.apache.maven.execution.MavenExecutionResult executionResult = safeExecute(request, getComponent(Maven.class));
+
+        return new MavenExecutionResult(executionResult.getProject(), filterExceptions(executionResult.getExceptions()));
+    }
+
+    private MavenExecutionRequest createExecuteRequest(@Nonnull File file,
+                                                       @Nonnull List<String> activeProfiles,
+                                                       @Nonnull List<String> inactiveProfiles,
+                                                       @Nonnull List<String> goals,
+                                                       @Nonnull List<String> selectedProjects,
+                                                       boolean alsoMake,
+                                                       boolean alsoMakeDependents) throws RemoteException {
         MavenExecutionRequest request = createRequest(file, activeProfiles, inactiveProfiles, goals);
 
         if (!selectedProjects.isEmpty()) {
@@ -1117,10 +1260,7 @@ public class Maven30ServerEmbedderImpl extends Maven3ServerEmbedder {
                 request.setMakeBehavior(ReactorManager.MAKE_DEPENDENTS_MODE);
             }
         }
-
-        org.apache.maven.execution.MavenExecutionResult executionResult = safeExecute(request, getComponent(Maven.class));
-
-        return new MavenExecutionResult(executionResult.getProject(), filterExceptions(executionResult.getExceptions()));
+        return request;
     }
 
     private org.apache.maven.execution.MavenExecutionResult safeExecute(MavenExecutionRequest request, Maven maven) throws RemoteException {
@@ -228,6 +228,20 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
     // if needed, it could also be stored here
   }
 
+  @Override
+  public boolean customize(MavenWorkspaceMapDelta workspaceMapDelta,
+                           boolean failOnUnresolvedDependency,
+                           MavenServerConsole console,
+                           MavenServerProgressIndicator indicator,
+                           boolean alwaysUpdateSnapshots) throws RemoteException {
+    MavenWorkspaceMap workspaceMap = myWorkspaceMap;
+    if (workspaceMap == null || !workspaceMap.applyDelta(workspaceMapDelta)) {
+      return false;
+    }
+    customize(workspaceMap, failOnUnresolvedDependency, console, indicator, alwaysUpdateSnapshots);
+    return true;
+  }
+
   @Override
   public void customizeComponents() throws RemoteException {
     // nothing to do for Maven 4
@@ -245,12 +259,24 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
                                                     Collection<String> activeProfiles,
                                                     Collection<String> inactiveProfiles)
     throws RemoteException, MavenServerProcessCanceledException {
+    List<MavenServerExecutionResult> results = resolveProjects(Collections.singletonList(file), activeProfiles, inactiveProfiles);
+    if (results.isEmpty()) {
+      return new MavenServerExecutionResult(null, Collections.emptyList(), Collections.emptySet());
+    }
+    return results.get(0);
+  }
+
+  @Override
+  public List<MavenServerExecutionResult> resolveProjects(Collection<File> files,
+                                                          Collection<String> activeProfiles,
+                                                          Collection<String> inactiveProfiles)
+    throws RemoteException, MavenServerProcessCanceledException {
     MavenWorkspaceMap workspaceMap = myWorkspaceMap != null ? myWorkspaceMap : new MavenWorkspaceMap();
     Maven40ProjectResolver projectResolver = new Maven40ProjectResolver(
       this,
       myAlwaysUpdateSnapshots,
       myImporterSpy,
-      Collections.singletonList(file),
+      new ArrayList<>(files),
       new ArrayList<>(activeProfiles),
       new ArrayList<>(inactiveProfiles),
       workspaceMap,
@@ -260,11 +286,7 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
 
     try {
       customizeComponents(workspaceMap);
-      ArrayList<MavenServerExecutionResult> results = projectResolver.resolveProjects();
-      if (results.isEmpty()) {
-        return new MavenServerExecutionResult(null, Collections.emptyList(), Collections.emptySet());
-      }
-      return results.get(0);
+      return projectResolver.resolveProjects();
     }
     finally {
       resetComponents();
@@ -314,6 +336,64 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
     }
   }
 
+  @Override
+  public List<MavenArtifact> resolveArtifacts(List<MavenArtifactInfo> artifacts,
+                                              List<MavenRemoteRepository> remoteRepositories,
+                                              int threads,
+                                              MavenServerDownloadListener listener)
+    throws RemoteException, MavenServerProcessCanceledException {
+    try {
+      MavenExecutionRequest request = createRequest(null, null, null);
+      // the connector downloads the missing files of a batch with this many threads
+      request.getUserProperties().setProperty("aether.connector.basic.threads", String.valueOf(threads));
+      request.getUserProperties().setProperty("maven.artifact.threads", String.valueOf(threads));
+      List<MavenArtifact> result = new ArrayList<>(artifacts.size());
+
+      executeWithMavenSession(request, new MavenWorkspaceMap(), mavenSession -> {
+        try {
+          List<ArtifactRepository> repos = map2ArtifactRepositories(mavenSession, remoteRepositories, false);
+          repos.forEach(request::addRemoteRepository);
+
+          List<ArtifactRequest> requests = new ArrayList<>(artifacts.size());
+          for (MavenArtifactInfo each : artifacts) {
+            requests.add(new ArtifactRequest(RepositoryUtils.toArtifact(createArtifact(each)), RepositoryUtils.toRepos(repos), null));
+          }
+
+          List<ArtifactResult> results;
+          try {
+            results = getComponent(RepositorySystem.class).resolveArtifacts(mavenSession.getRepositorySession(), requests);
+          }
+          catch (ArtifactResolutionException e) {
+            // the artifacts that are not found are reported among the results
+            results = e.getResults();
+          }
+
+          for (int i = 0; i < artifacts.size(); i++) {
+            ArtifactResult each = results.get(i);
+            Artifact artifact = each.isResolved() ? RepositoryUtils.toArtifact(each.getArtifact()) : createArtifact(artifacts.get(i));
+            result.add(Maven40ModelConverter.convertArtifact(artifact, getLocalRepositoryFile()));
+          }
+        }
+        catch (Exception e) {
+          throw wrapToSerializableRuntimeException(e);
+        }
+      });
+
+      // the session cannot take another repository listener, so the artifacts are reported once the batch is resolved
+      if (listener != null) {
+        for (MavenArtifact each : result) {
+          if (each.isResolved()) {
+            listener.artifactDownloaded(each.getFile(), each.getRelativePath());
+          }
+        }
+      }
+      return result;
+    }
+    catch (Exception e) {
+      throw wrapToSerializableRuntimeException(e);
+    }
+  }
+
   @Override
   public List<MavenArtifact> resolveTransitively(List<MavenArtifactInfo> artifacts,
                                                    List<MavenRemoteRepository> remoteRepositories)
@@ -410,6 +490,78 @@ public class Maven40ServerEmbedderImpl extends MavenRemoteObject implements Mave
     }
   }
 
+  @Override
+  public Map<String, MavenServerExecutionResult> executeReactor(File file,
+                                                                Collection<String> activeProfiles,
+                                                                Collection<String> inactiveProfiles,
+                                                                List<String> goals,
+                                                                List<String> selectedProjects,
+                                                                boolean alsoMake,
+                                                                int threads)
+    throws RemoteException, MavenServerProcessCanceledException {
+    try {
+      MavenExecutionRequest request = createRequest(file, new ArrayList<>(activeProfiles), new ArrayList<>(inactiveProfiles));
+      request.setGoals(goals);
+      if (!selectedProjects.isEmpty()) {
+        request.setSelectedProjects(selectedProjects);
+      }
+      request.setMakeBehavior(alsoMake ? MavenExecutionRequest.REACTOR_MAKE_UPSTREAM : null);
+      if (threads > 1) {
+        request.setBuilderId("multithreaded");
+        request.setDegreeOfConcurrency(threads);
+      }
+
+      Maven maven = getComponent(Maven.class);
+      MavenExecutionResult executionResult = maven.execute(request);
+
+      Map<String, MavenServerExecutionResult> results = new LinkedHashMap<>();
+      List<MavenProject> projects = executionResult.getTopologicallySortedProjects();
+      if (projects != null) {
+        for (MavenProject each : projects) {
+          results.put(each.getFile().getPath(), createReactorExecutionResult(executionResult, each));
+        }
+      }
+      if (!results.containsKey(file.getPath())) {
+        Collection<MavenProjectProblem> problems = collectProblems(file,
+                                                                    filterExceptions(executionResult.getExceptions()),
+                                                                    Collections.emptyList());
+        results.put(file.getPath(), new MavenServerExecutionResult(null, problems, Collections.emptySet()));
+      }
+      return results;
+    }
+    catch (Exception e) {
+      throw wrapToSerializableRuntimeException(e);
+    }
+  }
+
+  private MavenServerExecutionResult createReactorExecutionResult(MavenExecutionResult executionResult, MavenProject mavenProject) {
+    BuildSummary summary = executionResult.getBuildSummary(mavenProject);
+    if (!(summary instanceof BuildSuccess)) {
+      Collection<MavenProjectProblem> problems = Collections.emptyList();
+      if (summary instanceof BuildFailure) {
+        Throwable cause = ((BuildFailure)summary).getCause();
+        Exception exception = cause instanceof Exception ? (Exception)cause : new RuntimeException(cause);
+        problems = collectProblems(mavenProject.getFile(), Collections.singletonList(exception), Collections.emptyList());
+      }
+      // not built when an upstream project fails
+      return new MavenServerExecutionResult(null, problems, Collections.emptySet());
+    }
+
+    Model nativeModel = mavenProject.getModel();
+    MavenModel model = Maven40ModelConverter.convertModel(mavenProject.getFile(), nativeModel);
+    model.getBuild().setSources(mavenProject.getCompileSourceRoots());
+    model.getBuild().setTestSources(mavenProject.getTestCompileSourceRoots());
+
+    List<String> activatedProfiles = new ArrayList<>();
+    for (List<String> profileList : mavenProject.getInjectedProfileIds().values()) {
+      activatedProfiles.addAll(profileList);
+    }
+
+    MavenServerExecutionResult.ProjectData data =
+      new MavenServerExecutionResult.ProjectData(model, Maven40ModelConverter.convertToMap(nativeModel), null, activatedProfiles);
+    return new MavenServerExecutionResult(data, Collections.emptyList(), Collections.emptySet());
+  }
+
   private static List<Exception> filterExceptions(List<Throwable> list) {
     for (Throwable throwable : list) {
       if (!(throwable instanceof Exception)) {
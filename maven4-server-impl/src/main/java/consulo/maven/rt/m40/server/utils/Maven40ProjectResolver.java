@@ -23,6 +23,7 @@ import org.eclipse.aether.repository.WorkspaceReader;
 import org.eclipse.aether.util.graph.transformer.ConflictResolver;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -82,10 +83,14 @@ public class Maven40ProjectResolver {
     return executionResults;
   }
 
+  /**
+   * Returns exactly one result per requested file, in the order of {@code files}.
+   * Projects built only as modules of a requested aggregator take part in the session but are not resolved.
+   */
   private ArrayList<MavenServerExecutionResult> getExecutionResults(MavenSession session,
-                                                                     Collection<File> files,
+                                                                     List<File> files,
                                                                      MavenExecutionRequest request) {
-    ArrayList<MavenServerExecutionResult> executionResults = new ArrayList<>();
+    ArrayList<MavenServerExecutionResult> executionResults = new ArrayList<>(files.size());
     try {
       List<ProjectBuildingResult> buildingResults = getProjectBuildingResults(request, files, session);
 
@@ -102,21 +107,43 @@ public class Maven40ProjectResolver {
 
       fillSessionCache(session, session.getRepositorySession(), buildingResults);
 
+      Set<Path> requestedFiles = new HashSet<>();
+      for (File file : files) {
+        requestedFiles.add(Maven40ServerEmbedderImpl.getCanonicalPath(file.toPath()));
+      }
+
+      Map<Path, MavenServerExecutionResult> resultsByFile = new HashMap<>();
       for (ProjectBuildingResult buildingResult : buildingResults) {
         MavenProject project = buildingResult.getProject();
         File pomFile = buildingResult.getPomFile();
         List<ModelProblem> modelProblems = buildingResult.getProblems();
 
-        if (project == null || pomFile == null) {
-          executionResults.add(createExecutionResult(pomFile, modelProblems));
+        if (pomFile == null) {
+          continue;
+        }
+        Path path = Maven40ServerEmbedderImpl.getCanonicalPath(pomFile.toPath());
+        if (!requestedFiles.contains(path) || resultsByFile.containsKey(path)) {
+          continue;
+        }
+
+        if (project == null) {
+          resultsByFile.put(path, createExecutionResult(pomFile, modelProblems));
           continue;
         }
 
-        executionResults.add(resolveBuildingResult(session.getRepositorySession(), project, modelProblems, exceptions));
+        resultsByFile.put(path, resolveBuildingResult(session.getRepositorySession(), project, modelProblems, exceptions));
+      }
+
+      for (File file : files) {
+        MavenServerExecutionResult result = resultsByFile.get(Maven40ServerEmbedderImpl.getCanonicalPath(file.toPath()));
+        executionResults.add(result != null ? result : createExecutionResult(file, Collections.emptyList()));
       }
     }
     catch (Exception e) {
-      executionResults.add(createExecutionResult(e));
+      executionResults.clear();
+      for (int i = 0; i < files.size(); i++) {
+        executionResults.add(createExecutionResult(e));
+      }
     }
     return executionResults;
   }
@@ -331,7 +358,12 @@ public class Maven40ProjectResolver {
     projectBuildingRequest.setInactiveProfileIds(request.getInactiveProfiles());
     projectBuildingRequest.setResolveDependencies(false);
 
-    buildSinglePom(builder, buildingResults, projectBuildingRequest, request.getPom());
+    if (files.size() > 1) {
+      buildPoms(builder, buildingResults, projectBuildingRequest, files);
+    }
+    else {
+      buildSinglePom(builder, buildingResults, projectBuildingRequest, request.getPom());
+    }
 
     Set<File> processedFiles = new HashSet<>();
     for (ProjectBuildingResult buildingResult : buildingResults) {
@@ -346,6 +378,19 @@ public class Maven40ProjectResolver {
     return buildingResults;
   }
 
+  private static void buildPoms(ProjectBuilder builder,
+                                 List<ProjectBuildingResult> buildingResults,
+                                 ProjectBuildingRequest projectBuildingRequest,
+                                 Collection<File> pomFiles) {
+    try {
+      List<ProjectBuildingResult> build = builder.build(new ArrayList<>(pomFiles), false, projectBuildingRequest);
+      buildingResults.addAll(build);
+    }
+    catch (ProjectBuildingException e) {
+      Maven40ResolverUtil.handleProjectBuildingException(buildingResults, e);
+    }
+  }
+
   private static void buildSinglePom(ProjectBuilder builder,
                                       List<ProjectBuildingResult> buildingResults,
                                       ProjectBuildingRequest projectBuildingRequest,
@@ -19,7 +19,9 @@ import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
 import org.jetbrains.idea.maven.externalSystemIntegration.output.MavenLogOutputParser;
 import org.jetbrains.idea.maven.externalSystemIntegration.output.MavenOutputParserProvider;
 import org.jetbrains.idea.maven.externalSystemIntegration.output.MavenParsingContext;
+import org.jetbrains.idea.maven.externalSystemIntegration.output.MavenSpyEventsReader;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.function.Function;
@@ -39,6 +41,21 @@ public class MavenBuildEventProcessor implements AnsiEscapeDecoder.ColoredTextAc
                                     @Nonnull Function<String, String> targetFileMapper,
                                     @Nullable Function<MavenParsingContext, StartBuildEvent> startBuildEventSupplier,
                                     boolean useWrapperedLogging) {
+        this(runConfiguration, buildProgressListener, descriptor, taskId, targetFileMapper, startBuildEventSupplier, useWrapperedLogging,
+            null);
+    }
+
+    /**
+     * @param spyEventsFile the file the maven spy writes its events to instead of the output, if any
+     */
+    public MavenBuildEventProcessor(@Nonnull MavenRunConfiguration runConfiguration,
+                                    @Nonnull BuildProgressListener buildProgressListener,
+                                    @Nonnull BuildDescriptor descriptor,
+                                    @Nonnull ExternalSystemTaskId taskId,
+                                    @Nonnull Function<String, String> targetFileMapper,
+                                    @Nullable Function<MavenParsingContext, StartBuildEvent> startBuildEventSupplier,
+                                    boolean useWrapperedLogging,
+                                    @Nullable File spyEventsFile) {
 
         myBuildProgressListener = buildProgressListener;
         myDescriptor = descriptor;
@@ -61,6 +78,10 @@ public class MavenBuildEventProcessor implements AnsiEscapeDecoder.ColoredTextAc
             myBuildProgressListener,
             Collections.singletonList(myParser)
         );
+
+        if (spyEventsFile != null) {
+            myParser.setSpyEventsReader(new MavenSpyEventsReader(spyEventsFile));
+        }
     }
 
     public synchronized void finish() {
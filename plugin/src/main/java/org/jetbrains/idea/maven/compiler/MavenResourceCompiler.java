@@ -18,6 +18,7 @@ package org.jetbrains.idea.maven.compiler;
 import consulo.annotation.component.ExtensionImpl;
 import consulo.application.ReadAction;
 import consulo.application.progress.ProgressIndicator;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.compiler.*;
 import consulo.compiler.scope.CompileScope;
 import consulo.compiler.util.CompilerUtil;
@@ -31,7 +32,6 @@ import consulo.module.content.ProjectRootManager;
 import consulo.project.Project;
 import consulo.util.collection.Sets;
 import consulo.util.dataholder.Key;
-import consulo.util.io.FilePermissionCopier;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.Comparing;
 import consulo.util.lang.StringUtil;
@@ -52,15 +52,24 @@ import org.jetbrains.idea.maven.utils.MavenUtil;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 @ExtensionImpl
 public class MavenResourceCompiler implements ClassPostProcessingCompiler {
     public static final int VERSION = 1;
 
+    private static final int RESOURCE_THREADS =
+        Math.max(1, Integer.getInteger("idea.maven.resources.threads", Runtime.getRuntime().availableProcessors()));
+
     private static final Key<List<String>> FILES_TO_DELETE_KEY =
         Key.create(MavenResourceCompiler.class.getSimpleName() + ".FILES_TO_DELETE");
 
@@ -430,77 +439,128 @@ public class MavenResourceCompiler implements ClassPostProcessingCompiler {
 
     @Override
     public ProcessingItem[] process(final CompileContext context, ProcessingItem[] items) {
-        context.getProgressIndicator().setText("Processing Maven resources...");
+        ProgressIndicator indicator = context.getProgressIndicator();
+        indicator.setText("Processing Maven resources...");
 
-        List<ProcessingItem> result = new ArrayList<>(items.length);
         List<File> filesToRefresh = new ArrayList<>(items.length);
 
         deleteOutdatedFile(context.getUserData(FILES_TO_DELETE_KEY), filesToRefresh);
 
-        for (int i = 0; i < items.length; i++) {
-            if (!(items[i] instanceof MyProcessingItem)) {
-                continue;
-            }
-
-            context.getProgressIndicator().setFraction(((double)i) / items.length);
-            context.getProgressIndicator().checkCanceled();
-
-            MyProcessingItem eachItem = (MyProcessingItem)items[i];
-            VirtualFile sourceVirtualFile = LocalFileSystem.getInstance().findFileByIoFile(eachItem.getFile());
-            assert sourceVirtualFile != null;
-            File sourceFile = new File(sourceVirtualFile.getPath());
-            File outputFile = new File(eachItem.getOutputPath());
-
-            try {
-                outputFile.getParentFile().mkdirs();
-
-                boolean shouldFilter = eachItem.isFiltered();
-                if (shouldFilter && sourceFile.length() > 10 * 1024 * 1024) {
-                    context.newWarning(LocalizeValue.localizeTODO(
-                            "Maven: File is too big to be filtered. Most likely it is a binary file and should be excluded from filtering."
-                        ))
-                        .url(sourceVirtualFile.getPath())
-                        .add();
-                    shouldFilter = false;
+        List<MyProcessingItem> itemsToProcess = new ArrayList<>(items.length);
+        // all the items of a module share its properties and escape string
+        Map<Module, MavenPropertyResolver.FilterPlan> filterPlans = new HashMap<>();
+        for (ProcessingItem each : items) {
+            if (each instanceof MyProcessingItem item) {
+                itemsToProcess.add(item);
+                if (item.isFiltered()) {
+                    filterPlans.computeIfAbsent(
+                        item.getModule(),
+                        module -> new MavenPropertyResolver.FilterPlan(module, item.getProperties(), item.getEscapeString())
+                    );
                 }
+            }
+        }
 
-                if (shouldFilter) {
-                    String charset = sourceVirtualFile.getCharset().name();
-                    String text = new String(Files.readAllBytes(sourceFile.toPath()), charset);
-
-                    PrintWriter printWriter = new PrintWriter(outputFile, charset);
-                    try {
-                        MavenPropertyResolver.doFilterText(
-                            eachItem.getModule(),
-                            text,
-                            eachItem.getProperties(),
-                            eachItem.getEscapeString(),
-                            printWriter
-                        );
-                    }
-                    finally {
-                        printWriter.close();
-                    }
+        // items are independent, so they are taken one by one by several threads; errors are reported from this thread
+        IOException[] errors = new IOException[itemsToProcess.size()];
+        AtomicInteger nextItem = new AtomicInteger();
+        AtomicInteger processedItems = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while (!indicator.isCanceled() && (index = nextItem.getAndIncrement()) < itemsToProcess.size()) {
+                try {
+                    MyProcessingItem item = itemsToProcess.get(index);
+                    processItem(item, filterPlans.get(item.getModule()));
                 }
-                else {
-                    FileUtil.copy(sourceFile, outputFile, FilePermissionCopier.BY_NIO2);
+                catch (IOException e) {
+                    errors[index] = e;
                 }
+                indicator.setFraction(((double)processedItems.incrementAndGet()) / itemsToProcess.size());
+            }
+        };
 
-                eachItem.getValidityState().setOutputFileTimestamp(outputFile.lastModified());
-                result.add(eachItem);
-                filesToRefresh.add(outputFile);
+        int threads = Math.min(RESOURCE_THREADS, itemsToProcess.size());
+        List<CompletableFuture<Void>> workers = new ArrayList<>(threads);
+        for (int i = 1; i < threads; i++) {
+            workers.add(CompletableFuture.runAsync(worker, AppExecutorUtil.getAppExecutorService()));
+        }
+        worker.run();
+        try {
+            CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            catch (IOException e) {
-                MavenLog.LOG.info(e);
-                context.newError(LocalizeValue.localizeTODO("Maven: Cannot process resource file: " + e.getMessage()))
-                    .url(sourceVirtualFile.getPath())
+            throw e;
+        }
+        indicator.checkCanceled();
+
+        List<ProcessingItem> result = new ArrayList<>(itemsToProcess.size());
+        for (int i = 0; i < itemsToProcess.size(); i++) {
+            MyProcessingItem eachItem = itemsToProcess.get(i);
+            IOException error = errors[i];
+            if (error != null) {
+                MavenLog.LOG.info(error);
+                context.newError(LocalizeValue.localizeTODO("Maven: Cannot process resource file: " + error.getMessage()))
+                    .url(eachItem.getFile().getPath())
                     .add();
+                continue;
             }
+            result.add(eachItem);
+            filesToRefresh.add(new File(eachItem.getOutputPath()));
         }
         CompilerUtil.refreshIOFiles(filesToRefresh);
         return result.toArray(new ProcessingItem[result.size()]);
     }
 
+    private static void processItem(MyProcessingItem item, @Nullable MavenPropertyResolver.FilterPlan filterPlan) throws IOException {
+        VirtualFile sourceVirtualFile = LocalFileSystem.getInstance().findFileByIoFile(item.getFile());
+        assert sourceVirtualFile != null;
+        File sourceFile = new File(sourceVirtualFile.getPath());
+        File outputFile = new File(item.getOutputPath());
+
+        outputFile.getParentFile().mkdirs();
+
+        if (filterPlan != null) {
+            Charset charset = sourceVirtualFile.getCharset();
+            try (Reader in = new InputStreamReader(new FileInputStream(sourceFile), charset);
+                 Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(outputFile), charset))) {
+                filterPlan.filter(in, out);
+            }
+        }
+        else {
+            copy(sourceFile, outputFile);
+        }
+
+        item.getValidityState().setOutputFileTimestamp(outputFile.lastModified());
+    }
+
+    /**
+     * Copies the file channel to channel, which lets the OS move the bytes without passing them through the heap.
+     */
+    private static void copy(File sourceFile, File outputFile) throws IOException {
+        try (FileChannel in = FileChannel.open(sourceFile.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(
+                 outputFile.toPath(),
+                 StandardOpenOption.WRITE,
+                 StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING
+             )) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+
+        try {
+            Files.setPosixFilePermissions(outputFile.toPath(), Files.getPosixFilePermissions(sourceFile.toPath()));
+        }
+        catch (UnsupportedOperationException ignore) {
+        }
+    }
+
     private static void deleteOutdatedFile(List<String> filesToDelete, List<File> filesToRefresh) {
         for (String each : filesToDelete) {
             File file = new File(each);
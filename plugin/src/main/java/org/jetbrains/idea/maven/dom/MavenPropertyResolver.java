@@ -37,16 +37,23 @@ import org.jetbrains.idea.maven.utils.MavenUtil;
 
 import jakarta.annotation.Nullable;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class MavenPropertyResolver {
     public static final Pattern PATTERN = Pattern.compile("\\$\\{(.+?)\\}|@(.+?)@");
 
+    private static final int FILTER_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FILTER_CHUNK = 1024 * 1024;
+
     public static void doFilterText(
         Module module,
         String text,
@@ -78,6 +85,78 @@ public class MavenPropertyResolver {
         );
     }
 
+    /**
+     * What filtering takes from the project model for the resources of a module, computed once per compilation and shared by all
+     * the resources of the module, possibly from several threads. Properties resolved while filtering one resource are reused for
+     * the others.
+     */
+    public static final class FilterPlan {
+        private final MavenProjectsManager myManager;
+        private final @Nullable MavenProject myMavenProject;
+        private final @Nullable Pattern myPattern;
+        private final boolean myEscapeWindowsPath;
+        private final Properties myAdditionalProperties;
+        private final String myEscapeString;
+        private final Map<String, Optional<String>> myResolvedProperties = new ConcurrentHashMap<>();
+
+        public FilterPlan(Module module, Properties additionalProperties, String propertyEscapeString) {
+            myManager = MavenProjectsManager.getInstance(module.getProject());
+            myMavenProject = myManager.findProject(module);
+            myAdditionalProperties = additionalProperties;
+            myEscapeString = propertyEscapeString;
+
+            if (myMavenProject != null) {
+                Element pluginConfiguration = myMavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-resources-plugin");
+                String escapeWindowsPathsStr = MavenJDOMUtil.findChildValueByPath(pluginConfiguration, "escapeWindowsPaths");
+                myEscapeWindowsPath = escapeWindowsPathsStr == null || Boolean.parseBoolean(escapeWindowsPathsStr);
+                myPattern = MavenFilteredPropertyPsiReferenceProvider.getDelimitersPattern(myMavenProject);
+            }
+            else {
+                myEscapeWindowsPath = false;
+                myPattern = null;
+            }
+        }
+
+        /**
+         * Filters the text read from {@code in} like
+         * {@link MavenPropertyResolver#doFilterText(Module, String, Properties, String, Appendable)}, a chunk of whole lines at a
+         * time, so the text is never kept in memory at once. Property references never span lines, so this gives the same result;
+         * only a line longer than {@link #MAX_FILTER_CHUNK} is cut.
+         */
+        public void filter(Reader in, Appendable out) throws IOException {
+            // shared by the chunks of the text, like the map of a single doFilterText call
+            Map<String, String> resolvedProperties = new HashMap<>();
+            char[] buffer = new char[FILTER_BUFFER_SIZE];
+            StringBuilder pending = new StringBuilder();
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                if (myPattern == null) {
+                    out.append(CharBuffer.wrap(buffer, 0, read));
+                    continue;
+                }
+
+                pending.append(buffer, 0, read);
+                int end = pending.lastIndexOf("\n") + 1;
+                if (end == 0) {
+                    if (pending.length() < MAX_FILTER_CHUNK) {
+                        continue;
+                    }
+                    end = pending.length();
+                }
+                filterChunk(pending.substring(0, end), resolvedProperties, out);
+                pending.delete(0, end);
+            }
+            if (pending.length() > 0) {
+                filterChunk(pending.toString(), resolvedProperties, out);
+            }
+        }
+
+        private void filterChunk(String text, Map<String, String> resolvedProperties, Appendable out) throws IOException {
+            doFilterText(myPattern, myManager, myMavenProject, text, myAdditionalProperties, myEscapeString, myEscapeWindowsPath,
+                resolvedProperties, myResolvedProperties, out);
+        }
+    }
+
     private static void doFilterText(
         Pattern pattern,
         MavenProjectsManager mavenProjectsManager,
@@ -88,6 +167,26 @@ public class MavenPropertyResolver {
         boolean escapeWindowsPath,
         @Nullable Map<String, String> resolvedPropertiesParam,
         Appendable out
+    ) throws IOException {
+        doFilterText(pattern, mavenProjectsManager, mavenProject, text, additionalProperties, escapeString, escapeWindowsPath,
+            resolvedPropertiesParam, null, out);
+    }
+
+    /**
+     * @param sharedProperties properties resolved by earlier calls with the same project and additional properties, which this call
+     *                         extends; passed to the top-level call only, so it never sees the values of a cycle being resolved
+     */
+    private static void doFilterText(
+        Pattern pattern,
+        MavenProjectsManager mavenProjectsManager,
+        MavenProject mavenProject,
+        String text,
+        Properties additionalProperties,
+        @Nullable String escapeString,
+        boolean escapeWindowsPath,
+        @Nullable Map<String, String> resolvedPropertiesParam,
+        @Nullable Map<String, Optional<String>> sharedProperties,
+        Appendable out
     ) throws IOException {
         Map<String, String> resolvedProperties = resolvedPropertiesParam;
 
@@ -125,6 +224,16 @@ public class MavenPropertyResolver {
             }
 
             String propertyValue = resolvedProperties.get(propertyName);
+            if (propertyValue == null && sharedProperties != null) {
+                Optional<String> shared = sharedProperties.get(propertyName);
+                if (shared != null) {
+                    if (shared.isEmpty()) {
+                        out.append(matcher.group());
+                        continue;
+                    }
+                    propertyValue = shared.get();
+                }
+            }
             if (propertyValue == null) {
                 if (resolvedProperties.containsKey(propertyName)) { // if cyclic property dependencies
                     out.append(matcher.group());
@@ -133,6 +242,9 @@ public class MavenPropertyResolver {
 
                 String resolved = doResolveProperty(propertyName, mavenProjectsManager, mavenProject, additionalProperties);
                 if (resolved == null) {
+                    if (sharedProperties != null) {
+                        sharedProperties.put(propertyName, Optional.empty());
+                    }
                     out.append(matcher.group());
                     continue;
                 }
@@ -154,6 +266,9 @@ public class MavenPropertyResolver {
                 propertyValue = sb.toString();
 
                 resolvedProperties.put(propertyName, propertyValue);
+                if (sharedProperties != null) {
+                    sharedProperties.put(propertyName, Optional.of(propertyValue));
+                }
             }
 
             if (escapeWindowsPath) {
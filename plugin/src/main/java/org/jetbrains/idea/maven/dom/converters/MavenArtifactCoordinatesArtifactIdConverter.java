@@ -21,6 +21,7 @@ import org.jetbrains.idea.maven.indices.MavenProjectIndicesManager;
 import consulo.maven.rt.server.common.model.MavenId;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class MavenArtifactCoordinatesArtifactIdConverter extends MavenArtifactCoordinatesConverter {
@@ -37,6 +38,11 @@ public class MavenArtifactCoordinatesArtifactIdConverter extends MavenArtifactCo
         if (StringUtil.isEmptyOrSpaces(id.getGroupId())) {
             return Collections.emptySet();
         }
+        String prefix = MavenArtifactCoordinatesHelper.getCompletionPrefix(id.getArtifactId());
+        if (!StringUtil.isEmpty(prefix)) {
+            // the variants are not requested again while typing, so all matches of the prefix are returned
+            return new LinkedHashSet<>(manager.getArtifactIds(id.getGroupId(), prefix, Integer.MAX_VALUE));
+        }
         return manager.getArtifactIds(id.getGroupId());
     }
 }
@@ -7,6 +7,7 @@ import consulo.maven.rt.server.common.model.MavenId;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 public class MavenArtifactCoordinatesGroupIdConverter extends MavenArtifactCoordinatesConverter implements MavenSmartConverter<String> {
@@ -17,6 +18,11 @@ public class MavenArtifactCoordinatesGroupIdConverter extends MavenArtifactCoord
 
     @Override
     protected Set<String> doGetVariants(MavenId id, MavenProjectIndicesManager manager) {
+        String prefix = MavenArtifactCoordinatesHelper.getCompletionPrefix(id.getGroupId());
+        if (!StringUtil.isEmpty(prefix)) {
+            // the variants are not requested again while typing, so all matches of the prefix are returned
+            return new LinkedHashSet<>(manager.getGroupIds(prefix, Integer.MAX_VALUE));
+        }
         return manager.getGroupIds();
     }
 
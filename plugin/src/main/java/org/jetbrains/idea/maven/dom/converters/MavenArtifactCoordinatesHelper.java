@@ -15,6 +15,7 @@
  */
 package org.jetbrains.idea.maven.dom.converters;
 
+import consulo.language.editor.completion.CompletionUtilCore;
 import consulo.xml.dom.ConvertContext;
 
 import jakarta.annotation.Nullable;
@@ -33,6 +34,18 @@ public class MavenArtifactCoordinatesHelper {
         return (MavenDomShortArtifactCoordinates)context.getInvocationElement().getParent();
     }
 
+    /**
+     * @return the text typed before the caret if the value is being completed, null otherwise
+     */
+    @Nullable
+    public static String getCompletionPrefix(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        int index = value.indexOf(CompletionUtilCore.DUMMY_IDENTIFIER_TRIMMED);
+        return index < 0 ? null : value.substring(0, index);
+    }
+
     public static MavenId getId(MavenDomShortArtifactCoordinates coords) {
         String version = "";
         if (coords instanceof MavenDomArtifactCoordinates domArtifactCoordinates) {
@@ -38,13 +38,15 @@ import org.jetbrains.idea.maven.indices.MavenProjectIndicesManager;
 
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import java.util.Set;
+import java.util.List;
 
 /**
  * @author Sergey Evdokimov
  */
 @ExtensionImpl
 public class MavenVersionCompletionContributor extends CompletionContributor {
+    private static final int MAX_VERSIONS = 200;
+
     @Override
     public void fillCompletionVariants(CompletionParameters parameters, CompletionResultSet result) {
         if (parameters.getCompletionType() != CompletionType.BASIC) {
@@ -84,7 +86,10 @@ public class MavenVersionCompletionContributor extends CompletionContributor {
             String artifactId = coordinates.getArtifactId().getStringValue();
 
             if (!StringUtil.isEmptyOrSpaces(groupId) && !StringUtil.isEmptyOrSpaces(artifactId)) {
-                Set<String> versions = MavenProjectIndicesManager.getInstance(project).getVersions(groupId, artifactId);
+                // only the newest matches are shown, so they are looked up again once the prefix changes
+                result.restartCompletionOnAnyPrefixChange();
+                List<String> versions = MavenProjectIndicesManager.getInstance(project)
+                    .getVersions(groupId, artifactId, result.getPrefixMatcher().getPrefix(), MAX_VERSIONS);
 
                 CompletionResultSet newResultSet = result.withRelevanceSorter(CompletionService.getCompletionService().emptySorter().weigh(
                     new LookupElementWeigher("mavenVersionWeigher") {
@@ -40,12 +40,14 @@ import org.jetbrains.idea.maven.buildtool.BuildToolConsoleProcessAdapter;
 import org.jetbrains.idea.maven.buildtool.MavenBuildEventProcessor;
 import org.jetbrains.idea.maven.execution.run.MavenBuildHandlerFilterSpyWrapper;
 import org.jetbrains.idea.maven.externalSystemIntegration.output.MavenParsingContext;
+import org.jetbrains.idea.maven.externalSystemIntegration.output.parsers.MavenSpyOutputParser;
 import consulo.util.lang.StringUtil;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.server.MavenServerManager;
 import org.jetbrains.idea.maven.utils.MavenLog;
 import org.jetbrains.idea.maven.utils.MavenUtil;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -140,7 +142,8 @@ public class MavenCommandLineState extends JavaCommandLineState implements Remot
             taskId,
             targetFileMapper,
             ctx -> eventFactory.createStartBuildEvent(descriptor, LocalizeValue.empty()),
-            useMaven4()
+            useMaven4(),
+            getSpyEventsFile()
         );
 
         processHandler.addProcessListener(new BuildToolConsoleProcessAdapter(eventProcessor));
@@ -186,7 +189,8 @@ public class MavenCommandLineState extends JavaCommandLineState implements Remot
             taskId,
             targetFileMapper,
             getStartBuildEventSupplier(runner, processHandler, descriptor, startBuildEvent, withResumeAction),
-            useMaven4()
+            useMaven4(),
+            getSpyEventsFile()
         );
 
         processHandler.addProcessListener(new BuildToolConsoleProcessAdapter(eventProcessor));
@@ -195,6 +199,11 @@ public class MavenCommandLineState extends JavaCommandLineState implements Remot
         return res;
     }
 
+    private @Nullable File getSpyEventsFile() throws ExecutionException {
+        String path = getJavaParameters().getVMParametersList().getPropertyValue(MavenSpyOutputParser.EVENTS_FILE_PROPERTY);
+        return path == null ? null : new File(path);
+    }
+
     private @NotNull Function<MavenParsingContext, StartBuildEvent> getStartBuildEventSupplier(@NotNull ProgramRunner runner,
                                                                                                ProcessHandler processHandler,
                                                                                                DefaultBuildDescriptor descriptor,
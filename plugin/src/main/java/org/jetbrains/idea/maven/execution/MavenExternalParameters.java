@@ -50,6 +50,7 @@ import consulo.virtualFileSystem.encoding.EncodingProjectManager;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.jetbrains.idea.maven.artifactResolver.common.MavenModuleMap;
+import org.jetbrains.idea.maven.externalSystemIntegration.output.parsers.MavenSpyOutputParser;
 import org.jetbrains.idea.maven.localize.MavenLocalize;
 import org.jetbrains.idea.maven.localize.MavenRunnerLocalize;
 import org.jetbrains.idea.maven.project.MavenGeneralSettings;
@@ -166,6 +167,7 @@ public class MavenExternalParameters {
             String existingExtPath = params.getVMParametersList().getPropertyValue("maven.ext.class.path");
             if (existingExtPath == null || existingExtPath.isEmpty()) {
                 params.getVMParametersList().addProperty("maven.ext.class.path", spyJar.getAbsolutePath());
+                addSpyEventsFile(params.getVMParametersList());
             }
         }
 
@@ -252,6 +254,24 @@ public class MavenExternalParameters {
         return classpath;
     }
 
+    /**
+     * Lets the spy write its events to a file in binary form instead of printing them among the build output,
+     * see {@link org.jetbrains.idea.maven.externalSystemIntegration.output.MavenSpyEventsReader}.
+     */
+    private static void addSpyEventsFile(@Nonnull ParametersList vmParameters) {
+        if (!Boolean.parseBoolean(System.getProperty("idea.maven.spy.events.binary", "true"))) {
+            return;
+        }
+        try {
+            File eventsFile = FileUtil.createTempFile("idea-", "-mvn-events.bin");
+            eventsFile.deleteOnExit();
+            vmParameters.addProperty(MavenSpyOutputParser.EVENTS_FILE_PROPERTY, eventsFile.getAbsolutePath());
+        }
+        catch (IOException e) {
+            LOG.warn("Maven spy events will be read from the output", e);
+        }
+    }
+
     @RequiredReadAction
     private static File dumpModulesPaths(@Nonnull Project project) throws IOException {
         project.getApplication().assertReadAccessAllowed();
@@ -15,6 +15,7 @@ import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
 import org.jetbrains.idea.maven.externalSystemIntegration.output.parsers.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -24,6 +25,7 @@ public class MavenLogOutputParser implements BuildOutputParser {
 
     private final MavenSpyOutputParser mavenSpyOutputParser;
     private final MavenParsingContext myParsingContext;
+    private @Nullable MavenSpyEventsReader mySpyEventsReader;
 
     private final BuildEventFactory myBuildEventFactory;
 
@@ -53,7 +55,19 @@ public class MavenLogOutputParser implements BuildOutputParser {
         mavenSpyOutputParser = new MavenSpyOutputParser(myParsingContext, extractor);
     }
 
+    /**
+     * Sets the reader of the file the maven spy writes its events to; they are read when their sequence markers are parsed.
+     */
+    public synchronized void setSpyEventsReader(@Nullable MavenSpyEventsReader spyEventsReader) {
+        mySpyEventsReader = spyEventsReader;
+    }
+
     public synchronized void finish(Consumer<? super BuildEvent> messageConsumer) {
+        if (mySpyEventsReader != null) {
+            // events whose markers were not parsed, e.g. when the output was cut off
+            mySpyEventsReader.close((threadId, type, parameters) -> processSpyEvent(threadId, type, parameters, messageConsumer));
+            mySpyEventsReader = null;
+        }
         completeParsers(messageConsumer);
 
         if (!myParsingContext.isSessionEnded()) {
@@ -77,8 +91,19 @@ public class MavenLogOutputParser implements BuildOutputParser {
         }
     }
 
+    private void processSpyEvent(
+        long threadId,
+        @Nonnull String type,
+        @Nonnull Map<String, String> parameters,
+        @Nonnull Consumer<? super BuildEvent> messageConsumer
+    ) {
+        if (!myParsingContext.isSessionEnded()) {
+            mavenSpyOutputParser.processEvent(threadId, type, parameters, messageConsumer);
+        }
+    }
+
     @Override
-    public boolean parse(String line, BuildOutputInstantReader reader, Consumer<? super BuildEvent> messageConsumer) {
+    public synchronized boolean parse(String line, BuildOutputInstantReader reader, Consumer<? super BuildEvent> messageConsumer) {
         if (myParsingContext.isSessionEnded()) {
             checkErrorAfterMavenSessionEnded(line, messageConsumer);
             return false;
@@ -88,7 +113,16 @@ public class MavenLogOutputParser implements BuildOutputParser {
             return false;
         }
         if (mavenSpyOutputParser.isSpyLog(line)) {
-            mavenSpyOutputParser.processLine(line, messageConsumer);
+            long sequence = mavenSpyOutputParser.getEventsSequence(line);
+            if (sequence < 0) {
+                mavenSpyOutputParser.processLine(line, messageConsumer);
+            }
+            else if (mySpyEventsReader != null) {
+                mySpyEventsReader.readUpTo(
+                    sequence,
+                    (threadId, type, parameters) -> processSpyEvent(threadId, type, parameters, messageConsumer)
+                );
+            }
             if (myParsingContext.isSessionEnded()) {
                 completeParsers(messageConsumer);
             }
@@ -0,0 +1,130 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.jetbrains.idea.maven.externalSystemIntegration.output;
+
+import jakarta.annotation.Nonnull;
+import org.jetbrains.idea.maven.utils.MavenLog;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the file the maven spy writes its events to, see {@code EventInfoWriter} in maven-event-listener for the record format.
+ * <p>
+ * The spy prints a sequence marker to the output after every record, and the events are read up to it when the marker is parsed,
+ * so they are handled in order with the output lines around them.
+ */
+public class MavenSpyEventsReader {
+    public interface EventConsumer {
+        void consume(long threadId, @Nonnull String type, @Nonnull Map<String, String> parameters);
+    }
+
+    private final File myFile;
+    private final byte[] myReadBuffer = new byte[8192];
+    private byte[] myPending = new byte[8192];
+    private int myPendingLength;
+    private long myRead;
+    private InputStream myInput;
+    private boolean myClosed;
+
+    public MavenSpyEventsReader(@Nonnull File file) {
+        myFile = file;
+    }
+
+    /**
+     * Passes the events up to the given number of the sequence marker to the consumer, unless they were read already.
+     */
+    public void readUpTo(long sequence, @Nonnull EventConsumer consumer) {
+        if (myClosed || myRead >= sequence) {
+            return;
+        }
+        try {
+            if (myInput == null) {
+                if (!myFile.exists()) {
+                    return;
+                }
+                myInput = new FileInputStream(myFile);
+            }
+            processRecords(sequence, consumer);
+            int read;
+            while (myRead < sequence && (read = myInput.read(myReadBuffer)) > 0) {
+                append(read);
+                processRecords(sequence, consumer);
+            }
+        }
+        catch (IOException e) {
+            MavenLog.LOG.warn("Cannot read maven spy events from " + myFile, e);
+        }
+    }
+
+    /**
+     * Passes the events not read yet to the consumer and deletes the file.
+     */
+    public void close(@Nonnull EventConsumer consumer) {
+        readUpTo(Long.MAX_VALUE, consumer);
+        myClosed = true;
+        try {
+            if (myInput != null) {
+                myInput.close();
+            }
+        }
+        catch (IOException e) {
+            MavenLog.LOG.warn(e);
+        }
+        if (!myFile.delete()) {
+            myFile.deleteOnExit();
+        }
+    }
+
+    private void append(int length) {
+        if (myPendingLength + length > myPending.length) {
+            byte[] pending = new byte[Math.max(myPending.length * 2, myPendingLength + length)];
+            System.arraycopy(myPending, 0, pending, 0, myPendingLength);
+            myPending = pending;
+        }
+        System.arraycopy(myReadBuffer, 0, myPending, myPendingLength, length);
+        myPendingLength += length;
+    }
+
+    private void processRecords(long sequence, EventConsumer consumer) throws IOException {
+        int offset = 0;
+        while (myRead < sequence && myPendingLength - offset >= 4) {
+            int recordLength = ((myPending[offset] & 0xFF) << 24) | ((myPending[offset + 1] & 0xFF) << 16)
+                | ((myPending[offset + 2] & 0xFF) << 8) | (myPending[offset + 3] & 0xFF);
+            if (myPendingLength - offset - 4 < recordLength) {
+                break;
+            }
+            decode(new DataInputStream(new ByteArrayInputStream(myPending, offset + 4, recordLength)), consumer);
+            offset += 4 + recordLength;
+            myRead++;
+        }
+        if (offset > 0) {
+            System.arraycopy(myPending, offset, myPending, 0, myPendingLength - offset);
+            myPendingLength -= offset;
+        }
+    }
+
+    private static void decode(DataInputStream record, EventConsumer consumer) throws IOException {
+        long threadId = record.readLong();
+        String type = record.readUTF();
+        int count = record.readUnsignedByte();
+        Map<String, String> parameters = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String name = record.readUTF();
+            parameters.put(name, readValue(record));
+        }
+        try {
+            consumer.consume(threadId, type, parameters);
+        }
+        catch (Exception e) {
+            MavenLog.LOG.error("Error processing maven spy event " + type, e);
+        }
+    }
+
+    private static String readValue(DataInputStream record) throws IOException {
+        byte[] bytes = new byte[record.readInt()];
+        record.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -29,6 +29,8 @@ public enum MavenEventType {
         this.eventName = eventName;
     }
 
+    private static final MavenEventType[] VALUES = values();
+
     private static final Map<String, MavenEventType> eventsByName = Arrays.stream(values())
         .collect(Collectors.toMap(v -> v.eventName, Function.identity()));
 
@@ -36,4 +38,18 @@ public enum MavenEventType {
     public static MavenEventType valueByName(@Nonnull String eventName) {
         return eventsByName.get(eventName);
     }
+
+    /**
+     * Same as {@link #valueByName(String)} for the name at {@code [start, end)} of the text, without taking a substring.
+     */
+    @Nullable
+    public static MavenEventType valueByName(@Nonnull String text, int start, int end) {
+        for (MavenEventType type : VALUES) {
+            String name = type.eventName;
+            if (name.length() == end - start && text.regionMatches(start, name, 0, name.length())) {
+                return type;
+            }
+        }
+        return null;
+    }
 }
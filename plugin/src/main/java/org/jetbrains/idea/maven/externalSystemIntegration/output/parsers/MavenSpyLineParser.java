@@ -0,0 +1,160 @@
+// Copyright 2000-2024 JetBrains s.r.o. and contributors. Use of this source code is governed by the Apache 2.0 license.
+package org.jetbrains.idea.maven.externalSystemIntegration.output.parsers;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Parses a spy line {@code <threadId>-<type>-[IJ]-<name>=<value>-[IJ]-...} in one pass, remembering only where the parameters are.
+ * <p>
+ * The parser itself is the map of the parameters of the last parsed line: names are matched in place, and a value is copied out of
+ * the line, with {@code -[N]-} turned back into line breaks, only when it is asked for. One instance is reused for all the lines,
+ * so the map must not be kept after the next line is parsed.
+ */
+public final class MavenSpyLineParser extends AbstractMap<String, String> {
+    private String myLine = "";
+    private int myThreadId;
+    private MavenEventType myType;
+    /**
+     * Name start, '=' and value end of every parameter.
+     */
+    private int[] myBounds = new int[3 * 8];
+    private int myCount;
+
+    /**
+     * @return false if the line is not a well-formed event of a known type
+     */
+    public boolean parse(@Nonnull String line) {
+        myLine = line;
+        myCount = 0;
+        myType = null;
+
+        int length = line.length();
+        long threadId = 0;
+        int i = 0;
+        for (; i < length; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            threadId = threadId * 10 + (c - '0');
+            // thread ids past Integer.MAX_VALUE were never accepted
+            if (threadId > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        if (i == 0 || i == length || line.charAt(i) != '-') {
+            return false;
+        }
+        int typeStart = i + 1;
+        int typeEnd = line.indexOf(MavenSpyOutputParser.SEPARATOR, typeStart);
+        if (typeEnd < 0) {
+            return false;
+        }
+        MavenEventType type = MavenEventType.valueByName(line, typeStart, typeEnd);
+        if (type == null) {
+            return false;
+        }
+
+        int start = typeEnd + MavenSpyOutputParser.SEPARATOR.length();
+        while (start <= length) {
+            int end = line.indexOf(MavenSpyOutputParser.SEPARATOR, start);
+            if (end < 0) {
+                end = length;
+            }
+            int eq = line.indexOf('=', start);
+            // parameters without a name or a value are skipped, as they always were
+            if (eq > start && eq < end - 1 && find(line, start, eq) < 0) {
+                add(start, eq, end);
+            }
+            start = end + MavenSpyOutputParser.SEPARATOR.length();
+        }
+
+        myThreadId = (int)threadId;
+        myType = type;
+        return true;
+    }
+
+    public int getThreadId() {
+        return myThreadId;
+    }
+
+    public MavenEventType getType() {
+        return myType;
+    }
+
+    @Override
+    public int size() {
+        return myCount;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String name && find(name) >= 0;
+    }
+
+    @Override
+    public @Nullable String get(Object key) {
+        if (!(key instanceof String name)) {
+            return null;
+        }
+        int index = find(name);
+        return index < 0 ? null : getValue(index);
+    }
+
+    @Override
+    public @Nonnull Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> entries = new LinkedHashSet<>();
+        for (int index = 0; index < myCount; index++) {
+            entries.add(new SimpleImmutableEntry<>(myLine.substring(myBounds[3 * index], myBounds[3 * index + 1]), getValue(index)));
+        }
+        return entries;
+    }
+
+    private void add(int nameStart, int eq, int valueEnd) {
+        if (3 * myCount + 3 > myBounds.length) {
+            myBounds = Arrays.copyOf(myBounds, myBounds.length * 2);
+        }
+        myBounds[3 * myCount] = nameStart;
+        myBounds[3 * myCount + 1] = eq;
+        myBounds[3 * myCount + 2] = valueEnd;
+        myCount++;
+    }
+
+    private int find(String name) {
+        return find(name, 0, name.length());
+    }
+
+    private int find(String text, int start, int end) {
+        int length = end - start;
+        for (int index = 0; index < myCount; index++) {
+            int nameStart = myBounds[3 * index];
+            if (myBounds[3 * index + 1] - nameStart == length && myLine.regionMatches(nameStart, text, start, length)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private String getValue(int index) {
+        int start = myBounds[3 * index + 1] + 1;
+        int end = myBounds[3 * index + 2];
+        int newLine = myLine.indexOf(MavenSpyOutputParser.NEWLINE, start);
+        if (newLine < 0 || newLine >= end) {
+            return myLine.substring(start, end);
+        }
+
+        StringBuilder value = new StringBuilder(end - start);
+        while (newLine >= 0 && newLine < end) {
+            value.append(myLine, start, newLine).append('\n');
+            start = newLine + MavenSpyOutputParser.NEWLINE.length();
+            newLine = myLine.indexOf(MavenSpyOutputParser.NEWLINE, start);
+        }
+        return value.append(myLine, start, end).toString();
+    }
+}
@@ -12,18 +12,26 @@ import org.jetbrains.idea.maven.utils.MavenLog;
 
 import java.util.*;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 public class MavenSpyOutputParser {
     public static final String PREFIX_MAVEN_3 = "[IJ]-";
     public static final String PREFIX_MAVEN_4 = "[INFO] [stdout] [IJ]-";
-    private static final String SEPARATOR = "-[IJ]-";
-    private static final String NEWLINE = "-[N]-";
+    static final String SEPARATOR = "-[IJ]-";
+    static final String NEWLINE = "-[N]-";
+    /**
+     * Same as {@code SpyConstants.EVENTS_FILE_PROPERTY} in maven-event-listener.
+     */
+    public static final String EVENTS_FILE_PROPERTY = "idea.maven.spy.events.file";
+    /**
+     * Same as {@code SpyConstants.SEQUENCE_MARKER} in maven-event-listener.
+     */
+    static final String SEQUENCE_MARKER = "#";
     private static final String DOWNLOAD_DEPENDENCIES_NAME = "dependencies";
     private final Set<String> downloadingMap = new HashSet<>();
     private final MavenParsingContext myContext;
     private final SpyOutputExtractor myExtractor;
     private final BuildEventFactory myFactory;
+    private final MavenSpyLineParser myLineParser = new MavenSpyLineParser();
 
     public boolean isSpyLog(String s) {
         return myExtractor.isSpyLog(s);
@@ -44,43 +52,57 @@ public class MavenSpyOutputParser {
             return;
         }
         try {
-            int threadSeparatorIdx = line.indexOf('-');
-            if (threadSeparatorIdx < 0) {
-                return;
-            }
-            int threadId;
-            try {
-                threadId = Integer.parseInt(line.substring(0, threadSeparatorIdx));
-            }
-            catch (NumberFormatException ignore) {
-                return;
-            }
-            if (threadId < 0) {
-                return;
-            }
-            int typeSeparatorIdx = line.indexOf(SEPARATOR, threadSeparatorIdx + 1);
-            if (typeSeparatorIdx < 0) {
-                return;
+            if (myLineParser.parse(line)) {
+                processEvent(myLineParser.getThreadId(), myLineParser.getType(), myLineParser, messageConsumer);
             }
-            String type = line.substring(threadSeparatorIdx + 1, typeSeparatorIdx);
-
-            List<String> data = StringUtil.split(line.substring(typeSeparatorIdx + SEPARATOR.length()), SEPARATOR);
-            Map<String, String> parameters =
-                data.stream().map(d -> d.split("=")).filter(d -> d.length == 2).peek(d -> d[1] = d[1].replace(NEWLINE, "\n"))
-                    .collect(Collectors.toMap(d -> d[0], d -> d[1]));
-
-            MavenEventType eventType = MavenEventType.valueByName(type);
-            if (eventType == null) {
-                return;
-            }
-            processErrorLogLine(parameters.get("error"), eventType, messageConsumer);
-            parse(threadId, eventType, parameters, messageConsumer);
         }
         catch (Exception e) {
             MavenLog.LOG.error("Error processing line " + spyLine, e);
         }
     }
 
+    /**
+     * @return the number of events the spy had written to the {@link #EVENTS_FILE_PROPERTY} file when it printed the line,
+     * or -1 if the line is not a sequence marker
+     */
+    public long getEventsSequence(@Nonnull String spyLine) {
+        String line = myExtractor.extract(spyLine);
+        if (line == null || !line.startsWith(SEQUENCE_MARKER)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(line.substring(SEQUENCE_MARKER.length()).trim());
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Processes an event parsed from the output or read from the {@link #EVENTS_FILE_PROPERTY} file.
+     */
+    public void processEvent(
+        long threadId,
+        @Nonnull String type,
+        @Nonnull Map<String, String> parameters,
+        @Nonnull Consumer<? super BuildEvent> messageConsumer
+    ) {
+        MavenEventType eventType = MavenEventType.valueByName(type);
+        if (eventType != null) {
+            processEvent((int)threadId, eventType, parameters, messageConsumer);
+        }
+    }
+
+    private void processEvent(
+        int threadId,
+        MavenEventType eventType,
+        Map<String, String> parameters,
+        Consumer<? super BuildEvent> messageConsumer
+    ) {
+        processErrorLogLine(parameters.get("error"), eventType, messageConsumer);
+        parse(threadId, eventType, parameters, messageConsumer);
+    }
+
     protected void parse(
         int threadId,
         MavenEventType type,
@@ -29,6 +29,7 @@ import consulo.compiler.artifact.ModifiableArtifactModel;
 import consulo.compiler.artifact.element.PackagingElementResolvingContext;
 import consulo.module.ModifiableModuleModel;
 import consulo.virtualFileSystem.VirtualFile;
+import org.jetbrains.idea.maven.utils.library.RepositoryLibraryType;
 
 import jakarta.annotation.Nonnull;
 import java.util.HashMap;
@@ -41,6 +42,8 @@ public abstract class MavenBaseModifiableModelsProvider implements MavenModifiab
   protected Map<Library, Library.ModifiableModel> myLibraryModels = new IdentityHashMap<Library, Library.ModifiableModel>();
   protected ModifiableArtifactModel myArtifactModel;
   protected final Project myProject;
+  // name -> project library, the library table looks them up one by one and the import asks for every dependency of every module
+  private Map<String, Library> myLibrariesByName;
   private MavenBaseModifiableModelsProvider.MyPackagingElementResolvingContext myPackagingElementResolvingContext;
   private final ArtifactExternalDependenciesImporter myArtifactExternalDependenciesImporter;
 
@@ -88,6 +91,39 @@ public abstract class MavenBaseModifiableModelsProvider implements MavenModifiab
     return myArtifactExternalDependenciesImporter;
   }
 
+  @Override
+  public Library[] getAllLibraries() {
+    return getProjectLibrariesModel().getLibraries();
+  }
+
+  @Override
+  public Library getLibraryByName(String name) {
+    if (myLibrariesByName == null) {
+      myLibrariesByName = new HashMap<String, Library>();
+      for (Library each : getAllLibraries()) {
+        // the first one wins, as in the library table
+        myLibrariesByName.putIfAbsent(each.getName(), each);
+      }
+    }
+    return myLibrariesByName.get(name);
+  }
+
+  @Override
+  public Library createLibrary(String name) {
+    Library result = getProjectLibrariesModel().createLibrary(name, RepositoryLibraryType.getInstance().getKind());
+    if (myLibrariesByName != null) {
+      myLibrariesByName.putIfAbsent(name, result);
+    }
+    return result;
+  }
+
+  @Override
+  public void removeLibrary(Library library) {
+    getProjectLibrariesModel().removeLibrary(library);
+    // another library may have the same name
+    myLibrariesByName = null;
+  }
+
   @Override
   public Library.ModifiableModel getLibraryModel(Library library) {
     Library.ModifiableModel result = myLibraryModels.get(library);
@@ -31,7 +31,6 @@ import consulo.module.content.layer.ModifiableRootModel;
 import consulo.project.Project;
 import consulo.project.content.library.ProjectLibraryTable;
 import consulo.ui.ModalityState;
-import org.jetbrains.idea.maven.utils.library.RepositoryLibraryType;
 
 import jakarta.annotation.Nonnull;
 import java.util.Collection;
@@ -70,30 +69,6 @@ public class MavenDefaultModifiableModelsProvider extends MavenBaseModifiableMod
 		return myLibrariesModel;
 	}
 
-	@Override
-	public Library[] getAllLibraries()
-	{
-		return myLibrariesModel.getLibraries();
-	}
-
-	@Override
-	public Library getLibraryByName(String name)
-	{
-		return myLibrariesModel.getLibraryByName(name);
-	}
-
-	@Override
-	public Library createLibrary(String name)
-	{
-		return myLibrariesModel.createLibrary(name, RepositoryLibraryType.getInstance().getKind());
-	}
-
-	@Override
-	public void removeLibrary(Library library)
-	{
-		myLibrariesModel.removeLibrary(library);
-	}
-
 	@Override
 	protected Library.ModifiableModel doGetLibraryModel(Library library)
 	{
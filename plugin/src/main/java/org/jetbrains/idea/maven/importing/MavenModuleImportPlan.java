@@ -0,0 +1,323 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.importing;
+
+import com.intellij.java.language.LanguageLevel;
+import com.google.common.collect.ImmutableMap;
+import consulo.content.base.BinariesOrderRootType;
+import consulo.content.base.DocumentationOrderRootType;
+import consulo.content.base.SourcesOrderRootType;
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import consulo.maven.rt.server.common.model.MavenConstants;
+import consulo.maven.rt.server.common.model.MavenResource;
+import consulo.module.content.layer.orderEntry.DependencyScope;
+import consulo.util.dataholder.Key;
+import consulo.util.io.FileUtil;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jdom.Element;
+import org.jetbrains.idea.maven.project.MavenImportingSettings;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsTree;
+import org.jetbrains.idea.maven.project.SupportedRequestType;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * What the import of a module takes from the Maven model, computed without touching the root model, so the plans of all modules
+ * can be computed in parallel before they are applied one by one.
+ * <p>
+ * The plan applied last is kept in the module, and on an automatic import a module without project changes whose new plan equals it
+ * is not configured again.
+ */
+record MavenModuleImportPlan(
+    @Nullable String bytecodeVersion,
+    @Nullable Map<String, String> manifestAttributes,
+    @Nullable LanguageLevel languageLevel,
+    @Nonnull LanguageLevel sdkLevel,
+    @Nonnull List<Dependency> dependencies,
+    @Nonnull Folders folders
+) {
+    static final Key<MavenModuleImportPlan> APPLIED_PLAN = Key.create("maven.module.import.plan");
+
+    private static final Map<String, LanguageLevel> MAVEN_IDEA_PLUGIN_LEVELS = ImmutableMap.of(
+        "JDK_1_3", LanguageLevel.JDK_1_3,
+        "JDK_1_4", LanguageLevel.JDK_1_4,
+        "JDK_1_5", LanguageLevel.JDK_1_5,
+        "JDK_1_6", LanguageLevel.JDK_1_6,
+        "JDK_1_7", LanguageLevel.JDK_1_7);
+
+    enum DependencyKind {
+        MODULE,
+        LIBRARY,
+        SYSTEM
+    }
+
+    /**
+     * @param moduleName the module depended on, for {@link DependencyKind#MODULE}
+     * @param attachedJarsProject the project the jars attached by build-helper-maven-plugin belong to
+     */
+    record Dependency(
+        @Nonnull DependencyKind kind,
+        @Nonnull MavenArtifact artifact,
+        @Nonnull DependencyScope scope,
+        @Nullable String moduleName,
+        boolean testJar,
+        @Nullable MavenProject attachedJarsProject,
+        @Nonnull List<AttachedJar> attachedJars
+    ) {
+    }
+
+    record AttachedJar(@Nonnull String rootType, @Nonnull String filePath) {
+    }
+
+    /**
+     * What {@link MavenFoldersImporter} takes besides the Maven model: the importing settings, and which of the directories it
+     * may add exist on disk, as generating sources or building creates them.
+     */
+    record Folders(
+        boolean keepSourceFolders,
+        boolean useMavenOutput,
+        boolean excludeTargetFolder,
+        @Nonnull MavenImportingSettings.GeneratedSourcesFolder generatedSourcesFolder,
+        @Nonnull List<String> existingDirectories
+    ) {
+    }
+
+    @Nonnull
+    static MavenModuleImportPlan compute(
+        @Nonnull MavenProject mavenProject,
+        @Nonnull MavenProjectsTree mavenTree,
+        @Nonnull Map<MavenProject, String> mavenProjectToModuleName,
+        @Nonnull Set<String> dependencyTypesFromSettings,
+        @Nonnull MavenImportingSettings settings
+    ) {
+        LanguageLevel languageLevel = null;
+        LanguageLevel sdkLevel = LanguageLevel.HIGHEST;
+        if (!"false".equalsIgnoreCase(System.getProperty("idea.maven.configure.language.level"))) {
+            languageLevel = computeLanguageLevel(mavenProject);
+            // javi compiler allow compilation from jdk 8+
+            sdkLevel = "javi".equals(mavenProject.getCompilerId()) ? LanguageLevel.JDK_1_8 : languageLevel;
+        }
+
+        return new MavenModuleImportPlan(
+            mavenProject.getTargetLevel(),
+            computeManifestAttributes(mavenProject),
+            languageLevel,
+            sdkLevel,
+            computeDependencies(mavenProject, mavenTree, mavenProjectToModuleName, dependencyTypesFromSettings),
+            computeFolders(mavenProject, settings)
+        );
+    }
+
+    private static Folders computeFolders(MavenProject mavenProject, MavenImportingSettings settings) {
+        Set<String> candidates = new HashSet<>();
+        candidates.addAll(mavenProject.getSources());
+        candidates.addAll(mavenProject.getTestSources());
+        for (MavenResource each : mavenProject.getResources()) {
+            candidates.add(each.getDirectory());
+        }
+        for (MavenResource each : mavenProject.getTestResources()) {
+            candidates.add(each.getDirectory());
+        }
+        MavenContentFolder contentFolder = new MavenContentFolder() {
+            @Nonnull
+            @Override
+            public MavenContentFolder setGenerated() {
+                return this;
+            }
+        };
+        for (MavenImporter each : MavenImporter.getSuitableImporters(mavenProject)) {
+            each.collectContentFolders(mavenProject, (type, path) -> {
+                candidates.add(path);
+                return contentFolder;
+            });
+        }
+        for (String goal : List.of("add-source", "add-test-source")) {
+            Element configuration = mavenProject.getPluginGoalConfiguration("org.codehaus.mojo", "build-helper-maven-plugin", goal);
+            Element sources = configuration == null ? null : configuration.getChild("sources");
+            if (sources != null) {
+                for (Element each : sources.getChildren()) {
+                    candidates.add(each.getTextTrim());
+                }
+            }
+        }
+
+        Set<String> existing = new TreeSet<>();
+        for (String each : candidates) {
+            if (each != null && toFile(mavenProject, each).exists()) {
+                existing.add(each);
+            }
+        }
+        // annotation processor folders are added if they are not empty, and the build and generated folders by their subdirectories
+        for (boolean test : new boolean[]{false, true}) {
+            String annotationsDir = mavenProject.getAnnotationProcessorDirectory(test);
+            String[] children = toFile(mavenProject, annotationsDir).list();
+            if (children != null && children.length > 0) {
+                existing.add(annotationsDir + "/*");
+            }
+            addSubdirectories(new File(mavenProject.getGeneratedSourcesDirectory(test)), existing);
+        }
+        addSubdirectories(new File(mavenProject.getBuildDirectory()), existing);
+
+        return new Folders(
+            settings.isKeepSourceFolders(),
+            settings.isUseMavenOutput(),
+            settings.isExcludeTargetFolder(),
+            settings.getGeneratedSourcesFolder(),
+            List.copyOf(existing)
+        );
+    }
+
+    private static File toFile(MavenProject mavenProject, String path) {
+        return FileUtil.isAbsolute(path) ? new File(path) : new File(mavenProject.getDirectory(), path);
+    }
+
+    private static void addSubdirectories(File dir, Set<String> result) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File each : children) {
+                if (each.isDirectory()) {
+                    result.add(each.getPath());
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Map<String, String> computeManifestAttributes(MavenProject mavenProject) {
+        Element pluginConfiguration = mavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-jar-plugin");
+        Element archive = pluginConfiguration != null ? pluginConfiguration.getChild("archive") : null;
+        Element manifestEntries = archive != null ? archive.getChild("manifestEntries") : null;
+        if (manifestEntries == null) {
+            return null;
+        }
+
+        LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
+        for (Element entry : manifestEntries.getChildren()) {
+            attributes.put(entry.getName(), entry.getText());
+        }
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    private static LanguageLevel computeLanguageLevel(MavenProject mavenProject) {
+        LanguageLevel level = null;
+
+        Element cfg = mavenProject.getPluginConfiguration("com.googlecode", "maven-idea-plugin");
+        if (cfg != null) {
+            level = MAVEN_IDEA_PLUGIN_LEVELS.get(cfg.getChildTextTrim("jdkLevel"));
+        }
+
+        if (level == null) {
+            String mavenProjectSourceLevel = mavenProject.getSourceLevel();
+            level = LanguageLevel.parse(mavenProjectSourceLevel);
+            if (level == null) {
+                String mavenProjectReleaseLevel = mavenProject.getReleaseLevel();
+                level = LanguageLevel.parse(mavenProjectReleaseLevel);
+                if (level == null && (StringUtil.isNotEmpty(mavenProjectSourceLevel) || StringUtil.isNotEmpty(mavenProjectReleaseLevel))) {
+                    level = LanguageLevel.HIGHEST;
+                }
+            }
+        }
+
+        // default source and target settings of maven-compiler-plugin is 1.6, see details at http://maven.apache.org/plugins/maven-compiler-plugin
+        if (level == null) {
+            level = LanguageLevel.JDK_1_6;
+        }
+        return level;
+    }
+
+    private static List<Dependency> computeDependencies(
+        MavenProject mavenProject,
+        MavenProjectsTree mavenTree,
+        Map<MavenProject, String> mavenProjectToModuleName,
+        Set<String> dependencyTypesFromSettings
+    ) {
+        List<Dependency> result = new ArrayList<>();
+        Set<String> dependencyTypesFromImporters = mavenProject.getDependencyTypesFromImporters(SupportedRequestType.FOR_IMPORT);
+
+        for (MavenArtifact artifact : mavenProject.getDependencies()) {
+            String dependencyType = artifact.getType();
+
+            if (!dependencyTypesFromSettings.contains(dependencyType) && !dependencyTypesFromImporters.contains(dependencyType)) {
+                continue;
+            }
+
+            DependencyScope scope = MavenModuleImporter.selectScope(artifact.getScope());
+
+            MavenProject depProject = mavenTree.findProject(artifact.getMavenId());
+
+            if (depProject != null && !mavenTree.isIgnored(depProject)) {
+                if (depProject == mavenProject) {
+                    continue;
+                }
+                boolean isTestJar = MavenConstants.TYPE_TEST_JAR.equals(artifact.getType()) || "tests".equals(artifact.getClassifier());
+
+                Element buildHelperCfg = depProject.getPluginGoalConfiguration("org.codehaus.mojo", "build-helper-maven-plugin", "attach-artifact");
+                List<AttachedJar> attachedJars = buildHelperCfg != null ? computeAttachedJars(buildHelperCfg) : Collections.emptyList();
+                result.add(new Dependency(DependencyKind.MODULE, artifact, scope, mavenProjectToModuleName.get(depProject), isTestJar,
+                    attachedJars.isEmpty() ? null : depProject, attachedJars));
+
+                if (artifact.getClassifier() != null && !"system".equals(artifact.getScope())
+                    && !"false".equals(System.getProperty("idea.maven.classifier.dep"))) {
+                    MavenArtifact a = new MavenArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), artifact.getBaseVersion(), artifact.getType(),
+                        artifact.getClassifier(), artifact.getScope(), artifact.isOptional(), artifact.getExtension(), null, mavenProject.getLocalRepository(), false, false);
+
+                    result.add(new Dependency(DependencyKind.LIBRARY, a, scope, null, false, null, Collections.emptyList()));
+                }
+            }
+            else if ("system".equals(artifact.getScope())) {
+                result.add(new Dependency(DependencyKind.SYSTEM, artifact, scope, null, false, null, Collections.emptyList()));
+            }
+            else {
+                result.add(new Dependency(DependencyKind.LIBRARY, artifact, scope, null, false, null, Collections.emptyList()));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static List<AttachedJar> computeAttachedJars(Element buildHelperCfg) {
+        List<AttachedJar> result = new ArrayList<>();
+        for (Element artifactsElement : buildHelperCfg.getChildren("artifacts")) {
+            for (Element artifactElement : artifactsElement.getChildren("artifact")) {
+                String typeString = artifactElement.getChildTextTrim("type");
+                if (typeString != null && !typeString.equals("jar")) {
+                    continue;
+                }
+
+                String rootType = BinariesOrderRootType.ID;
+
+                String classifier = artifactElement.getChildTextTrim("classifier");
+                if ("sources".equals(classifier)) {
+                    rootType = SourcesOrderRootType.ID;
+                }
+                else if ("javadoc".equals(classifier)) {
+                    rootType = DocumentationOrderRootType.ID;
+                }
+
+                String filePath = artifactElement.getChildTextTrim("file");
+                if (StringUtil.isEmpty(filePath)) {
+                    continue;
+                }
+
+                result.add(new AttachedJar(rootType, filePath));
+            }
+        }
+        return result;
+    }
+}
@@ -15,14 +15,10 @@
  */
 package org.jetbrains.idea.maven.importing;
 
-import com.google.common.collect.ImmutableMap;
 import com.intellij.java.language.LanguageLevel;
 import consulo.application.ReadAction;
 import consulo.application.concurrent.coroutine.WriteLock;
 import consulo.content.OrderRootType;
-import consulo.content.base.BinariesOrderRootType;
-import consulo.content.base.DocumentationOrderRootType;
-import consulo.content.base.SourcesOrderRootType;
 import consulo.content.bundle.Sdk;
 import consulo.content.library.Library;
 import consulo.content.library.LibraryProperties;
@@ -39,13 +35,11 @@ import consulo.module.content.layer.orderEntry.DependencyScope;
 import consulo.module.content.layer.orderEntry.LibraryOrderEntry;
 import consulo.module.content.layer.orderEntry.ModuleExtensionWithSdkOrderEntry;
 import consulo.util.concurrent.coroutine.CoroutineStep;
-import consulo.util.lang.StringUtil;
 import consulo.virtualFileSystem.VirtualFile;
 import consulo.virtualFileSystem.archive.ArchiveVfsUtil;
 import consulo.virtualFileSystem.util.VirtualFileUtil;
 import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
-import org.jdom.Element;
 import org.jetbrains.idea.maven.execution.MavenRunner;
 import org.jetbrains.idea.maven.project.*;
 import org.jetbrains.idea.maven.utils.MavenUtil;
@@ -59,13 +53,6 @@ import java.util.Set;
 public class MavenModuleImporter {
     public static final String SUREFIRE_PLUGIN_LIBRARY_NAME = "maven-surefire-plugin urls";
 
-    private static final Map<String, LanguageLevel> MAVEN_IDEA_PLUGIN_LEVELS = ImmutableMap.of(
-        "JDK_1_3", LanguageLevel.JDK_1_3,
-        "JDK_1_4", LanguageLevel.JDK_1_4,
-        "JDK_1_5", LanguageLevel.JDK_1_5,
-        "JDK_1_6", LanguageLevel.JDK_1_6,
-        "JDK_1_7", LanguageLevel.JDK_1_7);
-
     private final Module myModule;
     private final MavenProjectsTree myMavenTree;
     private final MavenProject myMavenProject;
@@ -76,6 +63,7 @@ public class MavenModuleImporter {
     private final MavenImportingSettings mySettings;
     private final MavenModifiableModelsProvider myModifiableModelsProvider;
     private MavenRootModelAdapter myRootModelAdapter;
+    private MavenModuleImportPlan myPlan;
 
     public MavenModuleImporter(Module module,
                                MavenProjectsTree mavenTree,
@@ -97,7 +85,32 @@ public class MavenModuleImporter {
         return myRootModelAdapter.getRootModel();
     }
 
+    /**
+     * Computes what {@link #config} applies. Reads the Maven model only, so it may run for all modules at once.
+     */
+    public void prepare(@Nonnull Set<String> dependencyTypesFromSettings) {
+        myPlan = MavenModuleImportPlan.compute(
+            myMavenProject,
+            myMavenTree,
+            myMavenProjectToModuleName,
+            dependencyTypesFromSettings,
+            mySettings
+        );
+    }
+
+    /**
+     * @return true if the module was configured with the same plan by the previous import, so configuring it again would change
+     * nothing but the changes made by the user since, which only an explicit reimport is expected to undo
+     */
+    public boolean isUpToDate() {
+        return myPlan != null && myPlan.equals(myModule.getUserData(MavenModuleImportPlan.APPLIED_PLAN));
+    }
+
     public void config(boolean isNewlyCreatedModule, MavenImportSession session) {
+        if (myPlan == null) {
+            prepare(getDependencyTypesFromSettings());
+        }
+
         myRootModelAdapter = new MavenRootModelAdapter(myMavenProject, myModule, myModifiableModelsProvider);
         myRootModelAdapter.init(isNewlyCreatedModule);
 
@@ -106,16 +119,19 @@ public class MavenModuleImporter {
         JavaMutableModuleExtensionImpl javaModuleExtension = rootModel.getExtensionWithoutCheck(JavaMutableModuleExtensionImpl.class);
         javaModuleExtension.setEnabled(true);
 
-        String bytecodeVersion = myMavenProject.getTargetLevel();
-        if (bytecodeVersion != null) {
-            javaModuleExtension.setBytecodeVersion(bytecodeVersion);
+        if (myPlan.bytecodeVersion() != null) {
+            javaModuleExtension.setBytecodeVersion(myPlan.bytecodeVersion());
         }
 
-        configureManifestAttributes(javaModuleExtension);
+        if (myPlan.manifestAttributes() != null) {
+            javaModuleExtension.setManifestAttributes(new LinkedHashMap<>(myPlan.manifestAttributes()));
+        }
 
-        LanguageLevel languageLevel = configureLanguageLevel();
+        if (myPlan.languageLevel() != null) {
+            myRootModelAdapter.setLanguageLevel(myPlan.languageLevel());
+        }
 
-        configureJavaSdk(languageLevel, javaModuleExtension, session);
+        configureJavaSdk(myPlan.sdkLevel(), javaModuleExtension, session);
 
         ModuleExtensionWithSdkOrderEntry moduleExtensionSdkEntry = rootModel.findModuleExtensionSdkEntry(javaModuleExtension);
         if (moduleExtensionSdkEntry == null) {
@@ -127,58 +143,8 @@ public class MavenModuleImporter {
         configDependencies();
     }
 
-    private void configureManifestAttributes(JavaMutableModuleExtensionImpl javaModuleExtension) {
-        Element pluginConfiguration = myMavenProject.getPluginConfiguration("org.apache.maven.plugins", "maven-jar-plugin");
-        Element archive = pluginConfiguration != null ? pluginConfiguration.getChild("archive") : null;
-        Element manifestEntries = archive != null ? archive.getChild("manifestEntries") : null;
-        if (manifestEntries == null) {
-            return;
-        }
-
-        LinkedHashMap<String, String> attributes = new LinkedHashMap<>();
-        for (Element entry : manifestEntries.getChildren()) {
-            attributes.put(entry.getName(), entry.getText());
-        }
-        javaModuleExtension.setManifestAttributes(attributes);
-    }
-
-    private LanguageLevel configureLanguageLevel() {
-        if ("false".equalsIgnoreCase(System.getProperty("idea.maven.configure.language.level"))) {
-            return LanguageLevel.HIGHEST;
-        }
-
-        LanguageLevel level = null;
-
-        Element cfg = myMavenProject.getPluginConfiguration("com.googlecode", "maven-idea-plugin");
-        if (cfg != null) {
-            level = MAVEN_IDEA_PLUGIN_LEVELS.get(cfg.getChildTextTrim("jdkLevel"));
-        }
-
-        if (level == null) {
-            String mavenProjectSourceLevel = myMavenProject.getSourceLevel();
-            level = LanguageLevel.parse(mavenProjectSourceLevel);
-            if (level == null) {
-                String mavenProjectReleaseLevel = myMavenProject.getReleaseLevel();
-                level = LanguageLevel.parse(mavenProjectReleaseLevel);
-                if (level == null && (StringUtil.isNotEmpty(mavenProjectSourceLevel) || StringUtil.isNotEmpty(mavenProjectReleaseLevel))) {
-                    level = LanguageLevel.HIGHEST;
-                }
-            }
-        }
-
-        // default source and target settings of maven-compiler-plugin is 1.6, see details at http://maven.apache.org/plugins/maven-compiler-plugin
-        if (level == null) {
-            level = LanguageLevel.JDK_1_6;
-        }
-
-        myRootModelAdapter.setLanguageLevel(level);
-        String compilerId = myMavenProject.getCompilerId();
-        if ("javi".equals(compilerId)) {
-            // javi compiler allow compilation from jdk 8+
-            return LanguageLevel.JDK_1_8;
-        }
-
-        return level;
+    MavenModuleImportPlan getPlan() {
+        return myPlan;
     }
 
     private void configureJavaSdk(LanguageLevel level, JavaMutableModuleExtensionImpl javaMutableModuleExtension, MavenImportSession session) {
@@ -240,52 +206,31 @@ public class MavenModuleImporter {
         new MavenFoldersImporter(myMavenProject, mySettings, myRootModelAdapter).config();
     }
 
-    private void configDependencies() {
-        Set<String> dependencyTypesFromSettings = ReadAction.compute(() ->{
+    private Set<String> getDependencyTypesFromSettings() {
+        return ReadAction.compute(() -> {
             if (myModule.getProject().isDisposed()) {
                 return null;
             }
 
             return MavenProjectsManager.getInstance(myModule.getProject()).getImportingSettings().getDependencyTypesAsSet();
         });
+    }
 
-        for (MavenArtifact artifact : myMavenProject.getDependencies()) {
-            String dependencyType = artifact.getType();
-
-            if (!dependencyTypesFromSettings.contains(dependencyType) && !myMavenProject.getDependencyTypesFromImporters(SupportedRequestType.FOR_IMPORT).contains(dependencyType)) {
-                continue;
-            }
-
-            DependencyScope scope = selectScope(artifact.getScope());
-
-            MavenProject depProject = myMavenTree.findProject(artifact.getMavenId());
-
-            if (depProject != null && !myMavenTree.isIgnored(depProject)) {
-                if (depProject == myMavenProject) {
-                    continue;
-                }
-                boolean isTestJar = MavenConstants.TYPE_TEST_JAR.equals(artifact.getType()) || "tests".equals(artifact.getClassifier());
-                myRootModelAdapter.addModuleDependency(myMavenProjectToModuleName.get(depProject), scope, isTestJar);
-
-                Element buildHelperCfg = depProject.getPluginGoalConfiguration("org.codehaus.mojo", "build-helper-maven-plugin", "attach-artifact");
-                if (buildHelperCfg != null) {
-                    addAttachArtifactDependency(buildHelperCfg, scope, depProject, artifact);
-                }
-
-                if (artifact.getClassifier() != null && !"system".equals(artifact.getScope()) && !"false".equals(System.getProperty("idea.maven" +
-                    "" +
-                    ".classifier.dep"))) {
-                    MavenArtifact a = new MavenArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(), artifact.getBaseVersion(), artifact.getType(),
-                        artifact.getClassifier(), artifact.getScope(), artifact.isOptional(), artifact.getExtension(), null, myMavenProject.getLocalRepository(), false, false);
-
-                    myRootModelAdapter.addLibraryDependency(a, scope, myModifiableModelsProvider, myMavenProject);
-                }
-            }
-            else if ("system".equals(artifact.getScope())) {
-                myRootModelAdapter.addSystemDependency(artifact, scope);
-            }
-            else {
-                myRootModelAdapter.addLibraryDependency(artifact, scope, myModifiableModelsProvider, myMavenProject);
+    private void configDependencies() {
+        for (MavenModuleImportPlan.Dependency each : myPlan.dependencies()) {
+            switch (each.kind()) {
+                case MODULE:
+                    myRootModelAdapter.addModuleDependency(each.moduleName(), each.scope(), each.testJar());
+                    if (each.attachedJarsProject() != null) {
+                        addAttachArtifactDependency(each.attachedJars(), each.scope(), each.attachedJarsProject(), each.artifact());
+                    }
+                    break;
+                case SYSTEM:
+                    myRootModelAdapter.addSystemDependency(each.artifact(), each.scope());
+                    break;
+                case LIBRARY:
+                    myRootModelAdapter.addLibraryDependency(each.artifact(), each.scope(), myModifiableModelsProvider, myMavenProject);
+                    break;
             }
         }
 
@@ -303,62 +248,48 @@ public class MavenModuleImporter {
         }
     }
 
-    private void addAttachArtifactDependency(@Nonnull Element buildHelperCfg, @Nonnull DependencyScope scope, @Nonnull MavenProject mavenProject, @Nonnull MavenArtifact artifact) {
+    private void addAttachArtifactDependency(
+        @Nonnull List<MavenModuleImportPlan.AttachedJar> attachedJars,
+        @Nonnull DependencyScope scope,
+        @Nonnull MavenProject mavenProject,
+        @Nonnull MavenArtifact artifact
+    ) {
         Library.ModifiableModel libraryModel = null;
 
-        for (Element artifactsElement : buildHelperCfg.getChildren("artifacts")) {
-            for (Element artifactElement : artifactsElement.getChildren("artifact")) {
-                String typeString = artifactElement.getChildTextTrim("type");
-                if (typeString != null && !typeString.equals("jar")) {
-                    continue;
-                }
-
-                String rootType = BinariesOrderRootType.ID;
+        for (MavenModuleImportPlan.AttachedJar each : attachedJars) {
+            String filePath = each.filePath();
+            String rootType = each.rootType();
 
-                String classifier = artifactElement.getChildTextTrim("classifier");
-                if ("sources".equals(classifier)) {
-                    rootType = SourcesOrderRootType.ID;
-                }
-                else if ("javadoc".equals(classifier)) {
-                    rootType = DocumentationOrderRootType.ID;
-                }
-
-                String filePath = artifactElement.getChildTextTrim("file");
-                if (StringUtil.isEmpty(filePath)) {
-                    continue;
-                }
-
-                VirtualFile file = VirtualFileUtil.findRelativeFile(filePath, mavenProject.getDirectoryFile());
-                if (file == null) {
-                    continue;
-                }
+            VirtualFile file = VirtualFileUtil.findRelativeFile(filePath, mavenProject.getDirectoryFile());
+            if (file == null) {
+                continue;
+            }
 
-                file = ArchiveVfsUtil.getArchiveRootForLocalFile(file);
-                if (file == null) {
-                    continue;
-                }
+            file = ArchiveVfsUtil.getArchiveRootForLocalFile(file);
+            if (file == null) {
+                continue;
+            }
 
-                if (libraryModel == null) {
-                    String libraryName = artifact.getLibraryName();
-                    assert libraryName.startsWith(MavenArtifact.MAVEN_LIB_PREFIX);
-                    libraryName = MavenArtifact.MAVEN_LIB_PREFIX + "ATTACHED-JAR: " + libraryName.substring(MavenArtifact.MAVEN_LIB_PREFIX.length());
-
-                    Library library = myModifiableModelsProvider.getLibraryByName(libraryName);
-                    if (library == null) {
-                        library = myModifiableModelsProvider.createLibrary(libraryName);
-                        LibraryProperties properties = library.getProperties();
-                        if (properties instanceof RepositoryLibraryProperties repositoryLibraryProperties) {
-                            repositoryLibraryProperties.setMavenId(artifact.getMavenId().toString());
-                        }
+            if (libraryModel == null) {
+                String libraryName = artifact.getLibraryName();
+                assert libraryName.startsWith(MavenArtifact.MAVEN_LIB_PREFIX);
+                libraryName = MavenArtifact.MAVEN_LIB_PREFIX + "ATTACHED-JAR: " + libraryName.substring(MavenArtifact.MAVEN_LIB_PREFIX.length());
+
+                Library library = myModifiableModelsProvider.getLibraryByName(libraryName);
+                if (library == null) {
+                    library = myModifiableModelsProvider.createLibrary(libraryName);
+                    LibraryProperties properties = library.getProperties();
+                    if (properties instanceof RepositoryLibraryProperties repositoryLibraryProperties) {
+                        repositoryLibraryProperties.setMavenId(artifact.getMavenId().toString());
                     }
-                    libraryModel = myModifiableModelsProvider.getLibraryModel(library);
-
-                    LibraryOrderEntry entry = myRootModelAdapter.getRootModel().addLibraryEntry(library);
-                    entry.setScope(scope);
                 }
+                libraryModel = myModifiableModelsProvider.getLibraryModel(library);
 
-                libraryModel.addRoot(file, rootType);
+                LibraryOrderEntry entry = myRootModelAdapter.getRootModel().addLibraryEntry(library);
+                entry.setScope(scope);
             }
+
+            libraryModel.addRoot(file, rootType);
         }
     }
 
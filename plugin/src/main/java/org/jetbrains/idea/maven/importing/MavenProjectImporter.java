@@ -20,6 +20,7 @@ import com.intellij.java.compiler.impl.javaCompiler.javac.JpsJavaCompilerOptions
 import consulo.annotation.access.RequiredWriteAction;
 import consulo.application.ApplicationManager;
 import consulo.application.concurrent.coroutine.WriteLock;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.component.ProcessCanceledException;
 import consulo.content.library.Library;
 import consulo.java.impl.module.extension.JavaMutableModuleExtensionImpl;
@@ -57,6 +58,8 @@ import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class MavenProjectImporter {
     private static final Logger LOG = Logger.getInstance(MavenProjectImporter.class);
@@ -66,6 +69,8 @@ public class MavenProjectImporter {
     private volatile Map<MavenProject, MavenProjectChanges> myProjectsToImportWithChanges;
     private volatile Set<MavenProject> myAllProjects;
     private final boolean myImportModuleGroupsRequired;
+    // set for the imports of an explicit reimport, which configure every module again
+    private final boolean myExplicitReimport;
     private final MavenModifiableModelsProvider myModelsProvider;
     private final MavenImportingSettings myImportingSettings;
 
@@ -77,6 +82,9 @@ public class MavenProjectImporter {
     private final Map<MavenProject, String> myMavenProjectToModuleName = new HashMap<>();
     private final Map<MavenProject, String> myMavenProjectToModulePath = new HashMap<>();
 
+    // the plans of the configured modules, recorded in them once the models are committed
+    private final Map<Module, MavenModuleImportPlan> myAppliedPlans = new HashMap<>();
+
     /**
      * Progress state of {@link #importProjectCoroutine()}, stored in the {@link Continuation} user
      * data so it is shared across the coroutine steps without extra instance fields.
@@ -98,6 +106,7 @@ public class MavenProjectImporter {
                                 Map<VirtualFile, Module> fileToModuleMapping,
                                 Map<MavenProject, MavenProjectChanges> projectsToImportWithChanges,
                                 boolean importModuleGroupsRequired,
+                                boolean explicitReimport,
                                 MavenModifiableModelsProvider modelsProvider,
                                 MavenImportingSettings importingSettings) {
         myProject = p;
@@ -105,6 +114,7 @@ public class MavenProjectImporter {
         myFileToModuleMapping = fileToModuleMapping;
         myProjectsToImportWithChanges = projectsToImportWithChanges;
         myImportModuleGroupsRequired = importModuleGroupsRequired;
+        myExplicitReimport = explicitReimport;
         myModelsProvider = modelsProvider;
         myImportingSettings = importingSettings;
 
@@ -243,6 +253,7 @@ public class MavenProjectImporter {
 
                 if (state.hasChanges) {
                     myModelsProvider.commit();
+                    myAppliedPlans.forEach((module, plan) -> module.putUserData(MavenModuleImportPlan.APPLIED_PLAN, plan));
 
                     if (state.projectsHaveChanges) {
                         removeOutdatedCompilerConfigSettings();
@@ -450,20 +461,33 @@ public class MavenProjectImporter {
 
         MavenImportSession session = new MavenImportSession();
 
+        Map<MavenProject, MavenModuleImporter> importersToConfig = new LinkedHashMap<>();
         for (Map.Entry<MavenProject, MavenProjectChanges> each : projectsWithChanges.entrySet()) {
             MavenProject project = each.getKey();
-            Module module = myMavenProjectToModule.get(project);
+            importersToConfig.put(project, createModuleImporter(myMavenProjectToModule.get(project), project, each.getValue()));
+        }
+        prepareModuleImporters(importersToConfig.values());
+
+        Set<MavenProject> skippedProjects = new HashSet<>();
+        for (Map.Entry<MavenProject, MavenModuleImporter> each : importersToConfig.entrySet()) {
+            MavenProject project = each.getKey();
+            MavenModuleImporter moduleImporter = each.getValue();
             boolean isNewModule = projectsWithNewlyCreatedModules.contains(project);
+            modulesToMavenize.add(myMavenProjectToModule.get(project));
 
-            MavenModuleImporter moduleImporter = createModuleImporter(module, project, each.getValue());
-            modulesToMavenize.add(module);
-            importers.add(moduleImporter);
+            // on an automatic import, a re-read project that did not change and whose module would come out the same is left as it is
+            if (!myExplicitReimport && !isNewModule && !projectsWithChanges.get(project).hasChanges() && moduleImporter.isUpToDate()) {
+                skippedProjects.add(project);
+                continue;
+            }
 
+            importers.add(moduleImporter);
             moduleImporter.config(isNewModule, session);
+            myAppliedPlans.put(myMavenProjectToModule.get(project), moduleImporter.getPlan());
         }
 
         for (MavenProject project : myAllProjects) {
-            if (!projectsWithChanges.containsKey(project)) {
+            if (!projectsWithChanges.containsKey(project) || skippedProjects.contains(project)) {
                 Module module = myMavenProjectToModule.get(project);
                 if (module == null) {
                     continue;
@@ -488,6 +512,24 @@ public class MavenProjectImporter {
         return steps;
     }
 
+    /**
+     * Computes the plans of the modules in parallel, as that only reads the Maven model; the root models are changed sequentially.
+     */
+    private void prepareModuleImporters(Collection<MavenModuleImporter> importers) {
+        Set<String> dependencyTypes = myImportingSettings.getDependencyTypesAsSet();
+        try {
+            CompletableFuture.allOf(importers.stream()
+                .map(each -> CompletableFuture.runAsync(() -> each.prepare(dependencyTypes), AppExecutorUtil.getAppExecutorService()))
+                .toArray(CompletableFuture[]::new)).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     @RequiredWriteAction
     private void setMavenizedModules(List<Module> modulesToMavenize, boolean mavenize) {
         for (Module module : modulesToMavenize) {
@@ -28,7 +28,6 @@ import consulo.module.Module;
 import consulo.module.content.layer.ModifiableRootModel;
 import consulo.project.Project;
 import consulo.ui.ModalityState;
-import org.jetbrains.idea.maven.utils.library.RepositoryLibraryType;
 
 public class MavenUIModifiableModelsProvider extends MavenBaseModifiableModelsProvider
 {
@@ -75,30 +74,6 @@ public class MavenUIModifiableModelsProvider extends MavenBaseModifiableModelsPr
 		return myLibrariesModel;
 	}
 
-	@Override
-	public Library[] getAllLibraries()
-	{
-		return myLibrariesModel.getLibraries();
-	}
-
-	@Override
-	public Library getLibraryByName(String name)
-	{
-		return myLibrariesModel.getLibraryByName(name);
-	}
-
-	@Override
-	public Library createLibrary(String name)
-	{
-		return myLibrariesModel.createLibrary(name, RepositoryLibraryType.getInstance().getKind());
-	}
-
-	@Override
-	public void removeLibrary(Library library)
-	{
-		myLibrariesModel.removeLibrary(library);
-	}
-
 	@Override
 	protected Library.ModifiableModel doGetLibraryModel(Library library)
 	{
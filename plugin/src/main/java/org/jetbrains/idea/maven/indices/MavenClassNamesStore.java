@@ -0,0 +1,176 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import consulo.maven.rt.server.common.server.IndexedMavenId;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Class names of an index by simple name, kept next to its maps and written when the index is updated, so a class search
+ * is a prefix query on a sorted table instead of a wildcard query over all the class names of the index.
+ * <p>
+ * Every entry is {@code simplename SEPARATOR SimpleName SEPARATOR /package/path SEPARATOR groupId SEPARATOR artifactId SEPARATOR
+ * version SEPARATOR packaging}, the first part being the simple name in lower case.
+ */
+class MavenClassNamesStore implements Closeable {
+    private static final char SEPARATOR = MavenCoordinatesStore.SEPARATOR;
+
+    private static final String CLASS_NAMES_TABLE_FILE = "classNames-table.dat";
+
+    interface Consumer {
+        /**
+         * @param classPath  the class as the index keeps it, {@code /package/path/ClassName}
+         * @param coordinate {@code groupId SEPARATOR artifactId SEPARATOR version SEPARATOR packaging}
+         * @return false to stop the search
+         */
+        boolean consume(@Nonnull String classPath, @Nonnull String coordinate);
+    }
+
+    private final MavenSortedStringTable myTable;
+
+    private MavenClassNamesStore(MavenSortedStringTable table) {
+        myTable = table;
+    }
+
+    /**
+     * @return null if the table was not built for this data dir, e.g. it was created by an older version
+     */
+    @Nullable
+    static MavenClassNamesStore open(@Nonnull File dir) throws IOException {
+        File file = new File(dir, CLASS_NAMES_TABLE_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        return new MavenClassNamesStore(MavenSortedStringTable.open(file));
+    }
+
+    @Nonnull
+    static Writer create(@Nonnull File dir) throws IOException {
+        return new Writer(dir);
+    }
+
+    /**
+     * Adds the classes of the artifact to the entries grouped for the next {@link Writer}.
+     */
+    static void addClassNames(@Nonnull MavenIndexEntriesSorter sorter, @Nonnull IndexedMavenId id) throws IOException {
+        String classNames = id.classNames;
+        if (classNames == null || classNames.isEmpty()) {
+            return;
+        }
+
+        String coordinate = id.groupId + SEPARATOR + id.artifactId + SEPARATOR + id.version + SEPARATOR
+            + (id.packaging == null ? "" : id.packaging);
+        int start = 0;
+        while (start < classNames.length()) {
+            int end = classNames.indexOf('\n', start);
+            if (end < 0) {
+                end = classNames.length();
+            }
+            String classPath = classNames.substring(start, end).trim();
+            start = end + 1;
+            if (classPath.isEmpty()) {
+                continue;
+            }
+            if (classPath.charAt(0) != '/') {
+                classPath = '/' + classPath;
+            }
+
+            int lastSlash = classPath.lastIndexOf('/');
+            String simpleName = classPath.substring(lastSlash + 1);
+            if (simpleName.isEmpty()) {
+                continue;
+            }
+            String key = simpleName.toLowerCase(Locale.ROOT) + SEPARATOR + simpleName + SEPARATOR + classPath.substring(0, lastSlash);
+            sorter.add(key, coordinate);
+        }
+    }
+
+    /**
+     * Passes the classes whose lower-case simple name starts with {@code namePrefix} and whose path the matcher accepts
+     * to the consumer, with every artifact they are in.
+     */
+    void search(@Nonnull String namePrefix, @Nonnull Predicate<String> classPathMatcher, @Nonnull Consumer consumer) throws IOException {
+        myTable.processWithPrefix(namePrefix, entry -> {
+            int simpleNameStart = entry.indexOf(SEPARATOR) + 1;
+            int packageStart = entry.indexOf(SEPARATOR, simpleNameStart) + 1;
+            int coordinateStart = entry.indexOf(SEPARATOR, packageStart) + 1;
+            String classPath = entry.substring(packageStart, coordinateStart - 1) + '/'
+                + entry.substring(simpleNameStart, packageStart - 1);
+            return !classPathMatcher.test(classPath) || consumer.consume(classPath, entry.substring(coordinateStart));
+        });
+    }
+
+    @Nonnull
+    static List<String> splitCoordinate(@Nonnull String coordinate) {
+        List<String> result = new ArrayList<>(4);
+        int start = 0;
+        int end;
+        while ((end = coordinate.indexOf(SEPARATOR, start)) >= 0) {
+            result.add(coordinate.substring(start, end));
+            start = end + 1;
+        }
+        result.add(coordinate.substring(start));
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        myTable.close();
+    }
+
+    /**
+     * Builds the table from the grouped entries of an index update, which arrive sorted by key.
+     */
+    static class Writer implements Closeable {
+        private final MavenSortedStringTable.Writer myTable;
+        private final File myDir;
+
+        private Writer(File dir) throws IOException {
+            myDir = dir;
+            // renamed when complete, so an interrupted update leaves no table behind
+            myTable = MavenSortedStringTable.create(new File(dir, CLASS_NAMES_TABLE_FILE + ".tmp"));
+        }
+
+        void addClass(@Nonnull String key, @Nonnull Set<String> coordinates) throws IOException {
+            List<String> sorted = new ArrayList<>(coordinates);
+            Collections.sort(sorted);
+            for (String each : sorted) {
+                myTable.add(key + SEPARATOR + each);
+            }
+        }
+
+        void finish() throws IOException {
+            myTable.finish();
+
+            File file = new File(myDir, CLASS_NAMES_TABLE_FILE);
+            if (!new File(myDir, CLASS_NAMES_TABLE_FILE + ".tmp").renameTo(file)) {
+                throw new IOException("Cannot create " + file);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            myTable.close();
+        }
+    }
+}
@@ -15,8 +15,11 @@
  */
 package org.jetbrains.idea.maven.indices;
 
+import consulo.application.util.matcher.MinusculeMatcher;
+import consulo.application.util.matcher.NameUtil;
 import consulo.util.lang.Pair;
 import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nullable;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
@@ -25,20 +28,46 @@ import consulo.maven.rt.server.common.model.MavenArtifactInfo;
 import consulo.maven.rt.server.common.server.MavenServerIndexer;
 
 import java.util.*;
-import java.util.regex.Matcher;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
     public static final String TERM = MavenServerIndexer.SEARCH_TERM_CLASS_NAMES;
 
+    /**
+     * @param namePrefix lower-case prefix of the simple names that can match
+     * @param matcher    accepts the {@code /package/path/ClassName} of the matching classes
+     */
+    private record ClassPattern(String namePrefix, Predicate<String> matcher) {
+    }
+
+    /**
+     * Keeps the pattern as typed, camel humps need its case.
+     */
     @Override
     protected Pair<String, Query> preparePatternAndQuery(String pattern) {
-        pattern = pattern.toLowerCase();
-        if (pattern.trim().length() == 0) {
+        String normalized = normalizePattern(pattern);
+        if (normalized == null) {
             return new Pair<>(pattern, new MatchAllDocsQuery());
         }
 
+        String queryPattern = "*/" + normalized.replaceAll("\\.", "/");
+
+        return new Pair<>(pattern, new WildcardQuery(new Term(TERM, queryPattern)));
+    }
+
+    /**
+     * @return the lower-case pattern with the package parts and, unless the search is exact, the class name made prefixes,
+     * or null if the pattern is empty
+     */
+    @Nullable
+    private static String normalizePattern(String pattern) {
+        pattern = pattern.toLowerCase(Locale.ROOT);
+        if (pattern.trim().length() == 0) {
+            return null;
+        }
+
         List<String> parts = StringUtil.split(pattern, ".");
 
         StringBuilder newPattern = new StringBuilder();
@@ -55,37 +84,90 @@ public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
             newPattern.append("*");
         }
 
-        pattern = newPattern.toString();
-        String queryPattern = "*/" + pattern.replaceAll("\\.", "/");
-
-        return new Pair<>(pattern, new WildcardQuery(new Term(TERM, queryPattern)));
+        return newPattern.toString();
     }
 
     @Override
-    protected Collection<MavenClassSearchResult> processResults(Set<MavenArtifactInfo> infos, String pattern, int maxResult) {
-        if (pattern.length() == 0 || pattern.equals("*")) {
-            pattern = "^/(.*)$";
+    protected Set<MavenArtifactInfo> searchInfos(
+        MavenProjectIndicesManager manager,
+        Pair<String, Query> patternAndQuery,
+        int maxResult
+    ) {
+        ClassPattern classPattern = compileClassPattern(patternAndQuery.first);
+        if (classPattern == null) {
+            return Collections.emptySet();
         }
-        else {
-            pattern = pattern.replace(".", "/");
+        if (classPattern.namePrefix().isEmpty()) {
+            // would visit every class of the indices
+            return super.searchInfos(manager, patternAndQuery, maxResult);
+        }
+        return manager.searchClasses(classPattern.namePrefix(), classPattern.matcher(), patternAndQuery.second, maxResult);
+    }
 
-            int lastDot = pattern.lastIndexOf("/");
-            String packagePattern = lastDot == -1 ? "" : (pattern.substring(0, lastDot) + "/");
-            String classNamePattern = lastDot == -1 ? pattern : pattern.substring(lastDot + 1);
+    @Nullable
+    private static ClassPattern compileClassPattern(String rawPattern) {
+        String pattern = normalizePattern(rawPattern);
+        if (pattern == null || pattern.equals("*")) {
+            return new ClassPattern("", classPath -> true);
+        }
 
-            packagePattern = packagePattern.replaceAll("\\*", ".*?");
-            classNamePattern = classNamePattern.replaceAll("\\*", "[^/]*?");
+        pattern = pattern.replace(".", "/");
 
-            pattern = packagePattern + classNamePattern;
+        int lastDot = pattern.lastIndexOf("/");
+        String packagePattern = lastDot == -1 ? "" : (pattern.substring(0, lastDot) + "/");
+        String classNamePattern = lastDot == -1 ? pattern : pattern.substring(lastDot + 1);
 
-            pattern = ".*?/" + pattern;
-            pattern = "^(" + pattern + ")$";
-        }
         Pattern p;
+        Pattern packageOnly;
         try {
-            p = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+            p = compileClassPathPattern(packagePattern, classNamePattern);
+            packageOnly = compileClassPathPattern(packagePattern, "*");
         }
         catch (PatternSyntaxException e) {
+            return null;
+        }
+
+        int wildcard = classNamePattern.indexOf('*');
+        String namePrefix = wildcard < 0 ? classNamePattern : classNamePattern.substring(0, wildcard);
+
+        // 'NPE' or 'NullPE' also find NullPointerException
+        List<String> rawParts = StringUtil.split(rawPattern, ".");
+        String rawClassName = rawParts.get(rawParts.size() - 1).trim();
+        if (wildcard == classNamePattern.length() - 1 && isCamelHumps(rawClassName)) {
+            MinusculeMatcher camelHumps = NameUtil.buildMatcher(rawClassName, NameUtil.MatchingCaseSensitivity.NONE);
+            return new ClassPattern(
+                namePrefix.substring(0, 1),
+                classPath -> p.matcher(classPath).matches()
+                    || camelHumps.matches(classPath.substring(classPath.lastIndexOf('/') + 1)) && packageOnly.matcher(classPath).matches()
+            );
+        }
+        return new ClassPattern(namePrefix, classPath -> p.matcher(classPath).matches());
+    }
+
+    private static Pattern compileClassPathPattern(String packagePattern, String classNamePattern) {
+        packagePattern = packagePattern.replaceAll("\\*", ".*?");
+        classNamePattern = classNamePattern.replaceAll("\\*", "[^/]*?");
+
+        return Pattern.compile(".*?/" + packagePattern + classNamePattern, Pattern.CASE_INSENSITIVE);
+    }
+
+    private static boolean isCamelHumps(String className) {
+        if (className.isEmpty() || className.indexOf('*') >= 0) {
+            return false;
+        }
+        int upperCase = 0;
+        for (int i = 0; i < className.length(); i++) {
+            if (Character.isUpperCase(className.charAt(i))) {
+                upperCase++;
+            }
+        }
+        return upperCase > 1;
+    }
+
+    @Override
+    protected Collection<MavenClassSearchResult> processResults(Set<MavenArtifactInfo> infos, String pattern, int maxResult) {
+        ClassPattern classPattern = compileClassPattern(pattern);
+        if (classPattern == null) {
             return Collections.emptyList();
         }
 
@@ -95,10 +177,11 @@ public class MavenClassSearcher extends MavenSearcher<MavenClassSearchResult> {
                 continue;
             }
 
-            Matcher matcher = p.matcher(each.getClassNames());
-            while (matcher.find()) {
-                String classFQName = matcher.group(1);
-                classFQName = classFQName.replace("/", ".");
+            for (String classPath : StringUtil.splitByLines(each.getClassNames())) {
+                if (!classPattern.matcher().test(classPath)) {
+                    continue;
+                }
+                String classFQName = classPath.replace("/", ".");
                 if (classFQName.startsWith(".")) {
                     classFQName = classFQName.substring(1);
                 }
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import org.jetbrains.idea.maven.dom.MavenVersionComparable;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Prefix-queryable coordinates of an index, kept next to its maps: sorted tables of group ids, {@code groupId:artifactId}
+ * and {@code groupId:artifactId:version} written when the index is updated, plus the artifacts added afterwards,
+ * which are logged to a small file and kept in memory until the next update rebuilds the tables.
+ */
+class MavenCoordinatesStore implements Closeable {
+    /**
+     * Joins coordinates in the tables; it sorts before any character of a coordinate,
+     * so the tables are ordered by group id first and then by artifact id.
+     */
+    static final char SEPARATOR = '\u0001';
+
+    private static final String GROUP_IDS_TABLE_FILE = "groupIds-table.dat";
+    private static final String ARTIFACT_IDS_TABLE_FILE = "artifactIds-table.dat";
+    private static final String VERSIONS_TABLE_FILE = "versions-table.dat";
+    private static final String ADDED_ARTIFACTS_FILE = "added-artifacts.dat";
+
+    private final File myDir;
+    private final MavenSortedStringTable myGroupIds;
+    private final MavenSortedStringTable myArtifactIds;
+    private final MavenSortedStringTable myVersions;
+
+    private final NavigableSet<String> myAddedGroupIds = new ConcurrentSkipListSet<>();
+    private final NavigableSet<String> myAddedArtifactIds = new ConcurrentSkipListSet<>();
+    private final NavigableSet<String> myAddedVersions = new ConcurrentSkipListSet<>();
+
+    private MavenCoordinatesStore(
+        File dir,
+        MavenSortedStringTable groupIds,
+        MavenSortedStringTable artifactIds,
+        MavenSortedStringTable versions
+    ) {
+        myDir = dir;
+        myGroupIds = groupIds;
+        myArtifactIds = artifactIds;
+        myVersions = versions;
+    }
+
+    /**
+     * @return null if the tables were not built for this data dir, e.g. it was created by an older version
+     */
+    @Nullable
+    static MavenCoordinatesStore open(@Nonnull File dir) throws IOException {
+        File versionsFile = new File(dir, VERSIONS_TABLE_FILE);
+        if (!versionsFile.exists()) {
+            return null;
+        }
+
+        List<MavenSortedStringTable> opened = new ArrayList<>();
+        try {
+            opened.add(MavenSortedStringTable.open(new File(dir, GROUP_IDS_TABLE_FILE)));
+            opened.add(MavenSortedStringTable.open(new File(dir, ARTIFACT_IDS_TABLE_FILE)));
+            opened.add(MavenSortedStringTable.open(versionsFile));
+
+            MavenCoordinatesStore result = new MavenCoordinatesStore(dir, opened.get(0), opened.get(1), opened.get(2));
+            result.readAddedArtifacts();
+            return result;
+        }
+        catch (IOException | RuntimeException e) {
+            for (MavenSortedStringTable each : opened) {
+                each.close();
+            }
+            throw e;
+        }
+    }
+
+    @Nonnull
+    static Writer create(@Nonnull File dir) throws IOException {
+        return new Writer(dir);
+    }
+
+    @Nonnull
+    static String key(@Nonnull String groupId, @Nonnull String artifactId) {
+        return groupId + SEPARATOR + artifactId;
+    }
+
+    /**
+     * Remembers an artifact added to the index after the tables were built.
+     */
+    void add(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String version) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getAddedArtifactsFile(), true)))) {
+            out.writeUTF(groupId);
+            out.writeUTF(artifactId);
+            out.writeUTF(version);
+        }
+        addToMemory(groupId, artifactId, version);
+    }
+
+    @Nonnull
+    List<String> getGroupIds() throws IOException {
+        List<String> result = new ArrayList<>();
+        myGroupIds.processAll(each -> result.add(each));
+        if (myAddedGroupIds.isEmpty()) {
+            return result;
+        }
+        Set<String> merged = new TreeSet<>(result);
+        merged.addAll(myAddedGroupIds);
+        return new ArrayList<>(merged);
+    }
+
+    /**
+     * @return the first {@code limit} group ids starting with {@code prefix}, in alphabetical order
+     */
+    @Nonnull
+    List<String> findGroupIds(@Nonnull String prefix, int limit) throws IOException {
+        return find(myGroupIds, myAddedGroupIds, "", prefix, limit);
+    }
+
+    /**
+     * @return the first {@code limit} artifact ids of the group starting with {@code prefix}, in alphabetical order
+     */
+    @Nonnull
+    List<String> findArtifactIds(@Nonnull String groupId, @Nonnull String prefix, int limit) throws IOException {
+        return find(myArtifactIds, myAddedArtifactIds, groupId + SEPARATOR, prefix, limit);
+    }
+
+    /**
+     * @return the newest {@code limit} versions of the artifact starting with {@code prefix}, newest first
+     */
+    @Nonnull
+    List<String> findVersions(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String prefix, int limit) throws IOException {
+        // versions are ordered alphabetically in the table, so all versions of the artifact are read to pick the newest ones
+        List<String> matches = find(myVersions, myAddedVersions, key(groupId, artifactId) + SEPARATOR, prefix, Integer.MAX_VALUE);
+        return selectNewestVersions(matches, limit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (MavenSortedStringTable each : Arrays.asList(myGroupIds, myArtifactIds, myVersions)) {
+            try {
+                each.close();
+            }
+            catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @return the first {@code limit} of {@code values} starting with {@code prefix}, in alphabetical order
+     */
+    @Nonnull
+    static List<String> selectWithPrefix(@Nonnull Collection<String> values, @Nonnull String prefix, int limit) {
+        TreeSet<String> result = new TreeSet<>();
+        for (String each : values) {
+            if (each.startsWith(prefix)) {
+                result.add(each);
+                if (result.size() > limit) {
+                    result.pollLast();
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * @return the newest {@code limit} of {@code versions} according to {@link MavenVersionComparable}, newest first
+     */
+    @Nonnull
+    static List<String> selectNewestVersions(@Nonnull Collection<String> versions, int limit) {
+        Comparator<MavenVersionComparable> order =
+            Comparator.<MavenVersionComparable>naturalOrder().thenComparing(MavenVersionComparable::toString);
+
+        // keeps the newest versions seen so far with the oldest of them on top
+        PriorityQueue<MavenVersionComparable> newest = new PriorityQueue<>(order);
+        for (String each : versions) {
+            newest.add(new MavenVersionComparable(each));
+            if (newest.size() > limit) {
+                newest.poll();
+            }
+        }
+
+        String[] result = new String[newest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = newest.poll().toString();
+        }
+        return Arrays.asList(result);
+    }
+
+    private static List<String> find(
+        MavenSortedStringTable table,
+        NavigableSet<String> added,
+        String keyPrefix,
+        String prefix,
+        int limit
+    ) throws IOException {
+        String fullPrefix = keyPrefix + prefix;
+
+        // both sources are sorted, so the first 'limit' strings of each are enough to get the first 'limit' of their union
+        TreeSet<String> matches = new TreeSet<>();
+        table.processWithPrefix(fullPrefix, each -> {
+            matches.add(each);
+            return matches.size() < limit;
+        });
+        for (String each : added.tailSet(fullPrefix, true)) {
+            if (!each.startsWith(fullPrefix) || matches.size() >= limit && each.compareTo(matches.last()) > 0) {
+                break;
+            }
+            matches.add(each);
+        }
+
+        List<String> result = new ArrayList<>(Math.min(matches.size(), limit));
+        for (String each : matches) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(each.substring(keyPrefix.length()));
+        }
+        return result;
+    }
+
+    private void readAddedArtifacts() throws IOException {
+        File file = getAddedArtifactsFile();
+        if (!file.exists()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                String groupId;
+                String artifactId;
+                String version;
+                try {
+                    groupId = in.readUTF();
+                    artifactId = in.readUTF();
+                    version = in.readUTF();
+                }
+                catch (EOFException e) {
+                    // the end of the log, or a record cut off by a crash
+                    break;
+                }
+                addToMemory(groupId, artifactId, version);
+            }
+        }
+    }
+
+    private void addToMemory(String groupId, String artifactId, String version) {
+        myAddedGroupIds.add(groupId);
+        myAddedArtifactIds.add(key(groupId, artifactId));
+        myAddedVersions.add(key(groupId, artifactId) + SEPARATOR + version);
+    }
+
+    private File getAddedArtifactsFile() {
+        return new File(myDir, ADDED_ARTIFACTS_FILE);
+    }
+
+    /**
+     * Builds the tables from the grouped entries of an index update, which arrive sorted by key.
+     */
+    static class Writer implements Closeable {
+        private final MavenSortedStringTable.Writer myGroupIds;
+        private final MavenSortedStringTable.Writer myArtifactIds;
+        private final MavenSortedStringTable.Writer myVersions;
+        private final File myDir;
+
+        private Writer(File dir) throws IOException {
+            myDir = dir;
+            myGroupIds = MavenSortedStringTable.create(new File(dir, GROUP_IDS_TABLE_FILE));
+            myArtifactIds = MavenSortedStringTable.create(new File(dir, ARTIFACT_IDS_TABLE_FILE));
+            // written last, its presence marks complete tables
+            myVersions = MavenSortedStringTable.create(new File(dir, VERSIONS_TABLE_FILE + ".tmp"));
+        }
+
+        void addArtifactIds(@Nonnull String groupId, @Nonnull Set<String> artifactIds) throws IOException {
+            myGroupIds.add(groupId);
+            for (String each : sorted(artifactIds)) {
+                myArtifactIds.add(key(groupId, each));
+            }
+        }
+
+        /**
+         * @param key the {@link #key(String, String)} of the artifact
+         */
+        void addVersions(@Nonnull String key, @Nonnull Set<String> versions) throws IOException {
+            for (String each : sorted(versions)) {
+                myVersions.add(key + SEPARATOR + each);
+            }
+        }
+
+        void finish() throws IOException {
+            myGroupIds.finish();
+            myArtifactIds.finish();
+            myVersions.finish();
+
+            File versionsFile = new File(myDir, VERSIONS_TABLE_FILE);
+            if (!new File(myDir, VERSIONS_TABLE_FILE + ".tmp").renameTo(versionsFile)) {
+                throw new IOException("Cannot create " + versionsFile);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            myGroupIds.close();
+            myArtifactIds.close();
+            myVersions.close();
+        }
+
+        private static List<String> sorted(Set<String> values) {
+            List<String> result = new ArrayList<>(values);
+            Collections.sort(result);
+            return result;
+        }
+    }
+}
@@ -42,6 +42,10 @@ import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
 
 public class MavenIndex {
     private static final String CURRENT_VERSION = "4";
@@ -79,11 +83,16 @@ public class MavenIndex {
     private Long myUpdateTimestamp;
 
     private String myDataDirName;
+    // lookups share the read lock; replacing, repairing or modifying the data takes the write lock
     private IndexData myData;
+    private final ReentrantReadWriteLock myDataLock = new ReentrantReadWriteLock();
+    private final Lock myDataReadLock = myDataLock.readLock();
+    private final Lock myDataWriteLock = myDataLock.writeLock();
+    private volatile long myModificationCount;
 
     private String myFailureMessage;
 
-    private boolean isBroken;
+    private volatile boolean isBroken;
     private final IndexListener myListener;
 
     public MavenIndex(
@@ -157,8 +166,14 @@ public class MavenIndex {
     public void registerId(String repositoryId) throws MavenIndexException {
         if (myRegisteredRepositoryIds.add(repositoryId)) {
             save();
-            close(true);
-            open();
+            myDataWriteLock.lock();
+            try {
+                close(true);
+                open();
+            }
+            finally {
+                myDataWriteLock.unlock();
+            }
         }
     }
 
@@ -209,6 +224,7 @@ public class MavenIndex {
                 dataDir.mkdirs();
             }
             myData = new IndexData(dataDir);
+            myModificationCount++;
         }
         catch (Exception e) {
             cleanupBrokenData();
@@ -235,7 +251,8 @@ public class MavenIndex {
         }
     }
 
-    public synchronized void close(boolean releaseIndexContext) {
+    public void close(boolean releaseIndexContext) {
+        myDataWriteLock.lock();
         try {
             if (myData != null) {
                 myData.close(releaseIndexContext);
@@ -244,7 +261,11 @@ public class MavenIndex {
         catch (MavenIndexException e) {
             MavenLog.LOG.warn(e);
         }
-        myData = null;
+        finally {
+            myData = null;
+            myModificationCount++;
+            myDataWriteLock.unlock();
+        }
     }
 
     private synchronized void save() {
@@ -310,6 +331,13 @@ public class MavenIndex {
         return myRepositoryPathOrUrl.equalsIgnoreCase(normalizePathOrUrl(pathOrUrl));
     }
 
+    /**
+     * Changes whenever the indexed data changes, so that merged views over several indices know when to refresh.
+     */
+    public long getModificationCount() {
+        return myModificationCount;
+    }
+
     public synchronized long getUpdateTimestamp() {
         return myUpdateTimestamp == null ? -1 : myUpdateTimestamp;
     }
@@ -408,82 +436,105 @@ public class MavenIndex {
             throw new RuntimeException(e);
         }
 
-        synchronized (this) {
-            IndexData oldData = myData;
+        myDataWriteLock.lock();
+        try {
+            synchronized (this) {
+                IndexData oldData = myData;
 
-            myData = newData;
-            myDataDirName = newDataDir.getName();
+                myData = newData;
+                myDataDirName = newDataDir.getName();
+                myModificationCount++;
 
-            if (fullUpdate) {
-                myUpdateTimestamp = System.currentTimeMillis();
-            }
+                if (fullUpdate) {
+                    myUpdateTimestamp = System.currentTimeMillis();
+                }
 
-            oldData.close(true);
+                oldData.close(true);
 
-            File[] files = myDir.listFiles();
-            if (files != null) {
-                for (File each : files) {
-                    if (each.getName().startsWith(DATA_DIR_PREFIX) && !each.getName().equals(myDataDirName)) {
-                        FileUtil.delete(each);
+                File[] files = myDir.listFiles();
+                if (files != null) {
+                    for (File each : files) {
+                        if (each.getName().startsWith(DATA_DIR_PREFIX) && !each.getName().equals(myDataDirName)) {
+                            FileUtil.delete(each);
+                        }
                     }
                 }
             }
         }
+        finally {
+            myDataWriteLock.unlock();
+        }
     }
 
     private void doUpdateIndexData(IndexData data, MavenProgressIndicator progress) throws IOException, MavenServerIndexerException {
-        final Map<String, Set<String>> groupToArtifactMap = new HashMap<>();
-        final Map<String, Set<String>> groupWithArtifactToVersionMap = new HashMap<>();
-
-        final StringBuilder builder = new StringBuilder();
+        // the entries of a big remote index do not fit into memory, so they are grouped by key on disk
+        try (MavenIndexEntriesSorter groupToArtifacts = new MavenIndexEntriesSorter("artifacts");
+             MavenIndexEntriesSorter groupWithArtifactToVersions = new MavenIndexEntriesSorter("versions");
+             MavenIndexEntriesSorter classNameToArtifacts = new MavenIndexEntriesSorter("classes");
+             MavenCoordinatesStore.Writer coordinates = MavenCoordinatesStore.create(data.dir);
+             MavenClassNamesStore.Writer classNames = MavenClassNamesStore.create(data.dir)) {
+            final StringBuilder builder = new StringBuilder();
+            // the processor may be called back remotely, so a spill failure is kept here instead of being thrown through the indexer
+            final IOException[] failure = new IOException[1];
+
+            progress.pushState();
+            progress.setIndeterminate(true);
 
-        progress.pushState();
-        progress.setIndeterminate(true);
+            try {
+                MavenIndicesProcessor processor = artifacts -> {
+                    if (failure[0] != null) {
+                        return;
+                    }
+                    try {
+                        for (IndexedMavenId each : artifacts) {
+                            String groupId = each.groupId;
+                            String artifactId = each.artifactId;
+                            String version = each.version;
 
-        try {
-            MavenIndicesProcessor processor = artifacts -> {
-                for (IndexedMavenId each : artifacts) {
-                    String groupId = each.groupId;
-                    String artifactId = each.artifactId;
-                    String version = each.version;
+                            builder.setLength(0);
 
-                    builder.setLength(0);
+                            // keyed the way the coordinates tables are ordered, so the grouped entries can be written to them as they come
+                            builder.append(groupId).append(MavenCoordinatesStore.SEPARATOR).append(artifactId);
+                            String ga = builder.toString();
 
-                    builder.append(groupId).append(":").append(artifactId);
-                    String ga = builder.toString();
+                            groupToArtifacts.add(groupId, artifactId);
+                            groupWithArtifactToVersions.add(ga, version);
+                            MavenClassNamesStore.addClassNames(classNameToArtifacts, each);
+                        }
+                    }
+                    catch (IOException e) {
+                        failure[0] = e;
+                    }
+                };
 
-                    getOrCreate(groupToArtifactMap, groupId).add(artifactId);
-                    getOrCreate(groupWithArtifactToVersionMap, ga).add(version);
+                if (myNotNexusIndexer != null) {
+                    myNotNexusIndexer.processArtifacts(progress, processor);
+                }
+                else {
+                    myNexusIndexer.processArtifacts(data.indexId, processor);
+                }
+                if (failure[0] != null) {
+                    throw failure[0];
                 }
-            };
 
-            if (myNotNexusIndexer != null) {
-                myNotNexusIndexer.processArtifacts(progress, processor);
+                groupToArtifacts.consume((groupId, artifactIds) -> {
+                    data.groupToArtifactMap.put(groupId, artifactIds);
+                    coordinates.addArtifactIds(groupId, artifactIds);
+                });
+                groupWithArtifactToVersions.consume((key, versions) -> {
+                    data.groupWithArtifactToVersionMap.put(key.replace(MavenCoordinatesStore.SEPARATOR, ':'), versions);
+                    coordinates.addVersions(key, versions);
+                });
+                coordinates.finish();
+                data.coordinates = MavenCoordinatesStore.open(data.dir);
+
+                classNameToArtifacts.consume(classNames::addClass);
+                classNames.finish();
+                data.classNames = MavenClassNamesStore.open(data.dir);
             }
-            else {
-                myNexusIndexer.processArtifacts(data.indexId, processor);
+            finally {
+                progress.popState();
             }
-
-            persist(groupToArtifactMap, data.groupToArtifactMap);
-            persist(groupWithArtifactToVersionMap, data.groupWithArtifactToVersionMap);
-        }
-        finally {
-            progress.popState();
-        }
-    }
-
-    private static <T> Set<T> getOrCreate(Map<String, Set<T>> map, String key) {
-        Set<T> result = map.get(key);
-        if (result == null) {
-            result = new HashSet<>();
-            map.put(key, result);
-        }
-        return result;
-    }
-
-    private static <T> void persist(Map<String, T> map, PersistentHashMap<String, T> persistentMap) throws IOException {
-        for (Map.Entry<String, T> each : map.entrySet()) {
-            persistentMap.put(each.getKey(), each.getValue());
         }
     }
 
@@ -511,7 +562,7 @@ public class MavenIndex {
         return MavenIndices.createNewDir(myDir, DATA_DIR_PREFIX, 100);
     }
 
-    public synchronized void addArtifact(final File artifactFile) {
+    public void addArtifact(final File artifactFile) {
         doIndexTask(
             () -> {
                 MavenId id = myData.addArtifact(artifactFile);
@@ -529,11 +580,16 @@ public class MavenIndex {
 
                 addToCache(myData.groupToArtifactMap, groupId, artifactId);
                 addToCache(myData.groupWithArtifactToVersionMap, groupWithArtifact, version);
+                if (myData.coordinates != null) {
+                    myData.coordinates.add(groupId, artifactId, version);
+                }
                 myData.flush();
+                myModificationCount++;
 
                 return null;
             },
-            null
+            null,
+            myDataWriteLock
         );
     }
 
@@ -546,11 +602,64 @@ public class MavenIndex {
         cache.put(key, values);
     }
 
-    public synchronized Collection<String> getGroupIds() {
-        return doIndexTask(() -> myData.groupToArtifactMap.getAllDataObjects(null), Collections.<String>emptySet());
+    public Collection<String> getGroupIds() {
+        return doIndexTask(
+            () -> myData.coordinates != null ? myData.coordinates.getGroupIds() : myData.groupToArtifactMap.getAllDataObjects(null),
+            Collections.<String>emptySet()
+        );
     }
 
-    public synchronized Set<String> getArtifactIds(final String groupId) {
+    /**
+     * @return the first {@code limit} group ids starting with {@code prefix}, in alphabetical order
+     */
+    public List<String> findGroupIds(@Nonnull String prefix, int limit) {
+        return doIndexTask(
+            () -> myData.coordinates != null
+                ? myData.coordinates.findGroupIds(prefix, limit)
+                : MavenCoordinatesStore.selectWithPrefix(myData.groupToArtifactMap.getAllDataObjects(null), prefix, limit),
+            Collections.<String>emptyList()
+        );
+    }
+
+    /**
+     * @return the first {@code limit} artifact ids of the group starting with {@code prefix}, in alphabetical order
+     */
+    public List<String> findArtifactIds(@Nonnull String groupId, @Nonnull String prefix, int limit) {
+        return doIndexTask(
+            () -> {
+                if (myData.coordinates != null) {
+                    return myData.coordinates.findArtifactIds(groupId, prefix, limit);
+                }
+                Set<String> artifactIds = myData.groupToArtifactMap.get(groupId);
+                return artifactIds == null
+                    ? Collections.<String>emptyList()
+                    : MavenCoordinatesStore.selectWithPrefix(artifactIds, prefix, limit);
+            },
+            Collections.<String>emptyList()
+        );
+    }
+
+    /**
+     * @return the newest {@code limit} versions of the artifact starting with {@code prefix}, newest first
+     */
+    public List<String> findVersions(@Nonnull String groupId, @Nonnull String artifactId, @Nonnull String prefix, int limit) {
+        return doIndexTask(
+            () -> {
+                if (myData.coordinates != null) {
+                    return myData.coordinates.findVersions(groupId, artifactId, prefix, limit);
+                }
+                Set<String> versions = myData.groupWithArtifactToVersionMap.get(groupId + ":" + artifactId);
+                if (versions == null) {
+                    return Collections.<String>emptyList();
+                }
+                List<String> matches = MavenCoordinatesStore.selectWithPrefix(versions, prefix, Integer.MAX_VALUE);
+                return MavenCoordinatesStore.selectNewestVersions(matches, limit);
+            },
+            Collections.<String>emptyList()
+        );
+    }
+
+    public Set<String> getArtifactIds(final String groupId) {
         return doIndexTask(
             () -> {
                 Set<String> result = myData.groupToArtifactMap.get(groupId);
@@ -561,7 +670,7 @@ public class MavenIndex {
     }
 
     @TestOnly
-    public synchronized void printInfo() {
+    public void printInfo() {
         doIndexTask(
             () -> {
                 System.out.println("BaseFile: " + myData.groupToArtifactMap.getBaseFile());
@@ -572,7 +681,7 @@ public class MavenIndex {
         );
     }
 
-    public synchronized Set<String> getVersions(final String groupId, final String artifactId) {
+    public Set<String> getVersions(final String groupId, final String artifactId) {
         return doIndexTask(
             () -> {
                 Set<String> result = myData.groupWithArtifactToVersionMap.get(groupId + ":" + artifactId);
@@ -582,53 +691,49 @@ public class MavenIndex {
         );
     }
 
-    public synchronized boolean hasGroupId(String groupId) {
-        return !isBroken && hasValue(myData.groupToArtifactMap, myData.hasGroupCache, groupId);
+    public boolean hasGroupId(String groupId) {
+        return !isBroken && doIndexTask(() -> hasValue(myData.groupToArtifactMap, myData.hasGroupCache, groupId), false);
     }
 
-    public synchronized boolean hasArtifactId(String groupId, String artifactId) {
-        return !isBroken && hasValue(myData.groupWithArtifactToVersionMap, myData.hasArtifactCache, groupId + ":" + artifactId);
+    public boolean hasArtifactId(String groupId, String artifactId) {
+        return !isBroken && doIndexTask(
+            () -> hasValue(myData.groupWithArtifactToVersionMap, myData.hasArtifactCache, groupId + ":" + artifactId),
+            false
+        );
     }
 
-    public synchronized boolean hasVersion(String groupId, String artifactId, final String version) {
+    public boolean hasVersion(String groupId, String artifactId, final String version) {
         if (isBroken) {
             return false;
         }
 
-        final String groupWithArtifactWithVersion = groupId + ":" + artifactId + ':' + version;
-
-        Boolean res = myData.hasVersionCache.get(groupWithArtifactWithVersion);
-        if (res == null) {
-            res = doIndexTask(
-                () -> {
-                    String groupWithVersion = groupWithArtifactWithVersion.substring(
-                        0,
-                        groupWithArtifactWithVersion.length() - version.length() - 1
-                    );
-                    Set<String> set = myData.groupWithArtifactToVersionMap.get(groupWithVersion);
-                    return set != null && set.contains(version);
-                },
-                false
-            );
-
-            myData.hasVersionCache.put(groupWithArtifactWithVersion, res);
-        }
+        final String groupWithArtifact = groupId + ":" + artifactId;
+        final String groupWithArtifactWithVersion = groupWithArtifact + ':' + version;
 
-        return res;
+        return doIndexTask(
+            () -> {
+                Boolean res = myData.hasVersionCache.get(groupWithArtifactWithVersion);
+                if (res == null) {
+                    Set<String> set = myData.groupWithArtifactToVersionMap.get(groupWithArtifact);
+                    res = set != null && set.contains(version);
+                    myData.hasVersionCache.put(groupWithArtifactWithVersion, res);
+                }
+                return res;
+            },
+            false
+        );
     }
 
-    private boolean hasValue(final PersistentHashMap<String, ?> map, Map<String, Boolean> cache, final String value) {
+    private static boolean hasValue(PersistentHashMap<String, ?> map, LookupCache cache, String value) throws IOException {
         Boolean res = cache.get(value);
         if (res == null) {
-            res = doIndexTask(() -> map.tryEnumerate(value) != 0, false);
-
+            res = map.tryEnumerate(value) != 0;
             cache.put(value, res);
         }
-
         return res;
     }
 
-    public synchronized Set<MavenArtifactInfo> search(final Query query, final int maxResult) {
+    public Set<MavenArtifactInfo> search(final Query query, final int maxResult) {
         if (myNotNexusIndexer != null) {
             return Collections.emptySet();
         }
@@ -636,26 +741,86 @@ public class MavenIndex {
         return doIndexTask(() -> myData.search(query, maxResult), Collections.<MavenArtifactInfo>emptySet());
     }
 
+    /**
+     * Searches the class table built at the last update.
+     *
+     * @param namePrefix       lower-case prefix of the simple names to look at
+     * @param classPathMatcher accepts the {@code /package/path/ClassName} of the classes to find
+     * @param maxResult        the number of class and artifact pairs to stop after
+     * @return the artifacts with their matching classes as class names, or null if this index has no class table yet
+     */
+    @Nullable
+    public Set<MavenArtifactInfo> searchClasses(@Nonnull String namePrefix, @Nonnull Predicate<String> classPathMatcher, int maxResult) {
+        if (myNotNexusIndexer != null) {
+            return Collections.emptySet();
+        }
+
+        return doIndexTask(() -> {
+            MavenClassNamesStore classNames = myData.classNames;
+            if (classNames == null) {
+                return null;
+            }
+
+            Map<String, StringBuilder> classesByCoordinate = new LinkedHashMap<>();
+            Set<String> found = new HashSet<>();
+            classNames.search(namePrefix, classPathMatcher, (classPath, coordinate) -> {
+                List<String> parts = MavenClassNamesStore.splitCoordinate(coordinate);
+                found.add(classPath + ' ' + parts.get(0) + ':' + parts.get(1));
+                classesByCoordinate.computeIfAbsent(coordinate, c -> new StringBuilder()).append(classPath).append('\n');
+                return found.size() <= maxResult;
+            });
+
+            Set<MavenArtifactInfo> result = new HashSet<>();
+            for (Map.Entry<String, StringBuilder> each : classesByCoordinate.entrySet()) {
+                List<String> parts = MavenClassNamesStore.splitCoordinate(each.getKey());
+                String packaging = parts.get(3).isEmpty() ? null : parts.get(3);
+                result.add(new MavenArtifactInfo(parts.get(0), parts.get(1), parts.get(2), packaging, null, each.getValue().toString(),
+                    myRepositoryPathOrUrl));
+            }
+            return result;
+        }, Collections.<MavenArtifactInfo>emptySet());
+    }
+
     private <T> T doIndexTask(IndexTask<T> task, T defaultValue) {
-        assert Thread.holdsLock(this);
+        return doIndexTask(task, defaultValue, myDataReadLock);
+    }
 
-        if (!isBroken) {
+    private <T> T doIndexTask(IndexTask<T> task, T defaultValue, Lock lock) {
+        IndexData failedData;
+        lock.lock();
+        try {
+            if (isBroken) {
+                return defaultValue;
+            }
+            failedData = myData;
             try {
                 return task.doTask();
             }
-            catch (Exception e1) {
-                MavenLog.LOG.warn(e1);
+            catch (Exception e) {
+                MavenLog.LOG.warn(e);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
 
+        myDataWriteLock.lock();
+        try {
+            // concurrent readers may have failed on the same data, repair it only once
+            if (myData == failedData && !isBroken) {
                 cleanupBrokenData();
                 try {
                     open();
                 }
-                catch (MavenIndexException e2) {
-                    MavenLog.LOG.warn(e2);
+                catch (MavenIndexException e) {
+                    MavenLog.LOG.warn(e);
                 }
+                markAsBroken();
             }
         }
-        markAsBroken();
+        finally {
+            myDataWriteLock.unlock();
+        }
         return defaultValue;
     }
 
@@ -673,17 +838,28 @@ public class MavenIndex {
     private class IndexData {
         final PersistentHashMap<String, Set<String>> groupToArtifactMap;
         final PersistentHashMap<String, Set<String>> groupWithArtifactToVersionMap;
+        // null until the tables are built for this data dir
+        @Nullable
+        volatile MavenCoordinatesStore coordinates;
+        // null until the class table is built for this data dir
+        @Nullable
+        volatile MavenClassNamesStore classNames;
+
+        final File dir;
 
-        final Map<String, Boolean> hasGroupCache = new HashMap<>();
-        final Map<String, Boolean> hasArtifactCache = new HashMap<>();
-        final Map<String, Boolean> hasVersionCache = new HashMap<>();
+        final LookupCache hasGroupCache = new LookupCache();
+        final LookupCache hasArtifactCache = new LookupCache();
+        final LookupCache hasVersionCache = new LookupCache();
 
         private final int indexId;
 
         public IndexData(File dir) throws MavenIndexException {
+            this.dir = dir;
             try {
                 groupToArtifactMap = createPersistentMap(new File(dir, ARTIFACT_IDS_MAP_FILE));
                 groupWithArtifactToVersionMap = createPersistentMap(new File(dir, VERSIONS_MAP_FILE));
+                coordinates = MavenCoordinatesStore.open(dir);
+                classNames = MavenClassNamesStore.open(dir);
 
                 indexId = createContext(getDataContextDir(dir), dir.getName());
             }
@@ -714,6 +890,8 @@ public class MavenIndex {
 
             safeClose(groupToArtifactMap, exceptions);
             safeClose(groupWithArtifactToVersionMap, exceptions);
+            safeClose(coordinates, exceptions);
+            safeClose(classNames, exceptions);
 
             if (exceptions[0] != null) {
                 throw exceptions[0];
@@ -748,6 +926,31 @@ public class MavenIndex {
         }
     }
 
+    /**
+     * Remembers lookup results for the highlighting and completion passes; arbitrary entries are dropped when it is full.
+     */
+    private static class LookupCache {
+        private static final int MAX_SIZE = 10_000;
+
+        private final ConcurrentHashMap<String, Boolean> myMap = new ConcurrentHashMap<>();
+
+        @Nullable
+        Boolean get(String key) {
+            return myMap.get(key);
+        }
+
+        void put(String key, boolean value) {
+            if (myMap.size() >= MAX_SIZE) {
+                Iterator<String> keys = myMap.keySet().iterator();
+                for (int i = 0; i < MAX_SIZE / 4 && keys.hasNext(); i++) {
+                    keys.next();
+                    keys.remove();
+                }
+            }
+            myMap.put(key, value);
+        }
+    }
+
     private static class SetDescriptor implements DataExternalizer<Set<String>> {
         @Override
         public void save(@Nonnull DataOutput s, Set<String> set) throws IOException {
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import consulo.util.io.FileUtil;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Groups key/value pairs by key with bounded memory: pairs are collected in chunks, each chunk is sorted and spilled
+ * to a run file, and the runs are merged at the end, so only one chunk and one key's values are in memory at a time.
+ */
+class MavenIndexEntriesSorter implements Closeable {
+    private static final int CHUNK_SIZE = Integer.getInteger("idea.maven.index.update.chunk", 200_000);
+    private static final int MAX_MERGED_RUNS = 64;
+    // sorts before any character of a key, so that 'key + SEPARATOR + value' orders by key first
+    private static final char SEPARATOR = '\u0000';
+
+    interface Consumer {
+        void consume(@Nonnull String key, @Nonnull Set<String> values) throws IOException;
+    }
+
+    private final String myName;
+    private final List<String> myChunk = new ArrayList<>();
+    private final Deque<File> myRuns = new ArrayDeque<>();
+    private File myRunsDir;
+    private int myRunsCount;
+
+    MavenIndexEntriesSorter(@Nonnull String name) {
+        myName = name;
+    }
+
+    void add(@Nonnull String key, @Nonnull String value) throws IOException {
+        myChunk.add(key + SEPARATOR + value);
+        if (myChunk.size() >= CHUNK_SIZE) {
+            spillChunk();
+        }
+    }
+
+    /**
+     * Passes every key with all of its values to the consumer, in key order.
+     */
+    void consume(@Nonnull Consumer consumer) throws IOException {
+        if (myRuns.isEmpty()) {
+            Collections.sort(myChunk);
+            consumeSorted(myChunk.iterator(), consumer);
+            myChunk.clear();
+            return;
+        }
+
+        if (!myChunk.isEmpty()) {
+            spillChunk();
+        }
+        try {
+            mergeRuns(consumer);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void mergeRuns(Consumer consumer) throws IOException {
+        while (myRuns.size() > MAX_MERGED_RUNS) {
+            List<File> runs = new ArrayList<>();
+            for (int i = 0; i < MAX_MERGED_RUNS; i++) {
+                runs.add(myRuns.pollFirst());
+            }
+            try (RunsMerger merger = new RunsMerger(runs)) {
+                myRuns.addLast(writeRun(merger));
+            }
+            for (File each : runs) {
+                FileUtil.delete(each);
+            }
+        }
+        try (RunsMerger merger = new RunsMerger(myRuns)) {
+            consumeSorted(merger, consumer);
+        }
+    }
+
+    @Override
+    public void close() {
+        myChunk.clear();
+        myRuns.clear();
+        if (myRunsDir != null) {
+            FileUtil.delete(myRunsDir);
+            myRunsDir = null;
+        }
+    }
+
+    private void spillChunk() throws IOException {
+        Collections.sort(myChunk);
+        myRuns.addLast(writeRun(myChunk.iterator()));
+        myChunk.clear();
+    }
+
+    private File writeRun(Iterator<String> sortedEntries) throws IOException {
+        if (myRunsDir == null) {
+            myRunsDir = Files.createTempDirectory("maven-index-" + myName).toFile();
+        }
+        File result = new File(myRunsDir, "run" + myRunsCount++);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(result)))) {
+            String previous = null;
+            while (sortedEntries.hasNext()) {
+                String each = sortedEntries.next();
+                if (!each.equals(previous)) {
+                    out.writeBoolean(true);
+                    out.writeUTF(each);
+                    previous = each;
+                }
+            }
+            out.writeBoolean(false);
+        }
+        return result;
+    }
+
+    private static void consumeSorted(Iterator<String> sortedEntries, Consumer consumer) throws IOException {
+        String currentKey = null;
+        Set<String> currentValues = null;
+        while (sortedEntries.hasNext()) {
+            String each = sortedEntries.next();
+            int separator = each.indexOf(SEPARATOR);
+            String key = each.substring(0, separator);
+            if (!key.equals(currentKey)) {
+                if (currentKey != null) {
+                    consumer.consume(currentKey, currentValues);
+                }
+                currentKey = key;
+                currentValues = new HashSet<>();
+            }
+            currentValues.add(each.substring(separator + 1));
+        }
+        if (currentKey != null) {
+            consumer.consume(currentKey, currentValues);
+        }
+    }
+
+    /**
+     * Iterates over the entries of several sorted runs in order.
+     */
+    private static class RunsMerger implements Iterator<String>, Closeable {
+        private final PriorityQueue<RunReader> myQueue = new PriorityQueue<>(Comparator.comparing((RunReader reader) -> reader.myCurrent));
+        private final List<RunReader> myReaders = new ArrayList<>();
+
+        RunsMerger(Collection<File> runs) throws IOException {
+            try {
+                for (File each : runs) {
+                    RunReader reader = new RunReader(each);
+                    myReaders.add(reader);
+                    if (reader.advance()) {
+                        myQueue.add(reader);
+                    }
+                }
+            }
+            catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !myQueue.isEmpty();
+        }
+
+        @Override
+        public String next() {
+            RunReader reader = myQueue.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            String result = reader.myCurrent;
+            try {
+                if (reader.advance()) {
+                    myQueue.add(reader);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            for (RunReader each : myReaders) {
+                try {
+                    each.myIn.close();
+                }
+                catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream myIn;
+        @Nullable
+        private String myCurrent;
+
+        RunReader(File file) throws IOException {
+            myIn = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        }
+
+        boolean advance() throws IOException {
+            myCurrent = myIn.readBoolean() ? myIn.readUTF() : null;
+            return myCurrent != null;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import consulo.maven.rt.server.common.model.MavenId;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Deduplicated union of the coordinates of the project indices and the project's own modules.
+ * <p>
+ * The merged group ids are rebuilt only when one of the indices reports a new modification count, re-reading just that index;
+ * artifact ids and versions are merged per key on first request and kept until the next change.
+ */
+class MavenMergedIndex {
+    private static final int MAX_CACHED_KEYS = 1000;
+    private static final long LOCAL_REPOSITORY_CHECK_INTERVAL = 5000;
+
+    private volatile Snapshot mySnapshot =
+        new Snapshot(Collections.emptyList(), new long[0], Collections.emptySet(), MavenSortedStringSet.EMPTY);
+    private final Map<MavenIndex, IndexGroupIds> myIndexGroupIds = new HashMap<>();
+
+    // file -> time it was last found missing
+    private final Map<File, Long> myLocalRepositoryMisses = new ConcurrentHashMap<>();
+
+    /**
+     * @param projectIds not modified afterwards, it is kept until a set that is not equal to it is passed
+     */
+    @Nonnull
+    MavenSortedStringSet getGroupIds(@Nonnull List<MavenIndex> indices, @Nonnull Set<MavenId> projectIds) {
+        return getSnapshot(indices, projectIds).myGroupIds;
+    }
+
+    @Nonnull
+    MavenSortedStringSet getArtifactIds(@Nonnull List<MavenIndex> indices, @Nonnull Set<MavenId> projectIds, @Nonnull String groupId) {
+        Snapshot snapshot = getSnapshot(indices, projectIds);
+        return snapshot.get(snapshot.myArtifactIds, groupId, key -> {
+            Set<String> result = new HashSet<>();
+            for (MavenId each : snapshot.myProjectIds) {
+                if (groupId.equals(each.getGroupId())) {
+                    result.add(each.getArtifactId());
+                }
+            }
+            for (MavenIndex each : snapshot.myIndices) {
+                result.addAll(each.getArtifactIds(groupId));
+            }
+            return MavenSortedStringSet.of(result);
+        });
+    }
+
+    @Nonnull
+    MavenSortedStringSet getVersions(
+        @Nonnull List<MavenIndex> indices,
+        @Nonnull Set<MavenId> projectIds,
+        @Nonnull String groupId,
+        @Nonnull String artifactId
+    ) {
+        Snapshot snapshot = getSnapshot(indices, projectIds);
+        return snapshot.get(snapshot.myVersions, groupId + ":" + artifactId, key -> {
+            Set<String> result = new HashSet<>();
+            for (MavenId each : snapshot.myProjectIds) {
+                if (groupId.equals(each.getGroupId()) && artifactId.equals(each.getArtifactId())) {
+                    result.add(each.getVersion());
+                }
+            }
+            for (MavenIndex each : snapshot.myIndices) {
+                result.addAll(each.getVersions(groupId, artifactId));
+            }
+            return MavenSortedStringSet.of(result);
+        });
+    }
+
+    /**
+     * @return the first {@code limit} group ids starting with {@code prefix}, in alphabetical order
+     */
+    @Nonnull
+    List<String> findGroupIds(@Nonnull List<MavenIndex> indices, @Nonnull Set<MavenId> projectIds, @Nonnull String prefix, int limit) {
+        return first(getGroupIds(indices, projectIds).withPrefix(prefix), limit);
+    }
+
+    /**
+     * @return the first {@code limit} artifact ids of the group starting with {@code prefix}, in alphabetical order
+     */
+    @Nonnull
+    List<String> findArtifactIds(
+        @Nonnull List<MavenIndex> indices,
+        @Nonnull Set<MavenId> projectIds,
+        @Nonnull String groupId,
+        @Nonnull String prefix,
+        int limit
+    ) {
+        Snapshot snapshot = getSnapshot(indices, projectIds);
+        MavenSortedStringSet cached = snapshot.myArtifactIds.get(groupId);
+        if (cached != null) {
+            return first(cached.withPrefix(prefix), limit);
+        }
+
+        // asks every index for its first matches only instead of merging all artifact ids of the group
+        Set<String> result = new HashSet<>();
+        for (MavenId each : snapshot.myProjectIds) {
+            if (groupId.equals(each.getGroupId()) && each.getArtifactId() != null && each.getArtifactId().startsWith(prefix)) {
+                result.add(each.getArtifactId());
+            }
+        }
+        for (MavenIndex each : snapshot.myIndices) {
+            result.addAll(each.findArtifactIds(groupId, prefix, limit));
+        }
+        return first(MavenSortedStringSet.of(result), limit);
+    }
+
+    /**
+     * @return the newest {@code limit} versions of the artifact starting with {@code prefix}, newest first
+     */
+    @Nonnull
+    List<String> findVersions(
+        @Nonnull List<MavenIndex> indices,
+        @Nonnull Set<MavenId> projectIds,
+        @Nonnull String groupId,
+        @Nonnull String artifactId,
+        @Nonnull String prefix,
+        int limit
+    ) {
+        Snapshot snapshot = getSnapshot(indices, projectIds);
+        Set<String> result = new HashSet<>();
+        for (MavenId each : snapshot.myProjectIds) {
+            if (groupId.equals(each.getGroupId()) && artifactId.equals(each.getArtifactId())
+                && each.getVersion() != null && each.getVersion().startsWith(prefix)) {
+                result.add(each.getVersion());
+            }
+        }
+        for (MavenIndex each : snapshot.myIndices) {
+            result.addAll(each.findVersions(groupId, artifactId, prefix, limit));
+        }
+        return MavenCoordinatesStore.selectNewestVersions(result, limit);
+    }
+
+    /**
+     * Only misses are remembered, and rechecked after a while; found files are checked every time, as they can be deleted or purged.
+     */
+    boolean existsInLocalRepository(@Nonnull File file) {
+        long now = System.currentTimeMillis();
+        Long lastMiss = myLocalRepositoryMisses.get(file);
+        if (lastMiss != null && lastMiss + LOCAL_REPOSITORY_CHECK_INTERVAL > now) {
+            return false;
+        }
+
+        if (file.exists()) {
+            myLocalRepositoryMisses.remove(file);
+            return true;
+        }
+        if (myLocalRepositoryMisses.size() >= MAX_CACHED_KEYS) {
+            myLocalRepositoryMisses.clear();
+        }
+        myLocalRepositoryMisses.put(file, now);
+        return false;
+    }
+
+    @Nonnull
+    private Snapshot getSnapshot(List<MavenIndex> indices, Set<MavenId> projectIds) {
+        Snapshot snapshot = mySnapshot;
+        if (snapshot.isUpToDate(indices, projectIds)) {
+            return snapshot;
+        }
+
+        synchronized (this) {
+            snapshot = mySnapshot;
+            if (snapshot.isUpToDate(indices, projectIds)) {
+                return snapshot;
+            }
+
+            long[] stamps = new long[indices.size()];
+            List<MavenSortedStringSet> sources = new ArrayList<>(indices.size() + 1);
+            for (int i = 0; i < indices.size(); i++) {
+                MavenIndex index = indices.get(i);
+                // the stamp is taken before reading, so an update running meanwhile causes another rebuild later
+                stamps[i] = index.getModificationCount();
+
+                IndexGroupIds groupIds = myIndexGroupIds.get(index);
+                if (groupIds == null || groupIds.myStamp != stamps[i]) {
+                    groupIds = new IndexGroupIds(stamps[i], MavenSortedStringSet.of(index.getGroupIds()));
+                    myIndexGroupIds.put(index, groupIds);
+                }
+                sources.add(groupIds.myGroupIds);
+            }
+            myIndexGroupIds.keySet().retainAll(new HashSet<>(indices));
+
+            Set<String> projectGroupIds = new HashSet<>();
+            for (MavenId each : projectIds) {
+                projectGroupIds.add(each.getGroupId());
+            }
+            sources.add(MavenSortedStringSet.of(projectGroupIds));
+
+            snapshot = new Snapshot(new ArrayList<>(indices), stamps, projectIds, merge(sources));
+            mySnapshot = snapshot;
+            return snapshot;
+        }
+    }
+
+    private static List<String> first(MavenSortedStringSet values, int limit) {
+        List<String> result = new ArrayList<>(Math.min(values.size(), limit));
+        for (String each : values) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(each);
+        }
+        return result;
+    }
+
+    static MavenSortedStringSet merge(List<MavenSortedStringSet> sources) {
+        int total = 0;
+        MavenSortedStringSet largest = MavenSortedStringSet.EMPTY;
+        for (MavenSortedStringSet each : sources) {
+            total += each.size();
+            if (each.size() > largest.size()) {
+                largest = each;
+            }
+        }
+        if (total == largest.size()) {
+            return largest;
+        }
+
+        List<String> all = new ArrayList<>(total);
+        for (MavenSortedStringSet each : sources) {
+            all.addAll(each);
+        }
+        return MavenSortedStringSet.of(all);
+    }
+
+    private static class IndexGroupIds {
+        private final long myStamp;
+        private final MavenSortedStringSet myGroupIds;
+
+        private IndexGroupIds(long stamp, MavenSortedStringSet groupIds) {
+            myStamp = stamp;
+            myGroupIds = groupIds;
+        }
+    }
+
+    private static class Snapshot {
+        private final List<MavenIndex> myIndices;
+        private final long[] myStamps;
+        private final Set<MavenId> myProjectIds;
+        private final MavenSortedStringSet myGroupIds;
+
+        private final Map<String, MavenSortedStringSet> myArtifactIds = new ConcurrentHashMap<>();
+        private final Map<String, MavenSortedStringSet> myVersions = new ConcurrentHashMap<>();
+
+        private Snapshot(List<MavenIndex> indices, long[] stamps, Set<MavenId> projectIds, MavenSortedStringSet groupIds) {
+            myIndices = indices;
+            myStamps = stamps;
+            myProjectIds = projectIds;
+            myGroupIds = groupIds;
+        }
+
+        private boolean isUpToDate(List<MavenIndex> indices, Set<MavenId> projectIds) {
+            if (indices.size() != myIndices.size()) {
+                return false;
+            }
+            for (int i = 0; i < myStamps.length; i++) {
+                MavenIndex index = indices.get(i);
+                if (index != myIndices.get(i) || index.getModificationCount() != myStamps[i]) {
+                    return false;
+                }
+            }
+            // the manager passes the same set until the projects change
+            return myProjectIds == projectIds || myProjectIds.equals(projectIds);
+        }
+
+        private MavenSortedStringSet get(
+            Map<String, MavenSortedStringSet> cache,
+            String key,
+            Function<String, MavenSortedStringSet> compute
+        ) {
+            MavenSortedStringSet result = cache.get(key);
+            if (result == null) {
+                result = compute.apply(key);
+                if (cache.size() >= MAX_CACHED_KEYS) {
+                    cache.clear();
+                }
+                cache.put(key, result);
+            }
+            return result;
+        }
+    }
+}
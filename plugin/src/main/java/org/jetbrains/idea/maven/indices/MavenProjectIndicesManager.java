@@ -41,13 +41,17 @@ import org.jetbrains.idea.maven.project.MavenProjectsTree;
 import org.jetbrains.idea.maven.utils.MavenMergingUpdateQueue;
 import org.jetbrains.idea.maven.utils.MavenSimpleProjectComponent;
 
+import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Singleton
 @ServiceAPI(value = ComponentScope.PROJECT, lazy = false)
@@ -55,6 +59,9 @@ import java.util.function.Consumer;
 public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     private volatile List<MavenIndex> myProjectIndices = new ArrayList<>();
     private final MergingUpdateQueue myUpdateQueue;
+    private final MavenMergedIndex myMergedIndex = new MavenMergedIndex();
+    // ids of the maven projects, null until requested after they changed
+    private volatile Set<MavenId> myProjectsIds;
 
     public static MavenProjectIndicesManager getInstance(Project p) {
         return p.getInstance(MavenProjectIndicesManager.class);
@@ -79,6 +86,7 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
         getMavenProjectManager().addManagerListener(new MavenProjectsManager.Listener() {
             @Override
             public void activated() {
+                myProjectsIds = null;
                 scheduleUpdateIndicesList();
             }
         });
@@ -86,6 +94,7 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
         getMavenProjectManager().addProjectsTreeListener(new MavenProjectsTree.Listener() {
             @Override
             public void projectsUpdated(List<Pair<MavenProject, MavenProjectChanges>> updated, List<MavenProject> deleted) {
+                myProjectsIds = null;
                 scheduleUpdateIndicesList();
             }
 
@@ -94,6 +103,7 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
                 Pair<MavenProject, MavenProjectChanges> projectWithChanges,
                 NativeMavenProjectHolder nativeMavenProject
             ) {
+                myProjectsIds = null;
                 scheduleUpdateIndicesList();
             }
         });
@@ -163,32 +173,43 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     }
 
     public Set<String> getGroupIds() {
-        Set<String> result = getProjectGroupIds();
-        for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getGroupIds());
-        }
-        return result;
+        return myMergedIndex.getGroupIds(myProjectIndices, getProjectsIds());
+    }
+
+    /**
+     * @return the first {@code limit} group ids starting with {@code prefix}, in alphabetical order
+     */
+    public List<String> getGroupIds(@Nonnull String prefix, int limit) {
+        return myMergedIndex.findGroupIds(myProjectIndices, getProjectsIds(), prefix, limit);
     }
 
     public Set<String> getArtifactIds(String groupId) {
-        Set<String> result = getProjectArtifactIds(groupId);
-        for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getArtifactIds(groupId));
-        }
-        return result;
+        return myMergedIndex.getArtifactIds(myProjectIndices, getProjectsIds(), groupId);
+    }
+
+    /**
+     * @return the first {@code limit} artifact ids of the group starting with {@code prefix}, in alphabetical order
+     */
+    public List<String> getArtifactIds(String groupId, @Nonnull String prefix, int limit) {
+        return myMergedIndex.findArtifactIds(myProjectIndices, getProjectsIds(), groupId, prefix, limit);
     }
 
     public Set<String> getVersions(String groupId, String artifactId) {
-        Set<String> result = getProjectVersions(groupId, artifactId);
-        for (MavenIndex each : myProjectIndices) {
-            result.addAll(each.getVersions(groupId, artifactId));
-        }
-        return result;
+        return myMergedIndex.getVersions(myProjectIndices, getProjectsIds(), groupId, artifactId);
+    }
+
+    /**
+     * @return the newest {@code limit} versions of the artifact starting with {@code prefix}, newest first
+     */
+    public List<String> getVersions(String groupId, String artifactId, @Nonnull String prefix, int limit) {
+        return myMergedIndex.findVersions(myProjectIndices, getProjectsIds(), groupId, artifactId, prefix, limit);
     }
 
     public boolean hasGroupId(String groupId) {
-        if (hasProjectGroupId(groupId)) {
-            return true;
+        for (MavenId each : getProjectsIds()) {
+            if (Objects.equals(groupId, each.getGroupId())) {
+                return true;
+            }
         }
         for (MavenIndex each : myProjectIndices) {
             if (each.hasGroupId(groupId)) {
@@ -213,12 +234,14 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
         }
         File file = new File(getLocalRepository(), relPath);
 
-        return file.exists();
+        return myMergedIndex.existsInLocalRepository(file);
     }
 
     public boolean hasArtifactId(String groupId, String artifactId) {
-        if (hasProjectArtifactId(groupId, artifactId)) {
-            return true;
+        for (MavenId each : getProjectsIds()) {
+            if (Objects.equals(groupId, each.getGroupId()) && Objects.equals(artifactId, each.getArtifactId())) {
+                return true;
+            }
         }
         for (MavenIndex each : myProjectIndices) {
             if (each.hasArtifactId(groupId, artifactId)) {
@@ -229,7 +252,7 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
     }
 
     public boolean hasVersion(String groupId, String artifactId, String version) {
-        if (hasProjectVersion(groupId, artifactId, version)) {
+        if (getProjectsIds().contains(new MavenId(groupId, artifactId, version))) {
             return true;
         }
         for (MavenIndex each : myProjectIndices) {
@@ -254,50 +277,42 @@ public class MavenProjectIndicesManager extends MavenSimpleProjectComponent {
         return result;
     }
 
-    private Set<String> getProjectGroupIds() {
-        Set<String> result = new HashSet<>();
-        for (MavenId each : getProjectsIds()) {
-            result.add(each.getGroupId());
-        }
-        return result;
-    }
+    /**
+     * Finds classes through the class tables of the indices, and through {@code fallbackQuery} in the indices updated before
+     * they had one.
+     */
+    public Set<MavenArtifactInfo> searchClasses(
+        String namePrefix,
+        Predicate<String> classPathMatcher,
+        Query fallbackQuery,
+        int maxResult
+    ) {
+        Set<MavenArtifactInfo> result = new HashSet<>();
 
-    private Set<String> getProjectArtifactIds(String groupId) {
-        Set<String> result = new HashSet<>();
-        for (MavenId each : getProjectsIds()) {
-            if (groupId.equals(each.getGroupId())) {
-                result.add(each.getArtifactId());
+        for (MavenIndex each : myProjectIndices) {
+            int remained = maxResult - result.size();
+            if (remained <= 0) {
+                break;
             }
+            Set<MavenArtifactInfo> found = each.searchClasses(namePrefix, classPathMatcher, remained);
+            result.addAll(found != null ? found : each.search(fallbackQuery, remained));
         }
-        return result;
-    }
 
-    private Set<String> getProjectVersions(String groupId, String artifactId) {
-        Set<String> result = new HashSet<>();
-        for (MavenId each : getProjectsIds()) {
-            if (groupId.equals(each.getGroupId()) && artifactId.equals(each.getArtifactId())) {
-                result.add(each.getVersion());
-            }
-        }
         return result;
     }
 
-    private boolean hasProjectGroupId(String groupId) {
-        return getProjectGroupIds().contains(groupId);
-    }
-
-    private boolean hasProjectArtifactId(String groupId, String artifactId) {
-        return getProjectArtifactIds(groupId).contains(artifactId);
-    }
-
-    private boolean hasProjectVersion(String groupId, String artifactId, String version) {
-        return getProjectVersions(groupId, artifactId).contains(version);
-    }
-
+    /**
+     * @return the same set until the projects change, so the merged index does not compare them on every call
+     */
     private Set<MavenId> getProjectsIds() {
-        Set<MavenId> result = new HashSet<>();
-        for (MavenProject each : MavenProjectsManager.getInstance(myProject).getProjects()) {
-            result.add(each.getMavenId());
+        Set<MavenId> result = myProjectsIds;
+        if (result == null) {
+            result = new HashSet<>();
+            for (MavenProject each : MavenProjectsManager.getInstance(myProject).getProjects()) {
+                result.add(each.getMavenId());
+            }
+            result = Collections.unmodifiableSet(result);
+            myProjectsIds = result;
         }
         return result;
     }
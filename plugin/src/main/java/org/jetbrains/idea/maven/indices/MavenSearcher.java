@@ -30,7 +30,7 @@ public abstract class MavenSearcher<RESULT_TYPE extends MavenArtifactSearchResul
         Pair<String, Query> patternAndQuery = preparePatternAndQuery(pattern);
 
         MavenProjectIndicesManager m = MavenProjectIndicesManager.getInstance(project);
-        Set<MavenArtifactInfo> infos = m.search(patternAndQuery.second, maxResult);
+        Set<MavenArtifactInfo> infos = searchInfos(m, patternAndQuery, maxResult);
 
         List<RESULT_TYPE> result = new ArrayList<>(processResults(infos, patternAndQuery.first, maxResult));
         sort(result);
@@ -39,6 +39,10 @@ public abstract class MavenSearcher<RESULT_TYPE extends MavenArtifactSearchResul
 
     protected abstract Pair<String, Query> preparePatternAndQuery(String pattern);
 
+    protected Set<MavenArtifactInfo> searchInfos(MavenProjectIndicesManager manager, Pair<String, Query> patternAndQuery, int maxResult) {
+        return manager.search(patternAndQuery.second, maxResult);
+    }
+
     protected abstract Collection<RESULT_TYPE> processResults(Set<MavenArtifactInfo> infos, String pattern, int maxResult);
 
     private void sort(List<RESULT_TYPE> result) {
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.*;
+
+/**
+ * Immutable set over a sorted array of distinct strings; prefix queries return views and do not copy.
+ */
+class MavenSortedStringSet extends AbstractSet<String> {
+    static final MavenSortedStringSet EMPTY = new MavenSortedStringSet(new String[0], 0, 0);
+
+    private final String[] myValues;
+    private final int myFrom;
+    private final int myTo;
+
+    private MavenSortedStringSet(String[] values, int from, int to) {
+        myValues = values;
+        myFrom = from;
+        myTo = to;
+    }
+
+    @Nonnull
+    static MavenSortedStringSet of(@Nonnull Collection<String> values) {
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+        String[] array = new String[values.size()];
+        int count = 0;
+        for (String each : values) {
+            if (each != null) {
+                array[count++] = each;
+            }
+        }
+        Arrays.sort(array, 0, count);
+
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (size == 0 || !array[i].equals(array[size - 1])) {
+                array[size++] = array[i];
+            }
+        }
+        return new MavenSortedStringSet(array, 0, size);
+    }
+
+    /**
+     * @return the values starting with {@code prefix}
+     */
+    @Nonnull
+    MavenSortedStringSet withPrefix(@Nonnull String prefix) {
+        if (prefix.isEmpty()) {
+            return this;
+        }
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        return from == to ? EMPTY : new MavenSortedStringSet(myValues, from, to);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        int index = lowerBound((String)o);
+        return index < myTo && myValues[index].equals(o);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<>() {
+            private int myIndex = myFrom;
+
+            @Override
+            public boolean hasNext() {
+                return myIndex < myTo;
+            }
+
+            @Override
+            public String next() {
+                if (myIndex >= myTo) {
+                    throw new NoSuchElementException();
+                }
+                return myValues[myIndex++];
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return myTo - myFrom;
+    }
+
+    @Nonnull
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOfRange(myValues, myFrom, myTo, Object[].class);
+    }
+
+    private int lowerBound(String value) {
+        int index = Arrays.binarySearch(myValues, myFrom, myTo, value);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.indices;
+
+import jakarta.annotation.Nonnull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Persistent table of sorted strings. The strings are front-coded in blocks and only the first string of every block
+ * is kept in memory, so a prefix query reads just the few blocks holding its matches, whatever the size of the table.
+ */
+class MavenSortedStringTable implements Closeable {
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 64;
+
+    interface Processor {
+        /**
+         * @return false to stop the iteration
+         */
+        boolean process(@Nonnull String value);
+    }
+
+    private final FileChannel myChannel;
+    private final String[] myBlockKeys;
+    // one more than the blocks, the last one is where the block index starts
+    private final long[] myBlockOffsets;
+
+    private MavenSortedStringTable(FileChannel channel, String[] blockKeys, long[] blockOffsets) {
+        myChannel = channel;
+        myBlockKeys = blockKeys;
+        myBlockOffsets = blockOffsets;
+    }
+
+    @Nonnull
+    static MavenSortedStringTable open(@Nonnull File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 4 + 4 + 8 || readInput(channel, 0, 4).readInt() != VERSION) {
+                throw new IOException("Unsupported table format: " + file);
+            }
+            long indexOffset = readInput(channel, size - 8, 8).readLong();
+            if (indexOffset < 4 || indexOffset > size - 8) {
+                throw new IOException("Corrupted table: " + file);
+            }
+
+            DataInputStream in = readInput(channel, indexOffset, (int)(size - 8 - indexOffset));
+            int blocks = in.readInt();
+            String[] blockKeys = new String[blocks];
+            long[] blockOffsets = new long[blocks + 1];
+            for (int i = 0; i < blocks; i++) {
+                blockKeys[i] = in.readUTF();
+                blockOffsets[i] = in.readLong();
+            }
+            blockOffsets[blocks] = indexOffset;
+            return new MavenSortedStringTable(channel, blockKeys, blockOffsets);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Nonnull
+    static Writer create(@Nonnull File file) throws IOException {
+        return new Writer(file);
+    }
+
+    void processAll(@Nonnull Processor processor) throws IOException {
+        processWithPrefix("", processor);
+    }
+
+    /**
+     * Passes the strings starting with {@code prefix} to the processor, in order.
+     */
+    void processWithPrefix(@Nonnull String prefix, @Nonnull Processor processor) throws IOException {
+        int index = Arrays.binarySearch(myBlockKeys, prefix);
+        // the first match is either the first string of the found block or inside the block before the insertion point
+        int block = index >= 0 ? index : Math.max(0, -index - 2);
+
+        for (; block < myBlockKeys.length; block++) {
+            for (String each : readBlock(block)) {
+                if (each.compareTo(prefix) < 0) {
+                    continue;
+                }
+                if (!each.startsWith(prefix) || !processor.process(each)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        myChannel.close();
+    }
+
+    private List<String> readBlock(int block) throws IOException {
+        long offset = myBlockOffsets[block];
+        DataInputStream in = readInput(myChannel, offset, (int)(myBlockOffsets[block + 1] - offset));
+
+        int count = in.readUnsignedByte();
+        List<String> result = new ArrayList<>(count);
+        String previous = "";
+        for (int i = 0; i < count; i++) {
+            int shared = in.readUnsignedShort();
+            previous = previous.substring(0, shared) + in.readUTF();
+            result.add(previous);
+        }
+        return result;
+    }
+
+    private static DataInputStream readInput(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            // positional reads do not move the channel position, so concurrent queries need no locking
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return new DataInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    /**
+     * Accepts strings in ascending order; repeated strings are skipped.
+     */
+    static class Writer implements Closeable {
+        private final DataOutputStream myOut;
+        private final ByteArrayOutputStream myBlock = new ByteArrayOutputStream();
+        private final DataOutputStream myBlockOut = new DataOutputStream(myBlock);
+        private final List<String> myBlockKeys = new ArrayList<>();
+        private final List<Long> myBlockOffsets = new ArrayList<>();
+        private long myOffset;
+        private int myBlockCount;
+        private String myPrevious;
+        private boolean myFinished;
+
+        private Writer(File file) throws IOException {
+            myOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+            myOut.writeInt(VERSION);
+            myOffset = 4;
+        }
+
+        void add(@Nonnull String value) throws IOException {
+            if (myPrevious != null) {
+                int order = value.compareTo(myPrevious);
+                if (order == 0) {
+                    return;
+                }
+                if (order < 0) {
+                    throw new IllegalArgumentException("Strings must be added in order: '" + value + "' after '" + myPrevious + "'");
+                }
+            }
+
+            int shared = 0;
+            if (myBlockCount == 0) {
+                myBlockKeys.add(value);
+                myBlockOffsets.add(myOffset);
+            }
+            else {
+                int max = Math.min(Math.min(value.length(), myPrevious.length()), 0xFFFF);
+                while (shared < max && value.charAt(shared) == myPrevious.charAt(shared)) {
+                    shared++;
+                }
+            }
+            myBlockOut.writeShort(shared);
+            myBlockOut.writeUTF(value.substring(shared));
+            myPrevious = value;
+
+            if (++myBlockCount == BLOCK_SIZE) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Writes the block index; the table can be opened afterwards.
+         */
+        void finish() throws IOException {
+            if (myBlockCount > 0) {
+                flushBlock();
+            }
+            myOut.writeInt(myBlockKeys.size());
+            for (int i = 0; i < myBlockKeys.size(); i++) {
+                myOut.writeUTF(myBlockKeys.get(i));
+                myOut.writeLong(myBlockOffsets.get(i));
+            }
+            myOut.writeLong(myOffset);
+            myFinished = true;
+            myOut.close();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!myFinished) {
+                myOut.close();
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            myOut.writeByte(myBlockCount);
+            myBlock.writeTo(myOut);
+            myOffset += 1 + myBlock.size();
+            myBlock.reset();
+            myBlockCount = 0;
+        }
+    }
+}
@@ -19,6 +19,7 @@ import consulo.application.Application;
 import consulo.application.ReadAction;
 import consulo.localize.LocalizeValue;
 import consulo.maven.rt.server.common.model.*;
+import consulo.maven.rt.server.common.server.MavenServerDownloadListener;
 import consulo.project.Project;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.LocalFileSystem;
@@ -37,6 +38,11 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class MavenArtifactDownloader {
+    // number of files the server transfers at once within one batch
+    private static final int DOWNLOAD_THREADS = Math.max(1, Integer.getInteger("idea.maven.download.threads", 5));
+    // artifacts resolved in one call; cancellation is checked between the calls
+    private static final int CHUNK_SIZE = 50;
+
     private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
         5, Integer.MAX_VALUE,
         1,
@@ -196,34 +202,61 @@ public class MavenArtifactDownloader {
         result.unresolvedSources.addAll(toDownload.keySet());
         result.unresolvedDocs.addAll(toDownload.keySet());
 
+        // artifacts with the same repositories are resolved in one call, so the server can transfer them in parallel
+        Map<List<MavenRemoteRepository>, DownloadBatch> batches = new LinkedHashMap<>();
+        for (Map.Entry<MavenId, DownloadData> eachEntry : toDownload.entrySet()) {
+            DownloadData data = eachEntry.getValue();
+            DownloadBatch batch = batches.computeIfAbsent(new ArrayList<>(data.repositories), repositories -> new DownloadBatch());
+            for (DownloadElement eachElement : data.classifiersWithExtensions) {
+                batch.infos.add(new MavenArtifactInfo(eachEntry.getKey(), eachElement.extension, eachElement.classifier));
+                batch.ids.add(eachEntry.getKey());
+                batch.elements.add(eachElement);
+            }
+        }
+
+        final int finalTotal = total;
+
         try {
-            for (final Map.Entry<MavenId, DownloadData> eachEntry : toDownload.entrySet()) {
+            for (final Map.Entry<List<MavenRemoteRepository>, DownloadBatch> eachEntry : batches.entrySet()) {
                 myProgress.checkCanceled();
 
-                final DownloadData data = eachEntry.getValue();
-                final MavenId id = eachEntry.getKey();
+                final List<MavenRemoteRepository> repositories = eachEntry.getKey();
+                final DownloadBatch batch = eachEntry.getValue();
 
-                for (final DownloadElement eachElement : data.classifiersWithExtensions) {
-                    final int finalTotal = total;
-                    futures.add(EXECUTOR.submit((Runnable)() -> {
-                        try {
-                            if (myProject.isDisposed()) {
-                                return;
-                            }
+                futures.add(EXECUTOR.submit((Runnable)() -> {
+                    try {
+                        if (myProject.isDisposed()) {
+                            return;
+                        }
 
+                        for (int start = 0; start < batch.infos.size(); start += CHUNK_SIZE) {
                             myProgress.checkCanceled();
-                            myProgress.setFraction(((double)downloaded.getAndIncrement()) / finalTotal);
-
-                            MavenArtifact a = myEmbedder.resolve(
-                                new MavenArtifactInfo(id, eachElement.extension, eachElement.classifier),
-                                new ArrayList<>(data.repositories)
-                            );
-                            File file = a.getFile();
-                            if (file.exists()) {
+
+                            int end = Math.min(start + CHUNK_SIZE, batch.infos.size());
+                            AtomicInteger chunkDownloaded = new AtomicInteger();
+                            MavenServerDownloadListener listener = (file, relativePath) -> {
+                                chunkDownloaded.incrementAndGet();
+                                myProgress.setText2(relativePath);
+                                myProgress.setFraction(Math.min(1, ((double)downloaded.incrementAndGet()) / finalTotal));
+                            };
+
+                            // copied, the view of the list is not serializable
+                            List<MavenArtifactInfo> chunk = new ArrayList<>(batch.infos.subList(start, end));
+                            List<MavenArtifact> artifacts = myEmbedder.resolveArtifacts(chunk, repositories, DOWNLOAD_THREADS, listener);
+                            // the artifacts that were not found are done too
+                            int notDownloaded = Math.max(0, end - start - chunkDownloaded.get());
+                            myProgress.setFraction(Math.min(1, ((double)downloaded.addAndGet(notDownloaded)) / finalTotal));
+
+                            for (int i = 0; i < artifacts.size(); i++) {
+                                File file = artifacts.get(i).getFile();
+                                if (!file.exists()) {
+                                    continue;
+                                }
+                                MavenId id = batch.ids.get(start + i);
                                 synchronized (downloadedFiles) {
                                     downloadedFiles.add(file);
 
-                                    switch (eachElement.type) {
+                                    switch (batch.elements.get(start + i).type) {
                                         case SOURCES:
                                             result.resolvedSources.add(id);
                                             result.unresolvedSources.remove(id);
@@ -236,10 +269,10 @@ public class MavenArtifactDownloader {
                                 }
                             }
                         }
-                        catch (MavenProcessCanceledException ignore) {
-                        }
-                    }));
-                }
+                    }
+                    catch (MavenProcessCanceledException ignore) {
+                    }
+                }));
             }
         }
         finally {
@@ -256,6 +289,12 @@ public class MavenArtifactDownloader {
         return result;
     }
 
+    private static class DownloadBatch {
+        public final List<MavenArtifactInfo> infos = new ArrayList<>();
+        public final List<MavenId> ids = new ArrayList<>();
+        public final List<DownloadElement> elements = new ArrayList<>();
+    }
+
     private static class DownloadData {
         public final LinkedHashSet<MavenRemoteRepository> repositories = new LinkedHashSet<>();
         public final LinkedHashSet<DownloadElement> classifiersWithExtensions = new LinkedHashSet<>();
@@ -18,6 +18,7 @@ package org.jetbrains.idea.maven.project;
 import consulo.project.Project;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.dataholder.Key;
+import consulo.util.lang.Pair;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.idea.maven.server.MavenEmbedderWrapper;
 import org.jetbrains.idea.maven.server.MavenServerManager;
@@ -38,9 +39,12 @@ public class MavenEmbeddersManager {
     // will always regardless to 'work offline' setting
     public static final Key FOR_DOWNLOAD = Key.create(MavenEmbeddersManager.class + ".FOR_DOWNLOAD");
 
+    // how many embedders of the same kind may be pooled and used concurrently, e.g. to resolve independent roots in parallel
+    private static final int POOL_SIZE_PER_KIND = Math.max(1, Integer.getInteger("idea.maven.embedders.per.kind", 1));
+
     private final Project myProject;
 
-    private final Map<Key, MavenEmbedderWrapper> myPool = ContainerUtil.createSoftValueMap();
+    private final Map<Pair<Key, Integer>, MavenEmbedderWrapper> myPool = ContainerUtil.createSoftValueMap();
     private final Set<MavenEmbedderWrapper> myEmbeddersInUse = new HashSet<MavenEmbedderWrapper>();
     private final Set<MavenEmbedderWrapper> myEmbeddersToClear = new HashSet<MavenEmbedderWrapper>();
 
@@ -63,23 +67,32 @@ public class MavenEmbeddersManager {
         myEmbeddersToClear.addAll(myEmbeddersInUse);
     }
 
+    public int getPoolSizePerKind() {
+        return POOL_SIZE_PER_KIND;
+    }
+
     @Nonnull
     public synchronized MavenEmbedderWrapper getEmbedder(Key kind) {
-        MavenEmbedderWrapper result = myPool.get(kind);
         boolean alwaysOnline = kind == FOR_DOWNLOAD;
 
-        if (result == null) {
-            result = MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
-            myPool.put(kind, result);
-        }
+        for (int slot = 0; slot < POOL_SIZE_PER_KIND; slot++) {
+            Pair<Key, Integer> poolKey = Pair.create(kind, slot);
+            MavenEmbedderWrapper result = myPool.get(poolKey);
+
+            if (result == null) {
+                result = MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
+                myPool.put(poolKey, result);
+            }
+            else if (myEmbeddersInUse.contains(result)) {
+                continue;
+            }
 
-        if (myEmbeddersInUse.contains(result)) {
-            MavenLog.LOG.warn("embedder " + kind + " is already used");
-            return MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
+            myEmbeddersInUse.add(result);
+            return result;
         }
 
-        myEmbeddersInUse.add(result);
-        return result;
+        MavenLog.LOG.warn("embedder " + kind + " is already used");
+        return MavenServerManager.getInstance().createEmbedder(myProject, alwaysOnline);
     }
 
     public synchronized void release(@Nonnull MavenEmbedderWrapper embedder) {
@@ -121,7 +134,7 @@ public class MavenEmbeddersManager {
     }
 
     private void forEachPooled(boolean includeInUse, Function<MavenEmbedderWrapper, ?> func) {
-        for (Key each : myPool.keySet()) {
+        for (Pair<Key, Integer> each : myPool.keySet()) {
             MavenEmbedderWrapper embedder = myPool.get(each);
             if (embedder == null) {
                 continue; // collected
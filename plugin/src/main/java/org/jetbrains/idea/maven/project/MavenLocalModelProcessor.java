@@ -0,0 +1,359 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.*;
+import consulo.maven.rt.server.common.server.ProfileApplicationResult;
+import consulo.util.lang.StringUtil;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.idea.maven.server.MavenServerManager;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Answers the calls of the reader the Maven 3 server would answer without Maven, sparing a remote call per POM:
+ * <ul>
+ * <li>interpolating a model without expressions only aligns its paths to the base directory;</li>
+ * <li>applying profiles when none of them can be activated only lists the disabled ones.</li>
+ * </ul>
+ * Any other model is passed to the server.
+ */
+class MavenLocalModelProcessor {
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("idea.maven.local.model.processing"));
+
+    private static final CannotProcessException CANNOT_PROCESS = new CannotProcessException();
+
+    private final boolean myEnabled;
+
+    MavenLocalModelProcessor(boolean enabled) {
+        myEnabled = enabled;
+    }
+
+    @Nonnull
+    static MavenLocalModelProcessor create() {
+        if (!ENABLED) {
+            return new MavenLocalModelProcessor(false);
+        }
+        String mavenVersion = MavenServerManager.getInstance().getCurrentMavenVersion();
+        // the Maven 4 server converts models differently
+        return new MavenLocalModelProcessor(mavenVersion == null || StringUtil.compareVersionNumbers(mavenVersion, "4.0") < 0);
+    }
+
+    @Nonnull
+    MavenModel interpolateAndAlignModel(@Nonnull MavenModel model, @Nonnull File basedir) {
+        MavenModel result = interpolateAndAlignModelLocally(model, basedir);
+        return result != null ? result : MavenServerManager.getInstance().interpolateAndAlignModel(model, basedir);
+    }
+
+    @Nonnull
+    ProfileApplicationResult applyProfiles(
+        @Nonnull MavenModel model,
+        @Nonnull File basedir,
+        @Nonnull MavenExplicitProfiles explicitProfiles,
+        @Nonnull Collection<String> alwaysOnProfiles
+    ) {
+        ProfileApplicationResult result = applyProfilesLocally(model, explicitProfiles, alwaysOnProfiles);
+        return result != null ? result : MavenServerManager.getInstance().applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
+    }
+
+    /**
+     * @return null if the model has to be processed by the server
+     */
+    @Nullable
+    MavenModel interpolateAndAlignModelLocally(@Nonnull MavenModel model, @Nonnull File basedir) {
+        // the server resolves a relative base directory against its own working directory
+        if (!myEnabled || !basedir.isAbsolute()) {
+            return null;
+        }
+        try {
+            checkNoExpressions(model);
+            MavenModel result = copy(model);
+            alignToBaseDirectory(result.getBuild(), basedir);
+            return result;
+        }
+        catch (CannotProcessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return null if the model has to be processed by the server
+     */
+    @Nullable
+    ProfileApplicationResult applyProfilesLocally(
+        @Nonnull MavenModel model,
+        @Nonnull MavenExplicitProfiles explicitProfiles,
+        @Nonnull Collection<String> alwaysOnProfiles
+    ) {
+        if (!myEnabled) {
+            return null;
+        }
+        Set<String> deactivated = new HashSet<>();
+        for (MavenProfile each : model.getProfiles()) {
+            if (explicitProfiles.getDisabledProfiles().contains(each.getId())) {
+                deactivated.add(each.getId());
+                continue;
+            }
+            // an activated profile is injected into the model, which is left to the server
+            if (each.getActivation() != null
+                || explicitProfiles.getEnabledProfiles().contains(each.getId())
+                || alwaysOnProfiles.contains(each.getId())) {
+                return null;
+            }
+        }
+        try {
+            return new ProfileApplicationResult(copy(model), new MavenExplicitProfiles(new HashSet<>(), deactivated));
+        }
+        catch (CannotProcessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Copies what the server keeps of the model when converting it to a Maven model and back.
+     */
+    private static MavenModel copy(MavenModel model) {
+        MavenId id = model.getMavenId();
+        MavenBuild build = model.getBuild();
+        // the server fails on more than one source root, and drops the parts of the model the reader does not fill in
+        if (id == null
+            || build.getSources().size() > 1
+            || build.getTestSources().size() > 1
+            || !build.getMavenSources().isEmpty()
+            || !model.getPlugins().isEmpty()
+            || !model.getExtensions().isEmpty()
+            || !model.getDependencies().isEmpty()
+            || !model.getDependencyTree().isEmpty()
+            || !model.getRemoteRepositories().isEmpty()) {
+            throw CANNOT_PROCESS;
+        }
+
+        MavenModel result = new MavenModel();
+        result.setMavenId(new MavenId(id.getGroupId(), id.getArtifactId(), id.getVersion()));
+        MavenParent parent = model.getParent();
+        if (parent != null) {
+            MavenId parentId = parent.getMavenId();
+            result.setParent(new MavenParent(
+                new MavenId(parentId.getGroupId(), parentId.getArtifactId(), parentId.getVersion()),
+                parent.getRelativePath()
+            ));
+        }
+        result.setPackaging(model.getPackaging());
+        result.setName(model.getName());
+
+        Properties properties = new Properties();
+        properties.putAll(model.getProperties());
+        result.setProperties(properties);
+        result.setModules(copyList(model.getModules()));
+
+        copyBuildBase(build, result.getBuild());
+        result.getBuild().setOutputDirectory(build.getOutputDirectory());
+        result.getBuild().setTestOutputDirectory(build.getTestOutputDirectory());
+        result.getBuild().setSources(copyList(build.getSources()));
+        result.getBuild().setTestSources(copyList(build.getTestSources()));
+
+        List<MavenProfile> profiles = new ArrayList<>(model.getProfiles().size());
+        for (MavenProfile each : model.getProfiles()) {
+            // the server drops profiles without an id, and sends back neither their properties nor their plugins
+            if (each.getId() == null) {
+                continue;
+            }
+            MavenProfile profile = new MavenProfile(each.getId(), each.getSource());
+            profile.setActivation(each.getActivation() == null ? null : each.getActivation().clone());
+            profile.setModules(copyList(each.getModules()));
+            copyBuildBase(each.getBuild(), profile.getBuild());
+            profiles.add(profile);
+        }
+        result.setProfiles(profiles);
+        return result;
+    }
+
+    private static void copyBuildBase(MavenBuildBase from, MavenBuildBase to) {
+        to.setFinalName(from.getFinalName());
+        to.setDefaultGoal(from.getDefaultGoal());
+        to.setDirectory(from.getDirectory());
+        to.setFilters(copyList(from.getFilters()));
+        to.setResources(copyResources(from.getResources()));
+        to.setTestResources(copyResources(from.getTestResources()));
+    }
+
+    private static List<MavenResource> copyResources(List<MavenResource> resources) {
+        List<MavenResource> result = new ArrayList<>(resources.size());
+        for (MavenResource each : resources) {
+            result.add(new MavenResource(
+                each.getDirectory(),
+                each.isFiltered(),
+                each.getTargetPath(),
+                copyList(each.getIncludes()),
+                copyList(each.getExcludes())
+            ));
+        }
+        return result;
+    }
+
+    private static List<String> copyList(@Nullable List<String> list) {
+        return list == null ? new ArrayList<>() : new ArrayList<>(list);
+    }
+
+    /**
+     * Fails on any value the server's interpolator could change.
+     */
+    private static void checkNoExpressions(MavenModel model) {
+        MavenId id = model.getMavenId();
+        if (id != null) {
+            checkNoExpressions(id.getGroupId(), id.getArtifactId(), id.getVersion());
+        }
+        MavenParent parent = model.getParent();
+        if (parent != null) {
+            MavenId parentId = parent.getMavenId();
+            checkNoExpressions(parentId.getGroupId(), parentId.getArtifactId(), parentId.getVersion(), parent.getRelativePath());
+        }
+        checkNoExpressions(model.getPackaging(), model.getName());
+        checkNoExpressionsInModelBase(model);
+
+        MavenBuild build = model.getBuild();
+        checkNoExpressionsInBuildBase(build);
+        checkNoExpressions(build.getOutputDirectory(), build.getTestOutputDirectory());
+        checkNoExpressions(build.getSources());
+        checkNoExpressions(build.getTestSources());
+
+        for (MavenProfile each : model.getProfiles()) {
+            checkNoExpressions(each.getId(), each.getSource());
+            checkNoExpressionsInModelBase(each);
+            checkNoExpressionsInBuildBase(each.getBuild());
+            MavenProfileActivation activation = each.getActivation();
+            if (activation != null) {
+                checkNoExpressions(activation.getJdk());
+                MavenProfileActivationOS os = activation.getOs();
+                if (os != null) {
+                    checkNoExpressions(os.getName(), os.getFamily(), os.getArch(), os.getVersion());
+                }
+                MavenProfileActivationFile file = activation.getFile();
+                if (file != null) {
+                    checkNoExpressions(file.getExists(), file.getMissing());
+                }
+                MavenProfileActivationProperty property = activation.getProperty();
+                if (property != null) {
+                    checkNoExpressions(property.getName(), property.getValue());
+                }
+            }
+        }
+    }
+
+    private static void checkNoExpressionsInModelBase(MavenModelBase modelBase) {
+        checkNoExpressions(modelBase.getModules());
+        for (Map.Entry<Object, Object> each : modelBase.getProperties().entrySet()) {
+            if (!(each.getKey() instanceof String key) || !(each.getValue() instanceof String value)) {
+                throw CANNOT_PROCESS;
+            }
+            checkNoExpressions(key, value);
+        }
+    }
+
+    private static void checkNoExpressionsInBuildBase(MavenBuildBase build) {
+        checkNoExpressions(build.getFinalName(), build.getDefaultGoal(), build.getDirectory());
+        checkNoExpressions(build.getFilters());
+        checkNoExpressionsInResources(build.getResources());
+        checkNoExpressionsInResources(build.getTestResources());
+    }
+
+    private static void checkNoExpressionsInResources(List<MavenResource> resources) {
+        for (MavenResource each : resources) {
+            checkNoExpressions(each.getDirectory(), each.getTargetPath());
+            checkNoExpressions(each.getIncludes());
+            checkNoExpressions(each.getExcludes());
+        }
+    }
+
+    private static void checkNoExpressions(@Nullable List<String> values) {
+        if (values != null) {
+            checkNoExpressions(values.toArray(new String[0]));
+        }
+    }
+
+    private static void checkNoExpressions(String... values) {
+        for (String each : values) {
+            if (each != null && each.contains("${")) {
+                throw CANNOT_PROCESS;
+            }
+        }
+    }
+
+    /**
+     * Mirrors the server's path translator, which aligns the build but not the builds of the profiles.
+     */
+    private static void alignToBaseDirectory(MavenBuild build, File basedir) {
+        build.setDirectory(alignToBaseDirectory(build.getDirectory(), basedir));
+        build.setSources(alignToBaseDirectory(build.getSources(), basedir));
+        build.setTestSources(alignToBaseDirectory(build.getTestSources(), basedir));
+        build.setResources(alignResources(build.getResources(), basedir));
+        build.setTestResources(alignResources(build.getTestResources(), basedir));
+        build.setFilters(alignToBaseDirectory(build.getFilters(), basedir));
+        build.setOutputDirectory(alignToBaseDirectory(build.getOutputDirectory(), basedir));
+        build.setTestOutputDirectory(alignToBaseDirectory(build.getTestOutputDirectory(), basedir));
+    }
+
+    private static List<MavenResource> alignResources(List<MavenResource> resources, File basedir) {
+        List<MavenResource> result = new ArrayList<>(resources.size());
+        for (MavenResource each : resources) {
+            result.add(new MavenResource(
+                alignToBaseDirectory(each.getDirectory(), basedir),
+                each.isFiltered(),
+                each.getTargetPath(),
+                each.getIncludes(),
+                each.getExcludes()
+            ));
+        }
+        return result;
+    }
+
+    private static List<String> alignToBaseDirectory(List<String> paths, File basedir) {
+        List<String> result = new ArrayList<>(paths.size());
+        for (String each : paths) {
+            result.add(alignToBaseDirectory(each, basedir));
+        }
+        return result;
+    }
+
+    @Nullable
+    private static String alignToBaseDirectory(@Nullable String path, File basedir) {
+        if (path == null) {
+            return null;
+        }
+        File file = new File(path.trim());
+        if (file.isAbsolute()) {
+            return file.getPath();
+        }
+        if (file.getPath().startsWith(File.separator)) {
+            // a drive-relative Windows path, which depends on the current drive of the server
+            throw CANNOT_PROCESS;
+        }
+        try {
+            return new File(new File(basedir, file.getPath()).toURI().normalize()).getAbsolutePath();
+        }
+        catch (IllegalArgumentException e) {
+            throw CANNOT_PROCESS;
+        }
+    }
+
+    private static class CannotProcessException extends RuntimeException {
+        private CannotProcessException() {
+            super(null, null, false, false);
+        }
+    }
+}
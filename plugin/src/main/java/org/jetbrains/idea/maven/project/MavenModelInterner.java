@@ -0,0 +1,159 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import consulo.maven.rt.server.common.model.MavenArtifactNode;
+import consulo.maven.rt.server.common.model.MavenId;
+
+import jakarta.annotation.Nullable;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Canonicalizes artifacts, ids and their strings, so that every maven project referencing
+ * e.g. {@code org.slf4j:slf4j-api:1.7.36} shares a single instance instead of its own copy received from the embedder.
+ * <p>
+ * Entries are weakly held and disappear once no project references them anymore.
+ */
+final class MavenModelInterner {
+    private static final Map<Object, WeakReference<Object>> ourPool = new WeakHashMap<>();
+
+    private MavenModelInterner() {
+    }
+
+    @Nullable
+    static String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        synchronized (ourPool) {
+            String existing = find(value);
+            if (existing != null) {
+                return existing;
+            }
+            ourPool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    @Nullable
+    static MavenId intern(@Nullable MavenId id) {
+        if (id == null) {
+            return null;
+        }
+        synchronized (ourPool) {
+            MavenId existing = find(id);
+            if (existing != null) {
+                return existing;
+            }
+            MavenId result = new MavenId(intern(id.getGroupId()), intern(id.getArtifactId()), intern(id.getVersion()));
+            ourPool.put(result, new WeakReference<>(result));
+            return result;
+        }
+    }
+
+    @Nullable
+    static MavenArtifact intern(@Nullable MavenArtifact artifact) {
+        if (artifact == null) {
+            return null;
+        }
+        synchronized (ourPool) {
+            // MavenArtifact.equals ignores the optional/resolved flags, so an artifact differing only in them replaces the pooled one
+            MavenArtifact existing = find(artifact);
+            if (existing != null) {
+                if (existing.isOptional() == artifact.isOptional()
+                    && existing.isMarkedResolved() == artifact.isMarkedResolved()
+                    && existing.isStubbed() == artifact.isStubbed()) {
+                    return existing;
+                }
+                ourPool.remove(existing);
+            }
+            MavenArtifact result = new MavenArtifact(
+                intern(artifact.getGroupId()),
+                intern(artifact.getArtifactId()),
+                intern(artifact.getVersion()),
+                intern(artifact.getBaseVersion()),
+                intern(artifact.getType()),
+                intern(artifact.getClassifier()),
+                intern(artifact.getScope()),
+                artifact.isOptional(),
+                intern(artifact.getExtension()),
+                new File(intern(artifact.getFile().getPath())),
+                null,
+                artifact.isMarkedResolved(),
+                artifact.isStubbed()
+            );
+            ourPool.put(result, new WeakReference<>(result));
+            return result;
+        }
+    }
+
+    static List<MavenId> internIds(Collection<MavenId> ids) {
+        List<MavenId> result = new ArrayList<>(ids.size());
+        for (MavenId each : ids) {
+            result.add(intern(each));
+        }
+        return result;
+    }
+
+    static List<MavenArtifact> internArtifacts(Collection<MavenArtifact> artifacts) {
+        List<MavenArtifact> result = new ArrayList<>(artifacts.size());
+        for (MavenArtifact each : artifacts) {
+            result.add(intern(each));
+        }
+        return result;
+    }
+
+    /**
+     * Nodes keep a reference to their parent and are therefore copied per project, only their artifacts are shared.
+     */
+    @Nullable
+    static List<MavenArtifactNode> internDependencyTree(@Nullable List<MavenArtifactNode> nodes) {
+        return internNodes(nodes, null);
+    }
+
+    @Nullable
+    private static List<MavenArtifactNode> internNodes(@Nullable List<MavenArtifactNode> nodes, @Nullable MavenArtifactNode parent) {
+        if (nodes == null) {
+            return null;
+        }
+        List<MavenArtifactNode> result = new ArrayList<>(nodes.size());
+        for (MavenArtifactNode each : nodes) {
+            MavenArtifactNode node = new MavenArtifactNode(
+                parent,
+                intern(each.getArtifact()),
+                each.getState(),
+                intern(each.getRelatedArtifact()),
+                intern(each.getOriginalScope()),
+                intern(each.getPremanagedVersion()),
+                intern(each.getPremanagedScope())
+            );
+            node.setDependencies(internNodes(each.getDependencies(), node));
+            result.add(node);
+        }
+        return result;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <T> T find(T value) {
+        WeakReference<Object> ref = ourPool.get(value);
+        return ref == null ? null : (T)ref.get();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenArtifact;
+import consulo.maven.rt.server.common.model.MavenId;
+import consulo.maven.rt.server.common.model.MavenPlugin;
+import consulo.maven.rt.server.common.model.MavenRemoteRepository;
+import jakarta.annotation.Nonnull;
+import org.jetbrains.idea.maven.utils.MavenProcessCanceledException;
+import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Plugins resolved for the projects of one sync, so a plugin the projects share, with the same dependencies and from the same
+ * repositories, is resolved by the embedder once and its artifacts are given to every project that declares it.
+ * A new instance is used once the projects are read again.
+ */
+public class MavenPluginsResolver {
+    interface Resolution {
+        @Nonnull
+        Collection<MavenArtifact> resolve() throws MavenProcessCanceledException;
+    }
+
+    private record PluginKey(MavenId pluginId, List<MavenId> dependencies, List<String> repositories) {
+    }
+
+    private final ConcurrentHashMap<PluginKey, CompletableFuture<Collection<MavenArtifact>>> myResults = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolution resolves the plugin with the embedder; called unless the plugin was already resolved or is being resolved
+     *                   for another project, whose result is waited for then
+     * @param indicator  checked for cancellation while waiting for another project's result
+     */
+    @Nonnull
+    Collection<MavenArtifact> resolve(
+        @Nonnull MavenPlugin plugin,
+        @Nonnull List<MavenRemoteRepository> repositories,
+        @Nonnull MavenProgressIndicator indicator,
+        @Nonnull Resolution resolution
+    ) throws MavenProcessCanceledException {
+        PluginKey key = createKey(plugin, repositories);
+        while (true) {
+            CompletableFuture<Collection<MavenArtifact>> future = new CompletableFuture<>();
+            CompletableFuture<Collection<MavenArtifact>> existing = myResults.putIfAbsent(key, future);
+            if (existing == null) {
+                return doResolve(key, future, resolution);
+            }
+
+            try {
+                return await(existing, indicator);
+            }
+            catch (ExecutionException | CancellationException e) {
+                // the project it was resolved for was cancelled or failed, the plugin is resolved again for this one
+                myResults.remove(key, existing);
+            }
+        }
+    }
+
+    private static Collection<MavenArtifact> await(CompletableFuture<Collection<MavenArtifact>> future, MavenProgressIndicator indicator)
+        throws ExecutionException, MavenProcessCanceledException {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException ignored) {
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MavenProcessCanceledException();
+            }
+        }
+    }
+
+    private Collection<MavenArtifact> doResolve(
+        PluginKey key,
+        CompletableFuture<Collection<MavenArtifact>> future,
+        Resolution resolution
+    ) throws MavenProcessCanceledException {
+        try {
+            Collection<MavenArtifact> result = resolution.resolve();
+            future.complete(result);
+            return result;
+        }
+        catch (MavenProcessCanceledException | RuntimeException | Error e) {
+            myResults.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static PluginKey createKey(MavenPlugin plugin, List<MavenRemoteRepository> repositories) {
+        // the repositories are compared by url too, their equals only compares ids
+        List<String> repositoryKeys = new ArrayList<>(repositories.size());
+        for (MavenRemoteRepository each : repositories) {
+            repositoryKeys.add(each.getId() + ' ' + each.getUrl());
+        }
+        List<MavenId> dependencies = plugin.getDependencies() == null ? List.of() : new ArrayList<>(plugin.getDependencies());
+        return new PluginKey(plugin.getMavenId(), dependencies, repositoryKeys);
+    }
+}
@@ -21,7 +21,6 @@ import consulo.process.cmd.ParametersList;
 import consulo.project.Project;
 import consulo.util.collection.ContainerUtil;
 import consulo.util.dataholder.Key;
-import consulo.util.io.BufferExposingByteArrayOutputStream;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.Comparing;
 import consulo.util.lang.Couple;
@@ -61,50 +60,23 @@ public class MavenProject {
     }
 
     @Nullable
-    public static MavenProject read(DataInputStream in) throws IOException {
-        String path = in.readUTF();
-        int length = in.readInt();
-        byte[] bytes = new byte[length];
-        in.readFully(bytes);
+    static MavenProject read(@Nonnull MavenProjectStateCodec.Input in) throws IOException {
+        String path = in.readString();
+        State state = MavenProjectStateCodec.readState(in);
 
-        // should read full byte content first!!!
-
-        VirtualFile file = LocalFileSystem.getInstance().findFileByPath(path);
+        VirtualFile file = path == null ? null : LocalFileSystem.getInstance().findFileByPath(path);
         if (file == null) {
             return null;
         }
 
-        ByteArrayInputStream bs = new ByteArrayInputStream(bytes);
-        try (ObjectInputStream os = new ObjectInputStream(bs)) {
-            try {
-                MavenProject result = new MavenProject(file);
-                result.myState = (State)os.readObject();
-                return result;
-            }
-            catch (ClassNotFoundException e) {
-                IOException ioException = new IOException();
-                ioException.initCause(e);
-                throw ioException;
-            }
-        }
-        finally {
-            bs.close();
-        }
+        MavenProject result = new MavenProject(file);
+        result.myState = state;
+        return result;
     }
 
-    public void write(@Nonnull DataOutputStream out) throws IOException {
-        out.writeUTF(getPath());
-
-        BufferExposingByteArrayOutputStream bs = new BufferExposingByteArrayOutputStream();
-        try (ObjectOutputStream os = new ObjectOutputStream(bs)) {
-            os.writeObject(myState);
-
-            out.writeInt(bs.size());
-            out.write(bs.getInternalBuffer(), 0, bs.size());
-        }
-        finally {
-            bs.close();
-        }
+    void write(@Nonnull MavenProjectStateCodec.Output out) throws IOException {
+        out.writeString(getPath());
+        MavenProjectStateCodec.writeState(out, myState);
     }
 
     public MavenProject(@Nonnull VirtualFile file) {
@@ -132,9 +104,9 @@ public class MavenProject {
 
         MavenModel model = readerResult.mavenModel;
 
-        newState.myMavenId = model.getMavenId();
+        newState.myMavenId = MavenModelInterner.intern(model.getMavenId());
         if (model.getParent() != null) {
-            newState.myParentId = model.getParent().getMavenId();
+            newState.myParentId = MavenModelInterner.intern(model.getParent().getMavenId());
         }
 
         newState.myPackaging = model.getPackaging();
@@ -154,7 +126,7 @@ public class MavenProject {
 
         doSetResolvedAttributes(newState, readerResult, resetArtifacts);
 
-        MavenModelPropertiesPatcher.patch(newState.myProperties, newState.myPlugins);
+        MavenModelPropertiesPatcher.patch(newState.myProperties, newState.getPlugins());
 
         newState.myModulesPathsAndNames = collectModulePathsAndNames(model, getDirectory());
         Collection<String> newProfiles = collectProfilesIds(model.getProfiles());
@@ -199,28 +171,28 @@ public class MavenProject {
                 newDependencies.addAll(state.myDependencies);
             }
             if (state.myDependencyTree != null) {
-                newDependencyTree.addAll(state.myDependencyTree);
+                newDependencyTree.addAll(state.myDependencyTree.get());
             }
             if (state.myPlugins != null) {
-                newPlugins.addAll(state.myPlugins);
+                newPlugins.addAll(state.myPlugins.get());
             }
             if (state.myExtensions != null) {
                 newExtensions.addAll(state.myExtensions);
             }
         }
 
-        newUnresolvedArtifacts.addAll(readerResult.unresolvedArtifactIds);
+        newUnresolvedArtifacts.addAll(MavenModelInterner.internIds(readerResult.unresolvedArtifactIds));
         newRepositories.addAll(model.getRemoteRepositories());
-        newDependencyTree.addAll(model.getDependencyTree());
-        newDependencies.addAll(model.getDependencies());
+        newDependencyTree.addAll(MavenModelInterner.internDependencyTree(model.getDependencyTree()));
+        newDependencies.addAll(MavenModelInterner.internArtifacts(model.getDependencies()));
         newPlugins.addAll(model.getPlugins());
-        newExtensions.addAll(model.getExtensions());
+        newExtensions.addAll(MavenModelInterner.internArtifacts(model.getExtensions()));
 
         state.myUnresolvedArtifactIds = newUnresolvedArtifacts;
         state.myRemoteRepositories = new ArrayList<>(newRepositories);
         state.myDependencies = new ArrayList<>(newDependencies);
-        state.myDependencyTree = new ArrayList<>(newDependencyTree);
-        state.myPlugins = new ArrayList<>(newPlugins);
+        state.myDependencyTree = MavenProjectStateCodec.Lazy.of(new ArrayList<>(newDependencyTree));
+        state.myPlugins = MavenProjectStateCodec.Lazy.of(new ArrayList<>(newPlugins));
         state.myExtensions = new ArrayList<>(newExtensions);
     }
 
@@ -680,6 +652,17 @@ public class MavenProject {
         @Nonnull ResolveContext context
     ) throws MavenProcessCanceledException {
         MavenProjectReaderResult result = reader.resolveProject(generalSettings, embedder, getFile(), getActivatedProfilesIds(), locator);
+        return resolve(project, generalSettings, embedder, result, context);
+    }
+
+    @Nonnull
+    public Pair<MavenProjectChanges, NativeMavenProjectHolder> resolve(
+        @Nonnull Project project,
+        @Nonnull MavenGeneralSettings generalSettings,
+        @Nonnull MavenEmbedderWrapper embedder,
+        @Nonnull MavenProjectReaderResult result,
+        @Nonnull ResolveContext context
+    ) throws MavenProcessCanceledException {
         MavenProjectChanges changes = set(result, generalSettings, false, result.readingProblems.isEmpty(), false);
 
         if (result.nativeMavenProject != null) {
@@ -698,6 +681,14 @@ public class MavenProject {
     ) throws MavenProcessCanceledException {
         MavenProjectReaderResult result =
             MavenProjectReader.generateSources(embedder, importingSettings, getFile(), getActivatedProfilesIds(), console);
+        return resolveFolders(result);
+    }
+
+    /**
+     * Takes the folders of the project from the result of a generate-sources run that was not made for this project alone.
+     */
+    @Nonnull
+    public Pair<Boolean, MavenProjectChanges> resolveFolders(@Nullable MavenProjectReaderResult result) {
         if (result == null || !result.readingProblems.isEmpty()) {
             return Pair.create(false, MavenProjectChanges.NONE);
         }
@@ -878,7 +869,7 @@ public class MavenProject {
 
     @Nonnull
     public List<MavenArtifactNode> getDependencyTree() {
-        return myState.myDependencyTree;
+        return myState.getDependencyTree();
     }
 
     @Nonnull
@@ -958,7 +949,7 @@ public class MavenProject {
 
     @Nonnull
     public List<MavenPlugin> getPlugins() {
-        return myState.myPlugins;
+        return myState.getPlugins();
     }
 
     @Nonnull
@@ -968,7 +959,7 @@ public class MavenProject {
 
     private static List<MavenPlugin> getDeclaredPlugins(State state) {
         return ContainerUtil.findAll(
-            state.myPlugins,
+            state.getPlugins(),
             mavenPlugin -> !mavenPlugin.isDefault()
         );
     }
@@ -1126,7 +1117,7 @@ public class MavenProject {
         return getMavenId().toString();
     }
 
-    private static class State implements Cloneable, Serializable {
+    static class State implements Cloneable {
         long myLastReadStamp = 0;
 
         MavenId myMavenId;
@@ -1148,11 +1139,11 @@ public class MavenProject {
 
         List<String> myFilters;
         Properties myProperties;
-        List<MavenPlugin> myPlugins;
+        MavenProjectStateCodec.Lazy<List<MavenPlugin>> myPlugins;
         List<MavenArtifact> myExtensions;
 
         List<MavenArtifact> myDependencies;
-        List<MavenArtifactNode> myDependencyTree;
+        MavenProjectStateCodec.Lazy<List<MavenArtifactNode>> myDependencyTree;
         List<MavenRemoteRepository> myRemoteRepositories;
 
         Map<String, String> myModulesPathsAndNames;
@@ -1171,7 +1162,15 @@ public class MavenProject {
         volatile List<MavenPlugin> myUnresolvedPluginsCache;
         volatile List<MavenArtifact> myUnresolvedExtensionsCache;
 
-        transient ConcurrentHashMap<Key, Object> myCache = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Key, Object> myCache = new ConcurrentHashMap<>();
+
+        List<MavenPlugin> getPlugins() {
+            return myPlugins == null ? null : myPlugins.get();
+        }
+
+        List<MavenArtifactNode> getDependencyTree() {
+            return myDependencyTree == null ? null : myDependencyTree.get();
+        }
 
         @Override
         public State clone() {
@@ -1220,14 +1219,9 @@ public class MavenProject {
 
             result.dependencies = repositoryChanged || !Comparing.equal(myDependencies, other.myDependencies);
 
-            result.plugins = repositoryChanged || !Comparing.equal(myPlugins, other.myPlugins);
+            result.plugins = repositoryChanged || !Comparing.equal(getPlugins(), other.getPlugins());
 
             return result;
         }
-
-        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-            in.defaultReadObject();
-            myCache = new ConcurrentHashMap<>();
-        }
     }
 }
\ No newline at end of file
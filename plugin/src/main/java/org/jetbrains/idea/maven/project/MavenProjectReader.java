@@ -18,6 +18,7 @@ package org.jetbrains.idea.maven.project;
 import consulo.maven.rt.server.common.model.*;
 import consulo.maven.rt.server.common.server.MavenServerExecutionResult;
 import consulo.maven.rt.server.common.server.ProfileApplicationResult;
+import consulo.util.io.FileUtil;
 import consulo.util.lang.Comparing;
 import consulo.util.lang.Pair;
 import consulo.virtualFileSystem.VirtualFile;
@@ -44,6 +45,9 @@ public class MavenProjectReader {
     private static final String UNKNOWN = MavenId.UNKNOWN_VALUE;
 
     private final Map<VirtualFile, RawModelReadResult> myRawModelsCache = new ConcurrentHashMap<>();
+    // parents shared by many projects are inherited and get their profiles applied once per profile set
+    private final Map<EffectiveModelKey, EffectiveModelReadResult> myEffectiveParentModelsCache = new ConcurrentHashMap<>();
+    private final MavenLocalModelProcessor myModelProcessor = MavenLocalModelProcessor.create();
     private SettingsProfilesCache mySettingsProfilesCache;
 
     public MavenProjectReaderResult readProject(
@@ -52,11 +56,10 @@ public class MavenProjectReader {
         MavenExplicitProfiles explicitProfiles,
         MavenProjectReaderProjectLocator locator
     ) {
-        Pair<RawModelReadResult, MavenExplicitProfiles> readResult =
-            doReadProjectModel(generalSettings, file, explicitProfiles, new HashSet<>(), locator);
+        EffectiveModelReadResult readResult = doReadProjectModel(generalSettings, file, explicitProfiles, new HashSet<>(), locator);
 
         File basedir = getBaseDir(file);
-        MavenModel model = MavenServerManager.getInstance().interpolateAndAlignModel(readResult.first.model, basedir);
+        MavenModel model = myModelProcessor.interpolateAndAlignModel(readResult.result.model, basedir);
 
         Map<String, String> modelMap = new HashMap<>();
         modelMap.put("groupId", model.getMavenId().getGroupId());
@@ -67,28 +70,38 @@ public class MavenProjectReader {
         modelMap.put("build.finalName", model.getBuild().getFinalName());
         modelMap.put("build.directory", model.getBuild().getDirectory());
 
-        return new MavenProjectReaderResult(model, modelMap, readResult.second, null, readResult.first.problems, new HashSet<>());
+        return new MavenProjectReaderResult(
+            model,
+            modelMap,
+            readResult.activatedProfiles,
+            null,
+            readResult.result.problems,
+            new HashSet<>()
+        );
     }
 
     private static File getBaseDir(VirtualFile file) {
         return new File(file.getParent().getPath());
     }
 
-    private Pair<RawModelReadResult, MavenExplicitProfiles> doReadProjectModel(
+    private EffectiveModelReadResult doReadProjectModel(
         MavenGeneralSettings generalSettings,
         VirtualFile file,
         MavenExplicitProfiles explicitProfiles,
         Set<VirtualFile> recursionGuard,
         MavenProjectReaderProjectLocator locator
     ) {
-        RawModelReadResult cachedModel = myRawModelsCache.computeIfAbsent(file, f -> doReadProjectModel(f, false));
+        Map<VirtualFile, Long> fileStamps = new HashMap<>();
+        fileStamps.put(file, file.getTimeStamp());
+        RawModelReadResult cachedModel = readRawModel(file);
 
-        // todo modifying cached model and problems here??????
+        // todo modifying cached model here??????
         MavenModel model = cachedModel.model;
-        HashSet<String> alwaysOnProfiles = cachedModel.alwaysOnProfiles;
-        Collection<MavenProjectProblem> problems = cachedModel.problems;
+        // the cached collections are copied, since the results of parents are shared by concurrent reads
+        HashSet<String> alwaysOnProfiles = new HashSet<>(cachedModel.alwaysOnProfiles);
+        Collection<MavenProjectProblem> problems = new ArrayList<>(cachedModel.problems);
 
-        model = resolveInheritance(generalSettings, model, file, explicitProfiles, recursionGuard, locator, problems);
+        model = resolveInheritance(generalSettings, model, file, explicitProfiles, recursionGuard, locator, problems, fileStamps);
         addSettingsProfiles(generalSettings, model, alwaysOnProfiles, problems);
 
         ProfileApplicationResult applied = applyProfiles(model, getBaseDir(file), explicitProfiles, alwaysOnProfiles);
@@ -96,10 +109,75 @@ public class MavenProjectReader {
 
         repairModelBody(model);
 
-        return Pair.create(new RawModelReadResult(model, problems, alwaysOnProfiles), applied.getActivatedProfiles());
+        return new EffectiveModelReadResult(
+            new RawModelReadResult(model, problems, alwaysOnProfiles),
+            applied.getActivatedProfiles(),
+            fileStamps
+        );
+    }
+
+    /**
+     * Reads the model of a parent with its own parents merged in and its profiles applied,
+     * reusing the result for the other projects inheriting from the same parent until one of the files involved changes.
+     */
+    private EffectiveModelReadResult readEffectiveParentModel(
+        MavenGeneralSettings generalSettings,
+        VirtualFile file,
+        MavenExplicitProfiles explicitProfiles,
+        Set<VirtualFile> recursionGuard,
+        MavenProjectReaderProjectLocator locator
+    ) {
+        EffectiveModelKey key = new EffectiveModelKey(file, explicitProfiles, getSettingsProfiles(generalSettings));
+        EffectiveModelReadResult cached = myEffectiveParentModelsCache.get(key);
+        if (cached != null) {
+            if (cached.isUpToDate()) {
+                return cached;
+            }
+            for (VirtualFile each : cached.fileStamps.keySet()) {
+                myRawModelsCache.remove(each);
+            }
+        }
+
+        // concurrent reads of the same parent may both get here; they produce equal results, so either can be kept
+        EffectiveModelReadResult result = doReadProjectModel(generalSettings, file, explicitProfiles, recursionGuard, locator);
+        myEffectiveParentModelsCache.put(key, result);
+        return result;
+    }
+
+    private RawModelReadResult readRawModel(VirtualFile file) {
+        return myRawModelsCache.computeIfAbsent(file, f -> {
+            MavenRawModelCache persistentCache = MavenRawModelCache.getInstance();
+            String key = MavenRawModelCache.computeKey(f);
+            if (key != null) {
+                byte[] cached = persistentCache.get(key);
+                if (cached != null) {
+                    try {
+                        HashSet<String> alwaysOnProfiles = new HashSet<>();
+                        MavenModel model = MavenProjectStateCodec.decodeRawModel(cached, alwaysOnProfiles);
+                        return new RawModelReadResult(model, new ArrayList<>(), alwaysOnProfiles);
+                    }
+                    catch (IOException | RuntimeException e) {
+                        MavenLog.LOG.warn("Cannot read the cached model of " + f.getPath() + ": " + e);
+                        persistentCache.remove(key);
+                    }
+                }
+            }
+
+            RawModelReadResult result = doReadProjectModel(f);
+            // problems may be caused by failing to read the file, so only models read without problems are kept
+            if (key != null && result.problems.isEmpty()) {
+                try {
+                    persistentCache.put(key, MavenProjectStateCodec.encodeRawModel(result.model, result.alwaysOnProfiles));
+                }
+                catch (IOException e) {
+                    MavenLog.LOG.warn("Cannot cache the model of " + f.getPath() + ": " + e);
+                }
+            }
+            return result;
+        });
     }
 
-    private RawModelReadResult doReadProjectModel(VirtualFile file, boolean headerOnly) {
+    private RawModelReadResult doReadProjectModel(VirtualFile file) {
         MavenModel result = new MavenModel();
         Collection<MavenProjectProblem> problems = new ArrayList<>();
         HashSet<String> alwaysOnProfiles = new HashSet<>();
@@ -134,10 +212,6 @@ public class MavenProjectReader {
             MavenJDOMUtil.findChildValueByPath(xmlProject, "version", parent.getMavenId().getVersion())
         ));
 
-        if (headerOnly) {
-            return new RawModelReadResult(result, problems, alwaysOnProfiles);
-        }
-
         result.setPackaging(MavenJDOMUtil.findChildValueByPath(xmlProject, "packaging", MavenConstants.TYPE_JAR));
         result.setName(MavenJDOMUtil.findChildValueByPath(xmlProject, "name"));
 
@@ -270,8 +344,20 @@ public class MavenProjectReader {
         Set<String> alwaysOnProfiles,
         Collection<MavenProjectProblem> problems
     ) {
-        if (mySettingsProfilesCache == null) {
+        SettingsProfilesCache settingsProfiles = getSettingsProfiles(generalSettings);
 
+        List<MavenProfile> modelProfiles = new ArrayList<>(model.getProfiles());
+        for (MavenProfile each : settingsProfiles.profiles) {
+            addProfileIfDoesNotExist(each, modelProfiles);
+        }
+        model.setProfiles(modelProfiles);
+
+        problems.addAll(settingsProfiles.problems);
+        alwaysOnProfiles.addAll(settingsProfiles.alwaysOnProfiles);
+    }
+
+    private synchronized SettingsProfilesCache getSettingsProfiles(MavenGeneralSettings generalSettings) {
+        if (mySettingsProfilesCache == null) {
             List<MavenProfile> settingsProfiles = new ArrayList<>();
             Collection<MavenProjectProblem> settingsProblems = new ArrayList<>();
             Set<String> settingsAlwaysOnProfiles = new HashSet<>();
@@ -289,15 +375,7 @@ public class MavenProjectReader {
             }
             mySettingsProfilesCache = new SettingsProfilesCache(settingsProfiles, settingsAlwaysOnProfiles, settingsProblems);
         }
-
-        List<MavenProfile> modelProfiles = new ArrayList<>(model.getProfiles());
-        for (MavenProfile each : mySettingsProfilesCache.profiles) {
-            addProfileIfDoesNotExist(each, modelProfiles);
-        }
-        model.setProfiles(modelProfiles);
-
-        problems.addAll(mySettingsProfilesCache.problems);
-        alwaysOnProfiles.addAll(mySettingsProfilesCache.alwaysOnProfiles);
+        return mySettingsProfilesCache;
     }
 
     private void collectProfilesFromSettingsXmlOrProfilesXml(
@@ -404,13 +482,13 @@ public class MavenProjectReader {
         }
     }
 
-    private static ProfileApplicationResult applyProfiles(
+    private ProfileApplicationResult applyProfiles(
         MavenModel model,
         File basedir,
         MavenExplicitProfiles explicitProfiles,
         HashSet<String> alwaysOnProfiles
     ) {
-        return MavenServerManager.getInstance().applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
+        return myModelProcessor.applyProfiles(model, basedir, explicitProfiles, alwaysOnProfiles);
     }
 
     private MavenModel resolveInheritance(
@@ -420,7 +498,8 @@ public class MavenProjectReader {
         final MavenExplicitProfiles explicitProfiles,
         final Set<VirtualFile> recursionGuard,
         final MavenProjectReaderProjectLocator locator,
-        Collection<MavenProjectProblem> problems
+        Collection<MavenProjectProblem> problems,
+        Map<VirtualFile, Long> fileStamps
     ) {
         if (recursionGuard.contains(file)) {
             problems.add(MavenProjectProblem.createProblem(
@@ -449,8 +528,8 @@ public class MavenProjectReader {
                 parentDesc[0] = new MavenParentDesc(parent.getMavenId(), parent.getRelativePath());
             }
 
-            Pair<VirtualFile, RawModelReadResult> parentModelWithProblems =
-                new MavenParentProjectFileProcessor<Pair<VirtualFile, RawModelReadResult>>() {
+            Pair<VirtualFile, EffectiveModelReadResult> parentModelWithProblems =
+                new MavenParentProjectFileProcessor<Pair<VirtualFile, EffectiveModelReadResult>>() {
                     @Override
                     @Nullable
                     protected VirtualFile findManagedFile(@Nonnull MavenId id) {
@@ -459,8 +538,8 @@ public class MavenProjectReader {
 
                     @Override
                     @Nullable
-                    protected Pair<VirtualFile, RawModelReadResult> processRelativeParent(VirtualFile parentFile) {
-                        MavenModel parentModel = doReadProjectModel(parentFile, true).model;
+                    protected Pair<VirtualFile, EffectiveModelReadResult> processRelativeParent(VirtualFile parentFile) {
+                        MavenModel parentModel = readRawModel(parentFile).model;
                         MavenId parentId = parentDesc[0].getParentId();
                         if (!parentId.equals(parentModel.getMavenId())) {
                             return null;
@@ -470,14 +549,14 @@ public class MavenProjectReader {
                     }
 
                     @Override
-                    protected Pair<VirtualFile, RawModelReadResult> processSuperParent(VirtualFile parentFile) {
+                    protected Pair<VirtualFile, EffectiveModelReadResult> processSuperParent(VirtualFile parentFile) {
                         return null; // do not process superPom
                     }
 
                     @Override
-                    protected Pair<VirtualFile, RawModelReadResult> doProcessParent(VirtualFile parentFile) {
-                        RawModelReadResult result =
-                            doReadProjectModel(generalSettings, parentFile, explicitProfiles, recursionGuard, locator).first;
+                    protected Pair<VirtualFile, EffectiveModelReadResult> doProcessParent(VirtualFile parentFile) {
+                        EffectiveModelReadResult result =
+                            readEffectiveParentModel(generalSettings, parentFile, explicitProfiles, recursionGuard, locator);
                         return Pair.create(parentFile, result);
                     }
                 }.process(generalSettings, file, parentDesc[0]);
@@ -486,8 +565,9 @@ public class MavenProjectReader {
                 return model; // no parent or parent not found;
             }
 
-            MavenModel parentModel = parentModelWithProblems.second.model;
-            if (!parentModelWithProblems.second.problems.isEmpty()) {
+            fileStamps.putAll(parentModelWithProblems.second.fileStamps);
+            MavenModel parentModel = parentModelWithProblems.second.result.model;
+            if (!parentModelWithProblems.second.result.problems.isEmpty()) {
                 problems.add(MavenProjectProblem.createProblem(
                     parentModelWithProblems.first.getPath(),
                     MavenProjectLocalize.mavenProjectProblemParenthasproblems(parentModel.getMavenId()).get(),
@@ -525,40 +605,92 @@ public class MavenProjectReader {
         try {
             MavenServerExecutionResult result =
                 embedder.resolveProject(file, explicitProfiles.getEnabledProfiles(), explicitProfiles.getDisabledProfiles());
-            MavenServerExecutionResult.ProjectData projectData = result.projectData;
-            if (projectData == null) {
-                MavenProjectReaderResult temp = readProject(generalSettings, file, explicitProfiles, locator);
-                temp.readingProblems.addAll(result.problems);
-                temp.unresolvedArtifactIds.addAll(result.unresolvedArtifacts);
-                return temp;
-            }
-
-            return new MavenProjectReaderResult(
-                projectData.mavenModel,
-                projectData.mavenModelMap,
-                new MavenExplicitProfiles(projectData.activatedProfiles, explicitProfiles.getDisabledProfiles()),
-                projectData.nativeMavenProject,
-                result.problems,
-                result.unresolvedArtifacts
-            );
+            return createResolveResult(generalSettings, file, explicitProfiles, locator, result);
         }
         catch (MavenProcessCanceledException e) {
             throw e;
         }
         catch (Throwable e) {
-            MavenLog.LOG.info(e);
-            MavenLog.printInTests(e); // print exception since we need to know if something wrong with our logic
+            return createFailedResolveResult(generalSettings, file, explicitProfiles, locator, e);
+        }
+    }
 
-            MavenProjectReaderResult result = readProject(generalSettings, file, explicitProfiles, locator);
-            String message = e.getMessage();
-            if (message != null) {
-                result.readingProblems.add(MavenProjectProblem.createStructureProblem(file.getPath(), message));
+    /**
+     * Resolves several projects sharing the same explicit profiles with a single embedder call.
+     *
+     * @return one result per file, in the order of {@code files}
+     */
+    public List<MavenProjectReaderResult> resolveProjects(
+        MavenGeneralSettings generalSettings,
+        MavenEmbedderWrapper embedder,
+        List<VirtualFile> files,
+        MavenExplicitProfiles explicitProfiles,
+        MavenProjectReaderProjectLocator locator
+    ) throws MavenProcessCanceledException {
+        List<MavenProjectReaderResult> results = new ArrayList<>(files.size());
+        try {
+            List<MavenServerExecutionResult> executionResults =
+                embedder.resolveProjects(files, explicitProfiles.getEnabledProfiles(), explicitProfiles.getDisabledProfiles());
+            for (int i = 0; i < files.size(); i++) {
+                results.add(createResolveResult(generalSettings, files.get(i), explicitProfiles, locator, executionResults.get(i)));
             }
-            else {
-                result.readingProblems.add(MavenProjectProblem.createSyntaxProblem(file.getPath(), MavenProjectProblem.ProblemType.SYNTAX));
+        }
+        catch (MavenProcessCanceledException e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            results.clear();
+            for (VirtualFile file : files) {
+                results.add(createFailedResolveResult(generalSettings, file, explicitProfiles, locator, e));
             }
-            return result;
         }
+        return results;
+    }
+
+    private MavenProjectReaderResult createResolveResult(
+        MavenGeneralSettings generalSettings,
+        VirtualFile file,
+        MavenExplicitProfiles explicitProfiles,
+        MavenProjectReaderProjectLocator locator,
+        MavenServerExecutionResult result
+    ) {
+        MavenServerExecutionResult.ProjectData projectData = result.projectData;
+        if (projectData == null) {
+            MavenProjectReaderResult temp = readProject(generalSettings, file, explicitProfiles, locator);
+            temp.readingProblems.addAll(result.problems);
+            temp.unresolvedArtifactIds.addAll(result.unresolvedArtifacts);
+            return temp;
+        }
+
+        return new MavenProjectReaderResult(
+            projectData.mavenModel,
+            projectData.mavenModelMap,
+            new MavenExplicitProfiles(projectData.activatedProfiles, explicitProfiles.getDisabledProfiles()),
+            projectData.nativeMavenProject,
+            result.problems,
+            result.unresolvedArtifacts
+        );
+    }
+
+    private MavenProjectReaderResult createFailedResolveResult(
+        MavenGeneralSettings generalSettings,
+        VirtualFile file,
+        MavenExplicitProfiles explicitProfiles,
+        MavenProjectReaderProjectLocator locator,
+        Throwable e
+    ) {
+        MavenLog.LOG.info(e);
+        MavenLog.printInTests(e); // print exception since we need to know if something wrong with our logic
+
+        MavenProjectReaderResult result = readProject(generalSettings, file, explicitProfiles, locator);
+        String message = e.getMessage();
+        if (message != null) {
+            result.readingProblems.add(MavenProjectProblem.createStructureProblem(file.getPath(), message));
+        }
+        else {
+            result.readingProblems.add(MavenProjectProblem.createSyntaxProblem(file.getPath(), MavenProjectProblem.ProblemType.SYNTAX));
+        }
+        return result;
     }
 
     @Nullable
@@ -594,6 +726,62 @@ public class MavenProjectReader {
         }
     }
 
+    /**
+     * Same as {@link #generateSources(MavenEmbedderWrapper, MavenImportingSettings, VirtualFile, MavenExplicitProfiles, MavenSyncConsole)}
+     * for the selected projects of the reactor of {@code rootFile}, in a single Maven build.
+     *
+     * @param selectedProjects the projects as {@code groupId:artifactId}
+     * @return the results of the projects built successfully, by the system-independent path of their pom,
+     * or null if the build could not be run
+     */
+    @Nullable
+    public static Map<String, MavenProjectReaderResult> generateSources(
+        MavenEmbedderWrapper embedder,
+        MavenImportingSettings importingSettings,
+        VirtualFile rootFile,
+        List<String> selectedProjects,
+        MavenExplicitProfiles profiles,
+        int threads,
+        MavenSyncConsole console
+    ) throws MavenProcessCanceledException {
+        try {
+            List<String> goals = Collections.singletonList(importingSettings.getUpdateFoldersOnImportPhase());
+            Map<String, MavenServerExecutionResult> executionResults = embedder.executeReactor(
+                rootFile,
+                profiles.getEnabledProfiles(),
+                profiles.getDisabledProfiles(),
+                goals,
+                selectedProjects,
+                true,
+                threads
+            );
+
+            Map<String, MavenProjectReaderResult> results = new HashMap<>();
+            for (Map.Entry<String, MavenServerExecutionResult> each : executionResults.entrySet()) {
+                MavenServerExecutionResult result = each.getValue();
+                MavenServerExecutionResult.ProjectData projectData = result.projectData;
+                if (projectData == null || !result.problems.isEmpty()) {
+                    continue;
+                }
+
+                results.put(FileUtil.toSystemIndependentName(each.getKey()), new MavenProjectReaderResult(
+                    projectData.mavenModel,
+                    projectData.mavenModelMap,
+                    new MavenExplicitProfiles(projectData.activatedProfiles, profiles.getDisabledProfiles()),
+                    projectData.nativeMavenProject,
+                    result.problems,
+                    result.unresolvedArtifacts
+                ));
+            }
+            return results;
+        }
+        catch (Throwable e) {
+            console.printException(e);
+            MavenLog.LOG.warn(e);
+            return null;
+        }
+    }
+
     private static Element readXml(
         final VirtualFile file,
         final Collection<MavenProjectProblem> problems,
@@ -625,6 +813,63 @@ public class MavenProjectReader {
         }
     }
 
+    private static class EffectiveModelKey {
+        private final VirtualFile myFile;
+        private final MavenExplicitProfiles myExplicitProfiles;
+        private final SettingsProfilesCache mySettingsProfiles;
+
+        private EffectiveModelKey(VirtualFile file, MavenExplicitProfiles explicitProfiles, SettingsProfilesCache settingsProfiles) {
+            myFile = file;
+            myExplicitProfiles = explicitProfiles;
+            mySettingsProfiles = settingsProfiles;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EffectiveModelKey)) {
+                return false;
+            }
+            EffectiveModelKey other = (EffectiveModelKey)o;
+            return myFile.equals(other.myFile)
+                && myExplicitProfiles.equals(other.myExplicitProfiles)
+                && mySettingsProfiles == other.mySettingsProfiles;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * myFile.hashCode() + myExplicitProfiles.hashCode();
+        }
+    }
+
+    private static class EffectiveModelReadResult {
+        final RawModelReadResult result;
+        final MavenExplicitProfiles activatedProfiles;
+        // the file and all its parents, with the time stamps they were read at
+        final Map<VirtualFile, Long> fileStamps;
+
+        private EffectiveModelReadResult(
+            RawModelReadResult result,
+            MavenExplicitProfiles activatedProfiles,
+            Map<VirtualFile, Long> fileStamps
+        ) {
+            this.result = result;
+            this.activatedProfiles = activatedProfiles;
+            this.fileStamps = fileStamps;
+        }
+
+        boolean isUpToDate() {
+            for (Map.Entry<VirtualFile, Long> each : fileStamps.entrySet()) {
+                if (!each.getKey().isValid() || each.getKey().getTimeStamp() != each.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     private static class RawModelReadResult {
         public MavenModel model;
         public Collection<MavenProjectProblem> problems;
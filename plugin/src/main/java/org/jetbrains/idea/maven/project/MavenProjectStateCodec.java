@@ -0,0 +1,778 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.*;
+import consulo.util.io.BufferExposingByteArrayOutputStream;
+import org.jdom.Attribute;
+import org.jdom.Element;
+import org.jdom.Text;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary encoding of the maven projects tree cache.
+ * <p>
+ * Strings are written as indices into a string table, so repeated group ids, versions, scopes and paths are stored once.
+ * Dependency trees and plugins (with their JDOM configurations) are the bulk of the file and are rarely needed right after
+ * opening a project, so they are written as self-contained length-prefixed sections that are decoded on first access
+ * and copied back verbatim on save while untouched.
+ */
+final class MavenProjectStateCodec {
+    private MavenProjectStateCodec() {
+    }
+
+    interface SectionWriter<T> {
+        void write(@Nonnull Output out, @Nonnull T value) throws IOException;
+    }
+
+    interface SectionReader<T> {
+        @Nonnull
+        T read(@Nonnull Input in) throws IOException;
+    }
+
+    /**
+     * A value that is either already decoded or still kept as an encoded section.
+     */
+    static final class Lazy<T> {
+        private volatile T myValue;
+        private byte[] myBytes;
+        private SectionReader<T> myReader;
+
+        private Lazy(T value, byte[] bytes, SectionReader<T> reader) {
+            myValue = value;
+            myBytes = bytes;
+            myReader = reader;
+        }
+
+        @Nullable
+        static <T> Lazy<T> of(@Nullable T value) {
+            return value == null ? null : new Lazy<>(value, null, null);
+        }
+
+        @Nonnull
+        T get() {
+            T result = myValue;
+            if (result != null) {
+                return result;
+            }
+            synchronized (this) {
+                if (myValue == null) {
+                    try {
+                        myValue = myReader.read(new Input(new DataInputStream(new ByteArrayInputStream(myBytes))));
+                    }
+                    catch (IOException e) {
+                        throw new IllegalStateException("Corrupted maven projects cache section", e);
+                    }
+                    myBytes = null;
+                    myReader = null;
+                }
+                return myValue;
+            }
+        }
+
+        @Nullable
+        private synchronized byte[] getEncoded() {
+            return myValue == null ? myBytes : null;
+        }
+    }
+
+    static class Output {
+        private final DataOutputStream myOut;
+        private final Map<String, Integer> myStringIds = new HashMap<>();
+        private final List<String> myStrings = new ArrayList<>();
+
+        Output(@Nonnull DataOutputStream out) {
+            myOut = out;
+        }
+
+        /**
+         * Writes the collected string table; it has to be read back before anything written through this output.
+         */
+        void writeStringTable(@Nonnull DataOutputStream out) throws IOException {
+            writeVarInt(out, myStrings.size());
+            for (String each : myStrings) {
+                // not writeUTF, it is limited to 64K bytes and plugin configurations or property values can be longer
+                byte[] bytes = each.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(out, bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        void writeInt(int value) throws IOException {
+            writeVarInt(myOut, value);
+        }
+
+        void writeLong(long value) throws IOException {
+            myOut.writeLong(value);
+        }
+
+        void writeBoolean(boolean value) throws IOException {
+            myOut.writeBoolean(value);
+        }
+
+        void writeString(@Nullable String value) throws IOException {
+            if (value == null) {
+                writeInt(0);
+                return;
+            }
+            Integer id = myStringIds.get(value);
+            if (id == null) {
+                id = myStrings.size();
+                myStrings.add(value);
+                myStringIds.put(value, id);
+            }
+            writeInt(id + 1);
+        }
+
+        void writeStrings(@Nullable Collection<String> values) throws IOException {
+            if (writeSize(values)) {
+                for (String each : values) {
+                    writeString(each);
+                }
+            }
+        }
+
+        <T> void writeList(@Nullable Collection<T> values, @Nonnull SectionWriter<T> writer) throws IOException {
+            if (writeSize(values)) {
+                for (T each : values) {
+                    writer.write(this, each);
+                }
+            }
+        }
+
+        <T> void writeNullable(@Nullable T value, @Nonnull SectionWriter<T> writer) throws IOException {
+            writeBoolean(value != null);
+            if (value != null) {
+                writer.write(this, value);
+            }
+        }
+
+        /**
+         * Writes a section with its own string table, so it can later be decoded or copied without the enclosing file.
+         */
+        <T> void writeSection(@Nullable Lazy<T> value, @Nonnull SectionWriter<T> writer) throws IOException {
+            if (value == null) {
+                writeInt(0);
+                return;
+            }
+            byte[] encoded = value.getEncoded();
+            if (encoded == null) {
+                BufferExposingByteArrayOutputStream body = new BufferExposingByteArrayOutputStream();
+                Output sectionOut = new Output(new DataOutputStream(body));
+                writer.write(sectionOut, value.get());
+                sectionOut.myOut.flush();
+
+                BufferExposingByteArrayOutputStream section = new BufferExposingByteArrayOutputStream();
+                DataOutputStream sectionStream = new DataOutputStream(section);
+                sectionOut.writeStringTable(sectionStream);
+                sectionStream.write(body.getInternalBuffer(), 0, body.size());
+                sectionStream.flush();
+                encoded = section.toByteArray();
+            }
+            writeInt(encoded.length + 1);
+            myOut.write(encoded);
+        }
+
+        private boolean writeSize(@Nullable Collection<?> values) throws IOException {
+            writeInt(values == null ? 0 : values.size() + 1);
+            return values != null;
+        }
+    }
+
+    static class Input {
+        private final DataInputStream myIn;
+        private final String[] myStrings;
+
+        /**
+         * Reads a string table written by {@link Output#writeStringTable} followed by the data it indexes.
+         */
+        Input(@Nonnull DataInputStream in) throws IOException {
+            myIn = in;
+            int count = readVarInt(in);
+            myStrings = new String[count];
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = new byte[readVarInt(in)];
+                in.readFully(bytes);
+                myStrings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+
+        int readInt() throws IOException {
+            return readVarInt(myIn);
+        }
+
+        long readLong() throws IOException {
+            return myIn.readLong();
+        }
+
+        boolean readBoolean() throws IOException {
+            return myIn.readBoolean();
+        }
+
+        @Nullable
+        String readString() throws IOException {
+            int id = readInt();
+            if (id == 0) {
+                return null;
+            }
+            if (id > myStrings.length) {
+                throw new IOException("Unknown string id " + id);
+            }
+            return myStrings[id - 1];
+        }
+
+        @Nullable
+        <C extends Collection<String>> C readStrings(@Nonnull C result) throws IOException {
+            int size = readInt() - 1;
+            if (size < 0) {
+                return null;
+            }
+            while (size-- > 0) {
+                result.add(readString());
+            }
+            return result;
+        }
+
+        @Nullable
+        <T> List<T> readList(@Nonnull SectionReader<T> reader) throws IOException {
+            int size = readInt() - 1;
+            if (size < 0) {
+                return null;
+            }
+            List<T> result = new ArrayList<>(size);
+            while (size-- > 0) {
+                result.add(reader.read(this));
+            }
+            return result;
+        }
+
+        @Nullable
+        <T> T readNullable(@Nonnull SectionReader<T> reader) throws IOException {
+            return readBoolean() ? reader.read(this) : null;
+        }
+
+        @Nullable
+        <T> Lazy<T> readSection(@Nonnull SectionReader<T> reader) throws IOException {
+            int length = readInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            myIn.readFully(bytes);
+            return new Lazy<>(null, bytes, reader);
+        }
+    }
+
+    static void writeState(@Nonnull Output out, @Nonnull MavenProject.State state) throws IOException {
+        out.writeLong(state.myLastReadStamp);
+
+        out.writeNullable(state.myMavenId, MavenProjectStateCodec::writeMavenId);
+        out.writeNullable(state.myParentId, MavenProjectStateCodec::writeMavenId);
+        out.writeString(state.myPackaging);
+        out.writeString(state.myName);
+
+        out.writeString(state.myFinalName);
+        out.writeString(state.myDefaultGoal);
+
+        out.writeString(state.myBuildDirectory);
+        out.writeString(state.myOutputDirectory);
+        out.writeString(state.myTestOutputDirectory);
+
+        out.writeStrings(state.mySources);
+        out.writeStrings(state.myTestSources);
+        out.writeList(state.myResources, MavenProjectStateCodec::writeResource);
+        out.writeList(state.myTestResources, MavenProjectStateCodec::writeResource);
+
+        out.writeStrings(state.myFilters);
+        out.writeNullable(state.myProperties, MavenProjectStateCodec::writeProperties);
+        out.writeSection(state.myPlugins, (o, plugins) -> o.writeList(plugins, MavenProjectStateCodec::writePlugin));
+        out.writeList(state.myExtensions, MavenProjectStateCodec::writeArtifact);
+
+        out.writeList(state.myDependencies, MavenProjectStateCodec::writeArtifact);
+        out.writeSection(state.myDependencyTree, (o, tree) -> o.writeList(tree, MavenProjectStateCodec::writeArtifactNode));
+        out.writeList(state.myRemoteRepositories, MavenProjectStateCodec::writeRemoteRepository);
+
+        out.writeNullable(state.myModulesPathsAndNames, MavenProjectStateCodec::writeStringMap);
+        out.writeNullable(state.myModelMap, MavenProjectStateCodec::writeStringMap);
+
+        out.writeStrings(state.myProfilesIds);
+        out.writeNullable(state.myActivatedProfilesIds, (o, profiles) -> {
+            o.writeStrings(profiles.getEnabledProfiles());
+            o.writeStrings(profiles.getDisabledProfiles());
+        });
+
+        out.writeList(state.myReadingProblems, MavenProjectStateCodec::writeProblem);
+        out.writeList(state.myUnresolvedArtifactIds, MavenProjectStateCodec::writeMavenId);
+        out.writeString(state.myLocalRepository == null ? null : state.myLocalRepository.getPath());
+    }
+
+    @Nonnull
+    static MavenProject.State readState(@Nonnull Input in) throws IOException {
+        MavenProject.State state = new MavenProject.State();
+        state.myLastReadStamp = in.readLong();
+
+        state.myMavenId = in.readNullable(MavenProjectStateCodec::readMavenId);
+        state.myParentId = in.readNullable(MavenProjectStateCodec::readMavenId);
+        state.myPackaging = in.readString();
+        state.myName = in.readString();
+
+        state.myFinalName = in.readString();
+        state.myDefaultGoal = in.readString();
+
+        state.myBuildDirectory = in.readString();
+        state.myOutputDirectory = in.readString();
+        state.myTestOutputDirectory = in.readString();
+
+        state.mySources = in.readStrings(new ArrayList<>());
+        state.myTestSources = in.readStrings(new ArrayList<>());
+        state.myResources = in.readList(MavenProjectStateCodec::readResource);
+        state.myTestResources = in.readList(MavenProjectStateCodec::readResource);
+
+        state.myFilters = in.readStrings(new ArrayList<>());
+        state.myProperties = in.readNullable(MavenProjectStateCodec::readProperties);
+        state.myPlugins = in.readSection(i -> Objects.requireNonNull(i.readList(MavenProjectStateCodec::readPlugin)));
+        state.myExtensions = in.readList(MavenProjectStateCodec::readArtifact);
+
+        state.myDependencies = in.readList(MavenProjectStateCodec::readArtifact);
+        state.myDependencyTree = in.readSection(i -> Objects.requireNonNull(i.readList(MavenProjectStateCodec::readArtifactNodeTree)));
+        state.myRemoteRepositories = in.readList(MavenProjectStateCodec::readRemoteRepository);
+
+        state.myModulesPathsAndNames = in.readNullable(i -> readStringMap(i, new LinkedHashMap<>()));
+        state.myModelMap = in.readNullable(i -> readStringMap(i, new HashMap<>()));
+
+        state.myProfilesIds = in.readStrings(new ArrayList<>());
+        state.myActivatedProfilesIds = in.readNullable(
+            i -> new MavenExplicitProfiles(i.readStrings(new HashSet<>()), i.readStrings(new HashSet<>()))
+        );
+
+        state.myReadingProblems = in.readList(MavenProjectStateCodec::readProblem);
+        List<MavenId> unresolved = in.readList(MavenProjectStateCodec::readMavenId);
+        state.myUnresolvedArtifactIds = unresolved == null ? null : new HashSet<>(unresolved);
+        String localRepository = in.readString();
+        state.myLocalRepository = localRepository == null ? null : new File(localRepository);
+        return state;
+    }
+
+    private static void writeMavenId(Output out, MavenId id) throws IOException {
+        out.writeString(id.getGroupId());
+        out.writeString(id.getArtifactId());
+        out.writeString(id.getVersion());
+    }
+
+    private static MavenId readMavenId(Input in) throws IOException {
+        return MavenModelInterner.intern(new MavenId(in.readString(), in.readString(), in.readString()));
+    }
+
+    private static void writeResource(Output out, MavenResource resource) throws IOException {
+        out.writeString(resource.getDirectory());
+        out.writeBoolean(resource.isFiltered());
+        out.writeString(resource.getTargetPath());
+        out.writeStrings(resource.getIncludes());
+        out.writeStrings(resource.getExcludes());
+    }
+
+    private static MavenResource readResource(Input in) throws IOException {
+        return new MavenResource(
+            in.readString(),
+            in.readBoolean(),
+            in.readString(),
+            in.readStrings(new ArrayList<>()),
+            in.readStrings(new ArrayList<>())
+        );
+    }
+
+    private static void writeProperties(Output out, Properties properties) throws IOException {
+        Set<String> names = properties.stringPropertyNames();
+        out.writeInt(names.size());
+        for (String each : names) {
+            out.writeString(each);
+            out.writeString(properties.getProperty(each));
+        }
+    }
+
+    private static Properties readProperties(Input in) throws IOException {
+        Properties result = new Properties();
+        int count = in.readInt();
+        while (count-- > 0) {
+            result.setProperty(in.readString(), in.readString());
+        }
+        return result;
+    }
+
+    private static void writeStringMap(Output out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> each : map.entrySet()) {
+            out.writeString(each.getKey());
+            out.writeString(each.getValue());
+        }
+    }
+
+    private static Map<String, String> readStringMap(Input in, Map<String, String> result) throws IOException {
+        int count = in.readInt();
+        while (count-- > 0) {
+            result.put(in.readString(), in.readString());
+        }
+        return result;
+    }
+
+    private static void writeArtifact(Output out, MavenArtifact artifact) throws IOException {
+        out.writeString(artifact.getGroupId());
+        out.writeString(artifact.getArtifactId());
+        out.writeString(artifact.getVersion());
+        out.writeString(artifact.getBaseVersion());
+        out.writeString(artifact.getType());
+        out.writeString(artifact.getClassifier());
+        out.writeString(artifact.getScope());
+        out.writeBoolean(artifact.isOptional());
+        out.writeString(artifact.getExtension());
+        out.writeString(artifact.getFile().getPath());
+        out.writeBoolean(artifact.isMarkedResolved());
+        out.writeBoolean(artifact.isStubbed());
+    }
+
+    private static MavenArtifact readArtifact(Input in) throws IOException {
+        return MavenModelInterner.intern(new MavenArtifact(
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readBoolean(),
+            in.readString(),
+            new File(in.readString()),
+            null,
+            in.readBoolean(),
+            in.readBoolean()
+        ));
+    }
+
+    private static void writeArtifactNode(Output out, MavenArtifactNode node) throws IOException {
+        writeArtifact(out, node.getArtifact());
+        out.writeString(node.getState().name());
+        out.writeNullable(node.getRelatedArtifact(), MavenProjectStateCodec::writeArtifact);
+        out.writeString(node.getOriginalScope());
+        out.writeString(node.getPremanagedVersion());
+        out.writeString(node.getPremanagedScope());
+        out.writeList(node.getDependencies(), MavenProjectStateCodec::writeArtifactNode);
+    }
+
+    private static MavenArtifactNode readArtifactNodeTree(Input in) throws IOException {
+        return readArtifactNode(in, null);
+    }
+
+    private static MavenArtifactNode readArtifactNode(Input in, @Nullable MavenArtifactNode parent) throws IOException {
+        MavenArtifactNode result = new MavenArtifactNode(
+            parent,
+            readArtifact(in),
+            MavenArtifactState.valueOf(in.readString()),
+            in.readNullable(MavenProjectStateCodec::readArtifact),
+            in.readString(),
+            in.readString(),
+            in.readString()
+        );
+        result.setDependencies(in.readList(i -> readArtifactNode(i, result)));
+        return result;
+    }
+
+    private static void writePlugin(Output out, MavenPlugin plugin) throws IOException {
+        out.writeString(plugin.getGroupId());
+        out.writeString(plugin.getArtifactId());
+        out.writeString(plugin.getVersion());
+        out.writeBoolean(plugin.isDefault());
+        out.writeBoolean(plugin.isExtensions());
+        out.writeNullable(plugin.getConfigurationElement(), MavenProjectStateCodec::writeElement);
+        out.writeList(plugin.getExecutions(), (o, execution) -> {
+            o.writeString(execution.getExecutionId());
+            o.writeString(execution.getPhase());
+            o.writeStrings(execution.getGoals());
+            o.writeNullable(execution.getConfigurationElement(), MavenProjectStateCodec::writeElement);
+        });
+        out.writeList(plugin.getDependencies(), MavenProjectStateCodec::writeMavenId);
+    }
+
+    private static MavenPlugin readPlugin(Input in) throws IOException {
+        return new MavenPlugin(
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readBoolean(),
+            in.readBoolean(),
+            in.readNullable(MavenProjectStateCodec::readElement),
+            in.readList(i -> new MavenPlugin.Execution(
+                i.readString(),
+                i.readString(),
+                i.readStrings(new ArrayList<>()),
+                i.readNullable(MavenProjectStateCodec::readElement)
+            )),
+            in.readList(MavenProjectStateCodec::readMavenId)
+        );
+    }
+
+    private static final int CONTENT_ELEMENT = 1;
+    private static final int CONTENT_TEXT = 2;
+
+    private static void writeElement(Output out, Element element) throws IOException {
+        out.writeString(element.getName());
+
+        List<?> attributes = element.getAttributes();
+        out.writeInt(attributes.size());
+        for (Object each : attributes) {
+            Attribute attribute = (Attribute)each;
+            out.writeString(attribute.getName());
+            out.writeString(attribute.getValue());
+        }
+
+        List<Object> content = new ArrayList<>();
+        for (Object each : element.getContent()) {
+            if (each instanceof Element || each instanceof Text) {
+                content.add(each);
+            }
+        }
+        out.writeInt(content.size());
+        for (Object each : content) {
+            if (each instanceof Element) {
+                out.writeInt(CONTENT_ELEMENT);
+                writeElement(out, (Element)each);
+            }
+            else {
+                out.writeInt(CONTENT_TEXT);
+                out.writeString(((Text)each).getText());
+            }
+        }
+    }
+
+    private static Element readElement(Input in) throws IOException {
+        Element result = new Element(in.readString());
+
+        int attributes = in.readInt();
+        while (attributes-- > 0) {
+            result.setAttribute(in.readString(), in.readString());
+        }
+
+        int content = in.readInt();
+        while (content-- > 0) {
+            int kind = in.readInt();
+            if (kind == CONTENT_ELEMENT) {
+                result.addContent(readElement(in));
+            }
+            else if (kind == CONTENT_TEXT) {
+                result.addContent(new Text(in.readString()));
+            }
+            else {
+                throw new IOException("Unknown content kind " + kind);
+            }
+        }
+        return result;
+    }
+
+    private static void writeRemoteRepository(Output out, MavenRemoteRepository repository) throws IOException {
+        out.writeString(repository.getId());
+        out.writeString(repository.getName());
+        out.writeString(repository.getUrl());
+        out.writeString(repository.getLayout());
+        out.writeNullable(repository.getReleasesPolicy(), MavenProjectStateCodec::writePolicy);
+        out.writeNullable(repository.getSnapshotsPolicy(), MavenProjectStateCodec::writePolicy);
+    }
+
+    private static MavenRemoteRepository readRemoteRepository(Input in) throws IOException {
+        return new MavenRemoteRepository(
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readString(),
+            in.readNullable(MavenProjectStateCodec::readPolicy),
+            in.readNullable(MavenProjectStateCodec::readPolicy)
+        );
+    }
+
+    private static void writePolicy(Output out, MavenRemoteRepository.Policy policy) throws IOException {
+        out.writeBoolean(policy.isEnabled());
+        out.writeString(policy.getUpdatePolicy());
+        out.writeString(policy.getChecksumPolicy());
+    }
+
+    private static MavenRemoteRepository.Policy readPolicy(Input in) throws IOException {
+        return new MavenRemoteRepository.Policy(in.readBoolean(), in.readString(), in.readString());
+    }
+
+    private static void writeProblem(Output out, MavenProjectProblem problem) throws IOException {
+        out.writeString(problem.getPath());
+        out.writeString(problem.getDescription());
+        out.writeString(problem.getType() == null ? null : problem.getType().name());
+        out.writeBoolean(problem.isError());
+        out.writeNullable(problem.getMavenArtifact(), MavenProjectStateCodec::writeArtifact);
+    }
+
+    private static MavenProjectProblem readProblem(Input in) throws IOException {
+        String path = in.readString();
+        String description = in.readString();
+        String type = in.readString();
+        return new MavenProjectProblem(
+            path,
+            description,
+            type == null ? null : MavenProjectProblem.ProblemType.valueOf(type),
+            in.readBoolean(),
+            in.readNullable(MavenProjectStateCodec::readArtifact)
+        );
+    }
+
+    /**
+     * Encodes a model read from a pom.xml, before inheritance and profiles are applied, see {@link MavenProjectReader}.
+     */
+    @Nonnull
+    static byte[] encodeRawModel(@Nonnull MavenModel model, @Nonnull Collection<String> alwaysOnProfiles) throws IOException {
+        BufferExposingByteArrayOutputStream body = new BufferExposingByteArrayOutputStream();
+        Output out = new Output(new DataOutputStream(body));
+        out.writeNullable(model.getMavenId(), MavenProjectStateCodec::writeMavenId);
+        out.writeNullable(model.getParent(), (o, parent) -> {
+            writeMavenId(o, parent.getMavenId());
+            o.writeString(parent.getRelativePath());
+        });
+        out.writeString(model.getPackaging());
+        out.writeString(model.getName());
+        writeModelBase(out, model, model.getBuild());
+
+        MavenBuild build = model.getBuild();
+        out.writeStrings(build.getSources());
+        out.writeStrings(build.getTestSources());
+        out.writeString(build.getOutputDirectory());
+        out.writeString(build.getTestOutputDirectory());
+
+        out.writeList(model.getProfiles(), (o, profile) -> {
+            o.writeString(profile.getId());
+            o.writeString(profile.getSource());
+            o.writeNullable(profile.getActivation(), MavenProjectStateCodec::writeActivation);
+            writeModelBase(o, profile, profile.getBuild());
+        });
+        out.writeStrings(alwaysOnProfiles);
+        out.myOut.flush();
+
+        BufferExposingByteArrayOutputStream result = new BufferExposingByteArrayOutputStream();
+        DataOutputStream resultStream = new DataOutputStream(result);
+        out.writeStringTable(resultStream);
+        resultStream.write(body.getInternalBuffer(), 0, body.size());
+        resultStream.flush();
+        return result.toByteArray();
+    }
+
+    /**
+     * Decodes a model written by {@link #encodeRawModel} into new objects, adding its always-on profiles to {@code alwaysOnProfiles}.
+     */
+    @Nonnull
+    static MavenModel decodeRawModel(@Nonnull byte[] bytes, @Nonnull Collection<String> alwaysOnProfiles) throws IOException {
+        Input in = new Input(new DataInputStream(new ByteArrayInputStream(bytes)));
+        MavenModel model = new MavenModel();
+        model.setMavenId(in.readNullable(MavenProjectStateCodec::readMavenId));
+        model.setParent(in.readNullable(i -> new MavenParent(readMavenId(i), i.readString())));
+        model.setPackaging(in.readString());
+        model.setName(in.readString());
+        readModelBase(in, model, model.getBuild());
+
+        MavenBuild build = model.getBuild();
+        build.setSources(in.readStrings(new ArrayList<>()));
+        build.setTestSources(in.readStrings(new ArrayList<>()));
+        build.setOutputDirectory(in.readString());
+        build.setTestOutputDirectory(in.readString());
+
+        model.setProfiles(in.readList(i -> {
+            MavenProfile profile = new MavenProfile(i.readString(), i.readString());
+            profile.setActivation(i.readNullable(MavenProjectStateCodec::readActivation));
+            readModelBase(i, profile, profile.getBuild());
+            return profile;
+        }));
+        in.readStrings(alwaysOnProfiles);
+        return model;
+    }
+
+    private static void writeModelBase(Output out, MavenModelBase modelBase, MavenBuildBase build) throws IOException {
+        out.writeStrings(modelBase.getModules());
+        writeProperties(out, modelBase.getProperties());
+        out.writeString(build.getFinalName());
+        out.writeString(build.getDefaultGoal());
+        out.writeString(build.getDirectory());
+        out.writeList(build.getResources(), MavenProjectStateCodec::writeResource);
+        out.writeList(build.getTestResources(), MavenProjectStateCodec::writeResource);
+        out.writeStrings(build.getFilters());
+    }
+
+    private static void readModelBase(Input in, MavenModelBase modelBase, MavenBuildBase build) throws IOException {
+        modelBase.setModules(in.readStrings(new ArrayList<>()));
+        modelBase.setProperties(readProperties(in));
+        build.setFinalName(in.readString());
+        build.setDefaultGoal(in.readString());
+        build.setDirectory(in.readString());
+        build.setResources(in.readList(MavenProjectStateCodec::readResource));
+        build.setTestResources(in.readList(MavenProjectStateCodec::readResource));
+        build.setFilters(in.readStrings(new ArrayList<>()));
+    }
+
+    private static void writeActivation(Output out, MavenProfileActivation activation) throws IOException {
+        out.writeBoolean(activation.isActiveByDefault());
+        out.writeString(activation.getJdk());
+        out.writeNullable(activation.getOs(), (o, os) -> {
+            o.writeString(os.getName());
+            o.writeString(os.getFamily());
+            o.writeString(os.getArch());
+            o.writeString(os.getVersion());
+        });
+        out.writeNullable(activation.getProperty(), (o, property) -> {
+            o.writeString(property.getName());
+            o.writeString(property.getValue());
+        });
+        out.writeNullable(activation.getFile(), (o, file) -> {
+            o.writeString(file.getExists());
+            o.writeString(file.getMissing());
+        });
+    }
+
+    private static MavenProfileActivation readActivation(Input in) throws IOException {
+        MavenProfileActivation result = new MavenProfileActivation();
+        result.setActiveByDefault(in.readBoolean());
+        result.setJdk(in.readString());
+        result.setOs(in.readNullable(i -> new MavenProfileActivationOS(i.readString(), i.readString(), i.readString(), i.readString())));
+        result.setProperty(in.readNullable(i -> new MavenProfileActivationProperty(i.readString(), i.readString())));
+        result.setFile(in.readNullable(i -> new MavenProfileActivationFile(i.readString(), i.readString())));
+        return result;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte() & 0xFF;
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
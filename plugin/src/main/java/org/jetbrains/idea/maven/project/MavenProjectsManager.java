@@ -103,6 +103,8 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
     private MavenProjectsProcessor myFoldersResolvingProcessor;
     private MavenProjectsProcessor myArtifactsDownloadingProcessor;
     private MavenProjectsProcessor myPostProcessor;
+    // replaced when the projects are read again, so the plugins resolved for one sync are shared by its projects only
+    private volatile MavenPluginsResolver myPluginsResolver = new MavenPluginsResolver();
 
     private MavenMergingUpdateQueue myImportingQueue;
     private final Object myImportingDataLock = new Object();
@@ -110,6 +112,8 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
     private final Set<MavenProject> myProjectsToResolve = new LinkedHashSet<>();
 
     private boolean myImportModuleGroupsRequired = false;
+    // explicit reimports in progress; their imports configure unchanged modules again instead of skipping them
+    private int myExplicitReimports = 0;
 
     private final EventDispatcher<MavenProjectsTree.Listener> myProjectsTreeDispatcher =
         EventDispatcher.create(MavenProjectsTree.Listener.class);
@@ -291,12 +295,23 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
     private void initWorkers() {
         myReadingProcessor = new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenReading().get(), false, myEmbeddersManager);
         myResolvingProcessor = new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenResolving().get(), true, myEmbeddersManager);
-        myPluginsResolvingProcessor =
-            new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenDownloadingPlugins().get(), true, myEmbeddersManager);
+        // plugins of different projects and separate downloads do not depend on each other, so they may use the pooled embedders at once
+        myPluginsResolvingProcessor = new MavenProjectsProcessor(
+            myProject,
+            MavenProjectLocalize.mavenDownloadingPlugins().get(),
+            true,
+            myEmbeddersManager,
+            myEmbeddersManager.getPoolSizePerKind()
+        );
         myFoldersResolvingProcessor =
             new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenUpdatingFolders().get(), true, myEmbeddersManager);
-        myArtifactsDownloadingProcessor =
-            new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenDownloading().get(), true, myEmbeddersManager);
+        myArtifactsDownloadingProcessor = new MavenProjectsProcessor(
+            myProject,
+            MavenProjectLocalize.mavenDownloading().get(),
+            true,
+            myEmbeddersManager,
+            myEmbeddersManager.getPoolSizePerKind()
+        );
         myPostProcessor = new MavenProjectsProcessor(myProject, MavenProjectLocalize.mavenPostProcessing().get(), true, myEmbeddersManager);
 
         myWatcher =
@@ -346,6 +361,7 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
             @Override
             public void projectsUpdated(List<Pair<MavenProject, MavenProjectChanges>> updated, List<MavenProject> deleted) {
                 myEmbeddersManager.clearCaches();
+                myPluginsResolver = new MavenPluginsResolver();
 
                 unscheduleAllTasks(deleted);
 
@@ -770,6 +786,16 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
         final boolean forceImportAndResolve
     ) {
         final AsyncResult<Void> promise = new AsyncResult<>();
+        if (forceUpdate) {
+            synchronized (myImportingDataLock) {
+                myExplicitReimports++;
+            }
+            promise.doWhenProcessed(() -> {
+                synchronized (myImportingDataLock) {
+                    myExplicitReimports--;
+                }
+            });
+        }
         MavenUtil.runWhenInitialized(
             myProject,
             () -> {
@@ -915,21 +941,17 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
     public void scheduleFoldersResolve(final Collection<MavenProject> projects) {
         runWhenFullyOpen(() ->
         {
-            Iterator<MavenProject> it = projects.iterator();
-            while (it.hasNext()) {
-                MavenProject each = it.next();
-                Runnable onCompletion = it.hasNext() ? null : () -> {
-                    if (hasScheduledProjects()) {
-                        scheduleImport();
-                    }
-                };
-                myFoldersResolvingProcessor.scheduleTask(new MavenProjectsProcessorFoldersResolvingTask(
-                    each,
-                    getImportingSettings(),
-                    myProjectsTree,
-                    onCompletion
-                ));
+            Runnable onCompletion = () -> {
+                if (hasScheduledProjects()) {
+                    scheduleImport();
+                }
+            };
+            List<MavenProjectsProcessorTask> tasks = new ArrayList<>(projects.size());
+            for (MavenProject each : projects) {
+                tasks.add(new MavenProjectsProcessorFoldersResolvingTask(each, getImportingSettings(), myProjectsTree, onCompletion));
             }
+            // scheduled at once, so they are performed in one batch
+            myFoldersResolvingProcessor.scheduleTasks(tasks);
         });
     }
 
@@ -941,7 +963,8 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
         runWhenFullyOpen(() -> myPluginsResolvingProcessor.scheduleTask(new MavenProjectsProcessorPluginsResolvingTask(
             project,
             nativeMavenProject,
-            myProjectsTree
+            myProjectsTree,
+            myPluginsResolver
         )));
     }
 
@@ -1147,11 +1170,13 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
     public CompletableFuture<Void> importProjects(final MavenModifiableModelsProvider modelsProvider) {
         final Map<MavenProject, MavenProjectChanges> projectsToImportWithChanges;
         final boolean importModuleGroupsRequired;
+        final boolean explicitReimport;
         synchronized (myImportingDataLock) {
             projectsToImportWithChanges = new LinkedHashMap<>(myProjectsToImport);
             myProjectsToImport.clear();
             importModuleGroupsRequired = myImportModuleGroupsRequired;
             myImportModuleGroupsRequired = false;
+            explicitReimport = myExplicitReimports > 0;
         }
 
         ProgressBuilderFactory factory = myProject.getApplication().getInstance(ProgressBuilderFactory.class);
@@ -1160,7 +1185,7 @@ public class MavenProjectsManager extends MavenSimpleProjectComponent implements
                 .first(CallSubroutine.<Void, List<MavenProjectsProcessorTask>>call(() -> {
                     MavenProjectImporter projectImporter = new MavenProjectImporter(
                         myProject, myProjectsTree, getFileToModuleMapping(modelsProvider), projectsToImportWithChanges,
-                        importModuleGroupsRequired, modelsProvider, getImportingSettings()
+                        importModuleGroupsRequired, explicitReimport, modelsProvider, getImportingSettings()
                     );
                     return projectImporter.importProjectCoroutine();
                 }))
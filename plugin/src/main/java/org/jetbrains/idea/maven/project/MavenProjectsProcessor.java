@@ -16,15 +16,23 @@
 package org.jetbrains.idea.maven.project;
 
 import consulo.application.Application;
-import consulo.application.util.Semaphore;
+import consulo.application.util.concurrent.AppExecutorUtil;
 import consulo.project.Project;
+import jakarta.annotation.Nullable;
+import org.jetbrains.idea.maven.buildtool.MavenSyncConsole;
 import org.jetbrains.idea.maven.utils.MavenLog;
 import org.jetbrains.idea.maven.utils.MavenProcessCanceledException;
 import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
 import org.jetbrains.idea.maven.utils.MavenUtil;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 public class MavenProjectsProcessor {
@@ -32,17 +40,34 @@ public class MavenProjectsProcessor {
     private final String myTitle;
     private final boolean myCancellable;
     private final MavenEmbeddersManager myEmbeddersManager;
+    private final int myParallelism;
 
-    private final Queue<MavenProjectsProcessorTask> myQueue = new LinkedList<>();
+    // pending tasks in scheduling order; equal tasks are queued once
+    private final LinkedHashSet<MavenProjectsProcessorTask> myQueue = new LinkedHashSet<>();
     private boolean isProcessing;
 
     private volatile boolean isStopped;
 
     public MavenProjectsProcessor(Project project, String title, boolean cancellable, MavenEmbeddersManager embeddersManager) {
+        this(project, title, cancellable, embeddersManager, 1);
+    }
+
+    /**
+     * @param parallelism how many of the queued tasks may run at once, all under the same progress indicator;
+     *                    only for tasks that do not depend on each other
+     */
+    public MavenProjectsProcessor(
+        Project project,
+        String title,
+        boolean cancellable,
+        MavenEmbeddersManager embeddersManager,
+        int parallelism
+    ) {
         myProject = project;
         myTitle = title;
         myCancellable = cancellable;
         myEmbeddersManager = embeddersManager;
+        myParallelism = Math.max(1, parallelism);
     }
 
     public void scheduleTask(MavenProjectsProcessorTask task) {
@@ -52,13 +77,26 @@ public class MavenProjectsProcessor {
                 startProcessing(task);
                 return;
             }
-            if (myQueue.contains(task)) {
-                return;
-            }
             myQueue.add(task);
         }
     }
 
+    /**
+     * Schedules the tasks at once, so the {@link MavenProjectsProcessorBatchTask batch tasks} among them are performed together.
+     */
+    public void scheduleTasks(Collection<? extends MavenProjectsProcessorTask> tasks) {
+        synchronized (myQueue) {
+            myQueue.addAll(tasks);
+            if (!isProcessing && !Application.get().isUnitTestMode()) {
+                MavenProjectsProcessorTask task = pollTask();
+                if (task != null) {
+                    isProcessing = true;
+                    startProcessing(task);
+                }
+            }
+        }
+    }
+
     public void removeTask(MavenProjectsProcessorTask task) {
         synchronized (myQueue) {
             myQueue.remove(task);
@@ -72,20 +110,25 @@ public class MavenProjectsProcessor {
 
         if (Application.get().isUnitTestMode()) {
             synchronized (myQueue) {
-                while (!myQueue.isEmpty()) {
-                    startProcessing(myQueue.poll());
+                MavenProjectsProcessorTask task;
+                while ((task = pollTask()) != null) {
+                    startProcessing(task);
                 }
             }
             return;
         }
 
-        Semaphore semaphore = new Semaphore();
-        semaphore.down();
-        scheduleTask((project, embeddersManager, console, indicator) -> semaphore.up());
-
-        while (true) {
-            if (isStopped || semaphore.waitFor(1000)) {
-                return;
+        // a task queued to signal the completion could be taken by a worker while the earlier tasks still run,
+        // so wait until the queue is drained and the workers are joined
+        synchronized (myQueue) {
+            while (isProcessing && !isStopped) {
+                try {
+                    myQueue.wait(1000);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
     }
@@ -94,9 +137,40 @@ public class MavenProjectsProcessor {
         isStopped = true;
         synchronized (myQueue) {
             myQueue.clear();
+            myQueue.notifyAll();
         }
     }
 
+    @Nullable
+    private MavenProjectsProcessorTask pollTask() {
+        Iterator<MavenProjectsProcessorTask> iterator = myQueue.iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        MavenProjectsProcessorTask result = iterator.next();
+        iterator.remove();
+        return result;
+    }
+
+    /**
+     * @return the task followed by the queued tasks of its class, which are removed from the queue
+     */
+    private List<MavenProjectsProcessorTask> pollBatch(MavenProjectsProcessorTask task) {
+        List<MavenProjectsProcessorTask> result = new ArrayList<>();
+        result.add(task);
+        synchronized (myQueue) {
+            Iterator<MavenProjectsProcessorTask> iterator = myQueue.iterator();
+            while (iterator.hasNext()) {
+                MavenProjectsProcessorTask each = iterator.next();
+                if (each.getClass() == task.getClass()) {
+                    result.add(each);
+                    iterator.remove();
+                }
+            }
+        }
+        return result;
+    }
+
     private void startProcessing(MavenProjectsProcessorTask task) {
         MavenUtil.runInBackground(
             myProject,
@@ -120,32 +194,28 @@ public class MavenProjectsProcessor {
 
     private void doProcessPendingTasks(MavenProgressIndicator indicator, MavenProjectsProcessorTask task)
         throws MavenProcessCanceledException {
-        int counter = 0;
+        AtomicInteger counter = new AtomicInteger();
         try {
             while (true) {
-                indicator.checkCanceled();
-                counter++;
-
-                int remained;
-                synchronized (myQueue) {
-                    remained = myQueue.size();
-                }
-                indicator.setFraction(counter / (double)(counter + remained));
-
+                List<CompletableFuture<Void>> workers = startWorkers(indicator, counter);
                 try {
-                    task.perform(myProject, myEmbeddersManager, MavenProjectsManager.getInstance(myProject).getSyncConsole(), indicator);
+                    processTasks(indicator, counter, task);
                 }
                 catch (MavenProcessCanceledException e) {
+                    if (!workers.isEmpty()) {
+                        indicator.cancel();
+                    }
                     throw e;
                 }
-                catch (Throwable e) {
-                    MavenLog.LOG.error(e);
+                finally {
+                    joinWorkers(workers);
                 }
 
                 synchronized (myQueue) {
-                    task = myQueue.poll();
+                    task = pollTask();
                     if (task == null) {
                         isProcessing = false;
+                        myQueue.notifyAll();
                         return;
                     }
                 }
@@ -155,8 +225,94 @@ public class MavenProjectsProcessor {
             synchronized (myQueue) {
                 myQueue.clear();
                 isProcessing = false;
+                myQueue.notifyAll();
             }
             throw e;
         }
     }
+
+    /**
+     * Starts the workers that drain the queue next to the background job's own thread, as many as there are queued tasks for.
+     */
+    private List<CompletableFuture<Void>> startWorkers(MavenProgressIndicator indicator, AtomicInteger counter) {
+        int count;
+        synchronized (myQueue) {
+            count = Math.min(myParallelism - 1, myQueue.size());
+        }
+
+        List<CompletableFuture<Void>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(CompletableFuture.runAsync(
+                () -> {
+                    MavenProjectsProcessorTask task;
+                    synchronized (myQueue) {
+                        task = pollTask();
+                    }
+                    try {
+                        processTasks(indicator, counter, task);
+                    }
+                    catch (MavenProcessCanceledException e) {
+                        // cancels the other workers too, they check the same indicator
+                        indicator.cancel();
+                        throw new CompletionException(e);
+                    }
+                },
+                AppExecutorUtil.getAppExecutorService()
+            ));
+        }
+        return result;
+    }
+
+    private static void joinWorkers(List<CompletableFuture<Void>> workers) throws MavenProcessCanceledException {
+        try {
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof MavenProcessCanceledException canceledException) {
+                throw canceledException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Performs the task and then the queued ones until the queue is empty.
+     */
+    private void processTasks(MavenProgressIndicator indicator, AtomicInteger counter, @Nullable MavenProjectsProcessorTask task)
+        throws MavenProcessCanceledException {
+        while (task != null) {
+            indicator.checkCanceled();
+            List<MavenProjectsProcessorTask> batch = task instanceof MavenProjectsProcessorBatchTask ? pollBatch(task) : null;
+            int performed = counter.addAndGet(batch == null ? 1 : batch.size());
+
+            int remained;
+            synchronized (myQueue) {
+                remained = myQueue.size();
+            }
+            indicator.setFraction(performed / (double)(performed + remained));
+
+            try {
+                MavenSyncConsole console = MavenProjectsManager.getInstance(myProject).getSyncConsole();
+                if (batch != null) {
+                    ((MavenProjectsProcessorBatchTask)task).performBatch(batch, myProject, myEmbeddersManager, console, indicator);
+                }
+                else {
+                    task.perform(myProject, myEmbeddersManager, console, indicator);
+                }
+            }
+            catch (MavenProcessCanceledException e) {
+                throw e;
+            }
+            catch (Throwable e) {
+                MavenLog.LOG.error(e);
+            }
+
+            synchronized (myQueue) {
+                task = pollTask();
+            }
+        }
+    }
 }
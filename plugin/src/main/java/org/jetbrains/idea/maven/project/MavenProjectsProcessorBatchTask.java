@@ -0,0 +1,39 @@
+/*
+ * Copyright 2000-2009 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.project.Project;
+import org.jetbrains.idea.maven.buildtool.MavenSyncConsole;
+import org.jetbrains.idea.maven.utils.MavenProcessCanceledException;
+import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
+
+import java.util.List;
+
+/**
+ * A task that {@link MavenProjectsProcessor} performs together with the tasks of the same class queued when it starts.
+ */
+public interface MavenProjectsProcessorBatchTask extends MavenProjectsProcessorTask {
+    /**
+     * @param batch this task followed by the other tasks of its class, in scheduling order
+     */
+    void performBatch(
+        List<MavenProjectsProcessorTask> batch,
+        Project project,
+        MavenEmbeddersManager embeddersManager,
+        MavenSyncConsole console,
+        MavenProgressIndicator indicator
+    ) throws MavenProcessCanceledException;
+}
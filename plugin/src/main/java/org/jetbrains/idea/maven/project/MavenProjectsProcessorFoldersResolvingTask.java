@@ -18,12 +18,22 @@ package org.jetbrains.idea.maven.project;
 import jakarta.annotation.Nonnull;
 
 import consulo.project.Project;
+import consulo.util.collection.ContainerUtil;
 import jakarta.annotation.Nullable;
 import org.jetbrains.idea.maven.buildtool.MavenSyncConsole;
 import org.jetbrains.idea.maven.utils.MavenProcessCanceledException;
 import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
 
-public class MavenProjectsProcessorFoldersResolvingTask extends MavenProjectsProcessorBasicTask {
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resolves the folders of one project; the queued tasks are performed together, so the projects of a multimodule root
+ * share a single Maven build.
+ */
+public class MavenProjectsProcessorFoldersResolvingTask extends MavenProjectsProcessorBasicTask implements MavenProjectsProcessorBatchTask {
     @Nonnull
     private final MavenImportingSettings myImportingSettings;
     @Nullable
@@ -43,9 +53,30 @@ public class MavenProjectsProcessorFoldersResolvingTask extends MavenProjectsPro
     @Override
     public void perform(Project project, MavenEmbeddersManager embeddersManager, MavenSyncConsole console, MavenProgressIndicator indicator)
         throws MavenProcessCanceledException {
-        myTree.resolveFolders(myMavenProject, myImportingSettings, embeddersManager, console, indicator);
-        if (myOnCompletion != null) {
-            myOnCompletion.run();
+        performBatch(List.of(this), project, embeddersManager, console, indicator);
+    }
+
+    @Override
+    public void performBatch(
+        List<MavenProjectsProcessorTask> batch,
+        Project project,
+        MavenEmbeddersManager embeddersManager,
+        MavenSyncConsole console,
+        MavenProgressIndicator indicator
+    ) throws MavenProcessCanceledException {
+        List<MavenProject> projects = new ArrayList<>(batch.size());
+        for (MavenProjectsProcessorTask each : batch) {
+            projects.add(((MavenProjectsProcessorFoldersResolvingTask)each).myMavenProject);
+        }
+        myTree.resolveFolders(projects, myImportingSettings, embeddersManager, console, indicator);
+
+        // the tasks scheduled together share their completion, it runs once
+        Set<Runnable> completions = new LinkedHashSet<>();
+        for (MavenProjectsProcessorTask each : batch) {
+            ContainerUtil.addIfNotNull(completions, ((MavenProjectsProcessorFoldersResolvingTask)each).myOnCompletion);
+        }
+        for (Runnable each : completions) {
+            each.run();
         }
     }
 }
@@ -23,19 +23,22 @@ import org.jetbrains.idea.maven.utils.MavenProgressIndicator;
 
 public class MavenProjectsProcessorPluginsResolvingTask extends MavenProjectsProcessorBasicTask {
     private final NativeMavenProjectHolder myNativeMavenProject;
+    private final MavenPluginsResolver myPluginsResolver;
 
     public MavenProjectsProcessorPluginsResolvingTask(
         MavenProject project,
         NativeMavenProjectHolder nativeMavenProject,
-        MavenProjectsTree tree
+        MavenProjectsTree tree,
+        MavenPluginsResolver pluginsResolver
     ) {
         super(project, tree);
         myNativeMavenProject = nativeMavenProject;
+        myPluginsResolver = pluginsResolver;
     }
 
     @Override
     public void perform(Project project, MavenEmbeddersManager embeddersManager, MavenSyncConsole console, MavenProgressIndicator indicator)
         throws MavenProcessCanceledException {
-        myTree.resolvePlugins(myMavenProject, myNativeMavenProject, embeddersManager, console, indicator);
+        myTree.resolvePlugins(myMavenProject, myNativeMavenProject, myPluginsResolver, embeddersManager, console, indicator);
     }
 }
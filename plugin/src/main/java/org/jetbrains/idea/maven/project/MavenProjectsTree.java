@@ -24,14 +24,15 @@ import consulo.maven.rt.server.common.server.NativeMavenProjectHolder;
 import consulo.module.Module;
 import consulo.module.content.ProjectFileIndex;
 import consulo.project.Project;
-import consulo.util.collection.HashingStrategy;
 import consulo.util.collection.Lists;
-import consulo.util.collection.Sets;
+import consulo.util.collection.Maps;
 import consulo.util.collection.Stack;
 import consulo.util.dataholder.Key;
+import consulo.util.io.BufferExposingByteArrayOutputStream;
 import consulo.util.io.FileUtil;
 import consulo.util.lang.Comparing;
 import consulo.util.lang.Pair;
+import consulo.util.lang.StringUtil;
 import consulo.virtualFileSystem.LocalFileSystem;
 import consulo.virtualFileSystem.VirtualFile;
 import org.jdom.Element;
@@ -52,6 +53,11 @@ import java.io.*;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
@@ -61,7 +67,12 @@ import java.util.zip.CRC32;
 public class MavenProjectsTree {
     private static final Logger LOG = Logger.getInstance(MavenProjectsTree.class);
 
-    private static final String STORAGE_VERSION = MavenProjectsTree.class.getSimpleName() + ".6";
+    private static final String STORAGE_VERSION = MavenProjectsTree.class.getSimpleName() + ".10";
+
+    /**
+     * Builder threads of the Maven build generating the sources of a multimodule root, 1 keeps the build single-threaded.
+     */
+    private static final int FOLDERS_RESOLVE_THREADS = Math.max(1, Integer.getInteger("idea.maven.folders.resolve.threads", 1));
 
     private final Object myStateLock = new Object();
     private final ReentrantReadWriteLock myStructureLock = new ReentrantReadWriteLock();
@@ -87,6 +98,12 @@ public class MavenProjectsTree {
     private final Map<MavenProject, List<MavenProject>> myAggregatorToModuleMapping = new HashMap<>();
     private final Map<MavenProject, MavenProject> myModuleToAggregatorMapping = new HashMap<>();
 
+    // secondary indexes, maintained by fillIDMaps/clearIDMaps
+    private final Map<MavenProject, IndexedKeys> myIndexedKeys = new HashMap<>();
+    private final Map<MavenId, Set<MavenProject>> myParentIdToInheritorsMapping = new HashMap<>();
+    private final Map<MavenId, Set<MavenProject>> myDependencyIdToDependentsMapping = new HashMap<>();
+    private final Map<File, Set<MavenProject>> myModuleFileToAggregatorsMapping = Maps.newHashMap(FileUtil.FILE_HASHING_STRATEGY);
+
     private final List<Listener> myListeners = Lists.newLockFreeCopyOnWriteList();
 
     private final MavenProjectReaderProjectLocator myProjectLocator = coordinates -> {
@@ -108,7 +125,8 @@ public class MavenProjectsTree {
                 result.myIgnoredFilesPatterns = readCollection(in, new ArrayList<>());
                 result.myExplicitProfiles =
                     new MavenExplicitProfiles(readCollection(in, new HashSet<>()), readCollection(in, new HashSet<>()));
-                result.myRootProjects.addAll(readProjectsRecursively(in, result));
+                MavenProjectStateCodec.Input projectsIn = new MavenProjectStateCodec.Input(in);
+                result.myRootProjects.addAll(readProjectsRecursively(in, projectsIn, result));
             }
             catch (IOException e) {
                 in.close();
@@ -137,13 +155,17 @@ public class MavenProjectsTree {
         }
     }
 
-    private static List<MavenProject> readProjectsRecursively(DataInputStream in, MavenProjectsTree tree) throws IOException {
-        int count = in.readInt();
+    private static List<MavenProject> readProjectsRecursively(
+        DataInputStream in,
+        MavenProjectStateCodec.Input projectsIn,
+        MavenProjectsTree tree
+    ) throws IOException {
+        int count = projectsIn.readInt();
         List<MavenProject> result = new ArrayList<>(count);
         while (count-- > 0) {
-            MavenProject project = MavenProject.read(in);
+            MavenProject project = MavenProject.read(projectsIn);
             MavenProjectTimestamp timestamp = MavenProjectTimestamp.read(in);
-            List<MavenProject> modules = readProjectsRecursively(in, tree);
+            List<MavenProject> modules = readProjectsRecursively(in, projectsIn, tree);
             if (project != null) {
                 result.add(project);
                 tree.myTimestamps.put(project, timestamp);
@@ -170,7 +192,16 @@ public class MavenProjectsTree {
                     writeCollection(out, myIgnoredFilesPatterns);
                     writeCollection(out, myExplicitProfiles.getEnabledProfiles());
                     writeCollection(out, myExplicitProfiles.getDisabledProfiles());
-                    writeProjectsRecursively(out, myRootProjects);
+
+                    // the string table has to precede the projects, so they are encoded into a buffer first
+                    BufferExposingByteArrayOutputStream projectsBytes = new BufferExposingByteArrayOutputStream();
+                    DataOutputStream projectsStream = new DataOutputStream(projectsBytes);
+                    MavenProjectStateCodec.Output projectsOut = new MavenProjectStateCodec.Output(projectsStream);
+                    writeProjectsRecursively(projectsStream, projectsOut, myRootProjects);
+                    projectsStream.flush();
+
+                    projectsOut.writeStringTable(out);
+                    out.write(projectsBytes.getInternalBuffer(), 0, projectsBytes.size());
                 }
             }
             finally {
@@ -179,12 +210,16 @@ public class MavenProjectsTree {
         }
     }
 
-    private void writeProjectsRecursively(DataOutputStream out, List<MavenProject> list) throws IOException {
-        out.writeInt(list.size());
+    private void writeProjectsRecursively(
+        DataOutputStream out,
+        MavenProjectStateCodec.Output projectsOut,
+        List<MavenProject> list
+    ) throws IOException {
+        projectsOut.writeInt(list.size());
         for (MavenProject each : list) {
-            each.write(out);
+            each.write(projectsOut);
             myTimestamps.get(each).write(out);
-            writeProjectsRecursively(out, getModules(each));
+            writeProjectsRecursively(out, projectsOut, getModules(each));
         }
     }
 
@@ -490,13 +525,7 @@ public class MavenProjectsTree {
     ) {
         MavenProject newMavenProject = new MavenProject(f);
 
-        MavenProject intendedAggregator = null;
-        for (MavenProject each : getProjects()) {
-            if (each.getExistingModuleFiles().contains(f)) {
-                intendedAggregator = each;
-                break;
-            }
-        }
+        MavenProject intendedAggregator = findIntendedAggregator(f);
 
         doUpdate(
             newMavenProject,
@@ -827,12 +856,86 @@ public class MavenProjectsTree {
         MavenId id = mavenProject.getMavenId();
         myWorkspaceMap.register(id, new File(mavenProject.getFile().getPath()));
         myMavenIdToProjectMapping.put(id, mavenProject);
+        fillIndexes(mavenProject);
     }
 
     private void clearIDMaps(MavenProject mavenProject) {
         MavenId id = mavenProject.getMavenId();
         myWorkspaceMap.unregister(id);
         myMavenIdToProjectMapping.remove(id);
+        clearIndexes(mavenProject);
+    }
+
+    private void fillIndexes(MavenProject mavenProject) {
+        clearIndexes(mavenProject);
+
+        MavenId parentId = mavenProject.getParentId();
+
+        Set<MavenId> dependencyIds = new HashSet<>();
+        for (MavenArtifact each : mavenProject.getDependencies()) {
+            dependencyIds.add(new MavenId(each.getGroupId(), each.getArtifactId(), each.getVersion()));
+        }
+
+        Set<File> moduleFiles = new HashSet<>();
+        for (String each : mavenProject.getModulePaths()) {
+            moduleFiles.add(new File(each));
+        }
+
+        IndexedKeys keys = new IndexedKeys(parentId, dependencyIds, moduleFiles);
+        myIndexedKeys.put(mavenProject, keys);
+
+        if (parentId != null) {
+            addToIndex(myParentIdToInheritorsMapping, parentId, mavenProject);
+        }
+        for (MavenId each : keys.dependencyIds) {
+            addToIndex(myDependencyIdToDependentsMapping, each, mavenProject);
+        }
+        for (File each : keys.moduleFiles) {
+            addToIndex(myModuleFileToAggregatorsMapping, each, mavenProject);
+        }
+    }
+
+    private void clearIndexes(MavenProject mavenProject) {
+        IndexedKeys keys = myIndexedKeys.remove(mavenProject);
+        if (keys == null) {
+            return;
+        }
+
+        if (keys.parentId != null) {
+            removeFromIndex(myParentIdToInheritorsMapping, keys.parentId, mavenProject);
+        }
+        for (MavenId each : keys.dependencyIds) {
+            removeFromIndex(myDependencyIdToDependentsMapping, each, mavenProject);
+        }
+        for (File each : keys.moduleFiles) {
+            removeFromIndex(myModuleFileToAggregatorsMapping, each, mavenProject);
+        }
+    }
+
+    /**
+     * Dependencies of a project change on resolve without re-reading it, so indexes have to be refreshed separately.
+     */
+    private void updateIndexes(MavenProject mavenProject) {
+        writeLock();
+        try {
+            if (myIndexedKeys.containsKey(mavenProject)) {
+                fillIndexes(mavenProject);
+            }
+        }
+        finally {
+            writeUnlock();
+        }
+    }
+
+    private static <K> void addToIndex(Map<K, Set<MavenProject>> index, K key, MavenProject project) {
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(project);
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<MavenProject>> index, K key, MavenProject project) {
+        Set<MavenProject> projects = index.get(key);
+        if (projects != null && projects.remove(project) && projects.isEmpty()) {
+            index.remove(key);
+        }
     }
 
     private void connect(MavenProject newAggregator, MavenProject project) {
@@ -1199,22 +1302,14 @@ public class MavenProjectsTree {
     public Collection<MavenProject> findInheritors(MavenProject project) {
         readLock();
         try {
-            List<MavenProject> result = null;
-            MavenId id = project.getMavenId();
-
-            for (MavenProject each : myVirtualFileToProjectMapping.values()) {
-                if (each == project) {
-                    continue;
-                }
-                if (id.equals(each.getParentId())) {
-                    if (result == null) {
-                        result = new ArrayList<>();
-                    }
-                    result.add(each);
-                }
+            Set<MavenProject> inheritors = myParentIdToInheritorsMapping.get(project.getMavenId());
+            if (inheritors == null) {
+                return Collections.emptyList();
             }
 
-            return result == null ? Collections.<MavenProject>emptyList() : result;
+            List<MavenProject> result = new ArrayList<>(inheritors);
+            result.remove(project);
+            return result;
         }
         finally {
             readUnlock();
@@ -1224,49 +1319,38 @@ public class MavenProjectsTree {
     public List<MavenProject> getDependentProjects(Collection<MavenProject> projects) {
         readLock();
         try {
-            List<MavenProject> result = null;
-
-            Set<MavenCoordinate> projectIds = Sets.newHashSet(new MavenCoordinateHashCodeStrategy());
+            Set<MavenProject> result = null;
 
             for (MavenProject project : projects) {
-                projectIds.add(project.getMavenId());
-            }
-
-            final Set<File> projectPaths = Sets.newHashSet(FileUtil.FILE_HASHING_STRATEGY);
-
-            for (MavenProject project : projects) {
-                projectPaths.add(new File(project.getFile().getPath()));
-            }
-
-            for (MavenProject project : myVirtualFileToProjectMapping.values()) {
-                boolean isDependent = false;
+                Set<MavenProject> dependents = myDependencyIdToDependentsMapping.get(project.getMavenId());
+                Set<MavenProject> aggregators = myModuleFileToAggregatorsMapping.get(new File(project.getFile().getPath()));
 
-                Set<String> pathsInStack = project.getModulePaths();
-                for (final String path : pathsInStack) {
-                    if (projectPaths.contains(new File(path))) {
-                        isDependent = true;
-                        break;
+                if (dependents != null || aggregators != null) {
+                    if (result == null) {
+                        result = new LinkedHashSet<>();
                     }
-                }
-
-                if (!isDependent) {
-                    for (MavenArtifact dep : project.getDependencies()) {
-                        if (projectIds.contains(dep)) {
-                            isDependent = true;
-                            break;
-                        }
+                    if (aggregators != null) {
+                        result.addAll(aggregators);
                     }
-                }
-
-                if (isDependent) {
-                    if (result == null) {
-                        result = new ArrayList<>();
+                    if (dependents != null) {
+                        result.addAll(dependents);
                     }
-                    result.add(project);
                 }
             }
 
-            return result == null ? Collections.<MavenProject>emptyList() : result;
+            return result == null ? Collections.<MavenProject>emptyList() : new ArrayList<>(result);
+        }
+        finally {
+            readUnlock();
+        }
+    }
+
+    @Nullable
+    private MavenProject findIntendedAggregator(VirtualFile file) {
+        readLock();
+        try {
+            Set<MavenProject> aggregators = myModuleFileToAggregatorsMapping.get(new File(file.getPath()));
+            return aggregators == null || aggregators.isEmpty() ? null : aggregators.iterator().next();
         }
         finally {
             readUnlock();
@@ -1303,6 +1387,7 @@ public class MavenProjectsTree {
             process.setText2("");
             Pair<MavenProjectChanges, NativeMavenProjectHolder> resolveResult =
                 mavenProject.resolve(project, generalSettings, embedder, new MavenProjectReader(), myProjectLocator, context);
+            updateIndexes(mavenProject);
 
             fireProjectResolved(Pair.create(mavenProject, resolveResult.first), resolveResult.second);
         }
@@ -1326,61 +1411,208 @@ public class MavenProjectsTree {
         Map<VirtualFile, List<MavenProject>> byRoot = mavenProjects.stream()
             .collect(Collectors.groupingBy(p -> findRootProject(p).getDirectoryFile()));
 
-        for (List<MavenProject> group : byRoot.values()) {
-            indicator.checkCanceled();
+        List<List<MavenProject>> groups = new ArrayList<>(byRoot.values());
+        int parallelism = Math.min(groups.size(), embeddersManager.getPoolSizePerKind());
+        if (parallelism <= 1) {
+            for (List<MavenProject> group : groups) {
+                indicator.checkCanceled();
+                setResolvingText(group, indicator);
+                fireResolved(resolveGroup(project, group, generalSettings, embeddersManager, console, context, indicator));
+            }
+            return;
+        }
 
-            // Set progress text once for the whole group with joined names, matching JetBrains approach
-            String names = group.stream()
-                .map(MavenProject::getDisplayName)
-                .collect(Collectors.joining(", "));
-            indicator.setText(MavenProjectLocalize.mavenResolvingPom(names).get());
-            indicator.setText2("");
+        // Independent roots are resolved concurrently, each worker borrowing its own pooled embedder
+        List<CompletableFuture<List<ResolvedProject>>> results = new ArrayList<>(groups.size());
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < groups.size(); i++) {
+            results.add(new CompletableFuture<>());
+            queue.add(i);
+        }
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> workers = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers.add(CompletableFuture.runAsync(
+                () -> {
+                    Integer index;
+                    while (failure.get() == null && (index = queue.poll()) != null) {
+                        try {
+                            indicator.checkCanceled();
+                            List<MavenProject> group = groups.get(index);
+                            results.get(index).complete(
+                                resolveGroup(project, group, generalSettings, embeddersManager, console, context, indicator)
+                            );
+                        }
+                        catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                            results.get(index).completeExceptionally(e);
+                        }
+                    }
+                },
+                AppExecutorUtil.getAppExecutorService()
+            ));
+        }
+        CompletableFuture<Void> allWorkers = CompletableFuture.allOf(workers.toArray(new CompletableFuture[0]));
+
+        // Listeners and the indicator are not thread-safe: progress and events are delivered from this thread, in group order
+        try {
+            for (int i = 0; i < groups.size(); i++) {
+                setResolvingText(groups.get(i), indicator);
+                List<ResolvedProject> resolved = awaitGroup(results.get(i), allWorkers, indicator);
+                if (resolved == null) break;
+                fireResolved(resolved);
+            }
+        }
+        catch (MavenProcessCanceledException | RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        }
+        allWorkers.join();
+
+        Throwable e = failure.get();
+        if (e instanceof MavenProcessCanceledException canceledException) {
+            throw canceledException;
+        }
+        if (e instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        if (e != null) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            MavenEmbedderWrapper embedder = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_DEPENDENCIES_RESOLVE);
-            embedder.customizeForResolve(getWorkspaceMap(), console, indicator, generalSettings.isAlwaysUpdateSnapshots());
+    /**
+     * @return the projects of the group, or {@code null} when the group failed or was not resolved because another one failed
+     */
+    @Nullable
+    private static List<ResolvedProject> awaitGroup(
+        CompletableFuture<List<ResolvedProject>> result,
+        CompletableFuture<Void> workers,
+        MavenProgressIndicator indicator
+    ) throws MavenProcessCanceledException {
+        while (true) {
+            indicator.checkCanceled();
             try {
-                for (MavenProject mp : group) {
+                return result.get(100, TimeUnit.MILLISECONDS);
+            }
+            catch (TimeoutException ignored) {
+                if (workers.isDone() && !result.isDone()) return null;
+            }
+            catch (ExecutionException ignored) {
+                return null;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MavenProcessCanceledException();
+            }
+        }
+    }
+
+    private static void setResolvingText(List<MavenProject> group, MavenProgressIndicator indicator) {
+        // Set progress text once for the whole group with joined names, matching JetBrains approach
+        String names = group.stream()
+            .map(MavenProject::getDisplayName)
+            .collect(Collectors.joining(", "));
+        indicator.setText(MavenProjectLocalize.mavenResolvingPom(names).get());
+        indicator.setText2("");
+    }
+
+    private void fireResolved(List<ResolvedProject> resolved) {
+        for (ResolvedProject each : resolved) {
+            updateIndexes(each.project());
+            fireProjectResolved(Pair.create(each.project(), each.changes()), each.nativeProject());
+        }
+    }
+
+    private record ResolvedProject(MavenProject project, MavenProjectChanges changes, NativeMavenProjectHolder nativeProject) {
+    }
+
+    private List<ResolvedProject> resolveGroup(
+        @Nonnull Project project,
+        @Nonnull List<MavenProject> group,
+        @Nonnull MavenGeneralSettings generalSettings,
+        @Nonnull MavenEmbeddersManager embeddersManager,
+        @Nonnull MavenSyncConsole console,
+        @Nonnull ResolveContext context,
+        @Nonnull MavenProgressIndicator indicator
+    ) throws MavenProcessCanceledException {
+        List<ResolvedProject> resolved = new ArrayList<>(group.size());
+        MavenEmbedderWrapper embedder = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_DEPENDENCIES_RESOLVE);
+        embedder.customizeForResolve(getWorkspaceMap(), console, indicator, generalSettings.isAlwaysUpdateSnapshots());
+        try {
+            // One embedder call per profile set: the whole group is built by a single ProjectBuilder invocation
+            Map<MavenExplicitProfiles, List<MavenProject>> byProfiles = new LinkedHashMap<>();
+            for (MavenProject mp : group) {
+                byProfiles.computeIfAbsent(mp.getActivatedProfilesIds(), k -> new ArrayList<>()).add(mp);
+            }
+
+            MavenProjectReader reader = new MavenProjectReader();
+            for (Map.Entry<MavenExplicitProfiles, List<MavenProject>> each : byProfiles.entrySet()) {
+                indicator.checkCanceled();
+                List<MavenProject> batch = each.getValue();
+                List<VirtualFile> files = batch.stream().map(MavenProject::getFile).collect(Collectors.toList());
+
+                List<MavenProjectReaderResult> readerResults =
+                    reader.resolveProjects(generalSettings, embedder, files, each.getKey(), myProjectLocator);
+
+                for (int i = 0; i < batch.size(); i++) {
                     indicator.checkCanceled();
+                    MavenProject mp = batch.get(i);
                     Pair<MavenProjectChanges, NativeMavenProjectHolder> result =
-                        mp.resolve(project, generalSettings, embedder, new MavenProjectReader(), myProjectLocator, context);
-                    fireProjectResolved(Pair.create(mp, result.first), result.second);
+                        mp.resolve(project, generalSettings, embedder, readerResults.get(i), context);
+                    resolved.add(new ResolvedProject(mp, result.first, result.second));
                 }
             }
-            finally {
-                embeddersManager.release(embedder);
-            }
         }
+        finally {
+            embeddersManager.release(embedder);
+        }
+        return resolved;
     }
 
+    /**
+     * @param pluginsResolver shared by the projects of the sync, so the plugins they have in common are resolved once
+     */
     public void resolvePlugins(
         @Nonnull MavenProject mavenProject,
         @Nonnull NativeMavenProjectHolder nativeMavenProject,
+        @Nonnull MavenPluginsResolver pluginsResolver,
         @Nonnull MavenEmbeddersManager embeddersManager,
         @Nonnull MavenSyncConsole console,
         @Nonnull MavenProgressIndicator process
     ) throws MavenProcessCanceledException {
-        MavenEmbedderWrapper embedder = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_PLUGINS_RESOLVE);
-        embedder.customizeForResolve(console, process);
-        embedder.clearCachesFor(mavenProject.getMavenId());
+        // taken when the first plugin that was not resolved for another project is met
+        MavenEmbedderWrapper[] embedder = new MavenEmbedderWrapper[1];
 
         Set<File> filesToRefresh = new HashSet<>();
 
         try {
             process.setText(MavenProjectLocalize.mavenDownloadingPomPlugins(mavenProject.getDisplayName()).get());
 
+            List<MavenRemoteRepository> repositories = mavenProject.getRemoteRepositories();
             for (MavenPlugin each : mavenProject.getDeclaredPlugins()) {
                 process.checkCanceled();
 
-                Collection<MavenArtifact> artifacts =
-                    embedder.resolvePlugin(each, mavenProject.getRemoteRepositories(), nativeMavenProject, false);
+                pluginsResolver.resolve(each, repositories, process, () -> {
+                    if (embedder[0] == null) {
+                        embedder[0] = embeddersManager.getEmbedder(MavenEmbeddersManager.FOR_PLUGINS_RESOLVE);
+                        embedder[0].customizeForResolve(console, process);
+                        embedder[0].clearCachesFor(mavenProject.getMavenId());
+                    }
+
+                    Collection<MavenArtifact> artifacts = embedder[0].resolvePlugin(each, repositories, nativeMavenProject, false);
 
-                for (MavenArtifact artifact : artifacts) {
-                    File pluginJar = artifact.getFile();
-                    File pluginDir = pluginJar.getParentFile();
-                    if (pluginDir != null) {
-                        filesToRefresh.add(pluginDir); // Refresh both *.pom and *.jar files.
+                    for (MavenArtifact artifact : artifacts) {
+                        File pluginJar = artifact.getFile();
+                        File pluginDir = pluginJar.getParentFile();
+                        if (pluginDir != null) {
+                            filesToRefresh.add(pluginDir); // Refresh both *.pom and *.jar files.
+                        }
                     }
-                }
+                    return artifacts;
+                });
             }
 
             mavenProject.resetCache();
@@ -1391,7 +1623,9 @@ public class MavenProjectsTree {
                 LocalFileSystem.getInstance().refreshIoFiles(filesToRefresh);
             }
 
-            embeddersManager.release(embedder);
+            if (embedder[0] != null) {
+                embeddersManager.release(embedder[0]);
+            }
         }
     }
 
@@ -1401,6 +1635,54 @@ public class MavenProjectsTree {
         @Nonnull final MavenEmbeddersManager embeddersManager,
         @Nonnull final MavenSyncConsole console,
         @Nonnull final MavenProgressIndicator process
+    ) throws MavenProcessCanceledException {
+        List<MavenProject> projects = Collections.singletonList(mavenProject);
+        resolveFolders(projects, importingSettings, embeddersManager, console, process);
+    }
+
+    /**
+     * Resolves the folders of several projects, running the phase once for the projects of a multimodule root with the same profiles
+     * instead of once per project.
+     */
+    public void resolveFolders(
+        @Nonnull final Collection<MavenProject> mavenProjects,
+        @Nonnull final MavenImportingSettings importingSettings,
+        @Nonnull final MavenEmbeddersManager embeddersManager,
+        @Nonnull final MavenSyncConsole console,
+        @Nonnull final MavenProgressIndicator process
+    ) throws MavenProcessCanceledException {
+        // one build per root and profile set, as the profiles apply to the whole reactor
+        Map<Pair<MavenProject, MavenExplicitProfiles>, List<MavenProject>> byRoot = new LinkedHashMap<>();
+        for (MavenProject each : mavenProjects) {
+            byRoot.computeIfAbsent(Pair.create(findRootProject(each), each.getActivatedProfilesIds()), key -> new ArrayList<>()).add(each);
+        }
+
+        for (Map.Entry<Pair<MavenProject, MavenExplicitProfiles>, List<MavenProject>> each : byRoot.entrySet()) {
+            process.checkCanceled();
+            List<MavenProject> group = each.getValue();
+            if (group.size() == 1) {
+                resolveProjectFolders(group.get(0), importingSettings, embeddersManager, console, process);
+            }
+            else {
+                resolveReactorFolders(
+                    each.getKey().first,
+                    each.getKey().second,
+                    group,
+                    importingSettings,
+                    embeddersManager,
+                    console,
+                    process
+                );
+            }
+        }
+    }
+
+    private void resolveProjectFolders(
+        @Nonnull final MavenProject mavenProject,
+        @Nonnull final MavenImportingSettings importingSettings,
+        @Nonnull final MavenEmbeddersManager embeddersManager,
+        @Nonnull final MavenSyncConsole console,
+        @Nonnull final MavenProgressIndicator process
     ) throws MavenProcessCanceledException {
         executeWithEmbedder(
             mavenProject,
@@ -1413,7 +1695,8 @@ public class MavenProjectsTree {
                 process.setText(MavenProjectLocalize.mavenUpdatingFoldersPom(mavenProject.getDisplayName()).get());
                 process.setText2("");
 
-                Pair<Boolean, MavenProjectChanges> resolveResult = mavenProject.resolveFolders(embedder, importingSettings, console);
+                Pair<Boolean, MavenProjectChanges> resolveResult =
+                    mavenProject.resolveFolders(embedder, importingSettings, console);
                 if (resolveResult.first) {
                     fireFoldersResolved(Pair.create(mavenProject, resolveResult.second));
                 }
@@ -1421,6 +1704,56 @@ public class MavenProjectsTree {
         );
     }
 
+    private void resolveReactorFolders(
+        @Nonnull final MavenProject rootProject,
+        @Nonnull final MavenExplicitProfiles profiles,
+        @Nonnull final List<MavenProject> mavenProjects,
+        @Nonnull final MavenImportingSettings importingSettings,
+        @Nonnull final MavenEmbeddersManager embeddersManager,
+        @Nonnull final MavenSyncConsole console,
+        @Nonnull final MavenProgressIndicator process
+    ) throws MavenProcessCanceledException {
+        executeWithEmbedder(
+            rootProject,
+            embeddersManager,
+            MavenEmbeddersManager.FOR_FOLDERS_RESOLVE,
+            console,
+            process,
+            embedder -> {
+                process.checkCanceled();
+                process.setText(MavenProjectLocalize.mavenUpdatingFoldersPom(rootProject.getDisplayName()).get());
+                process.setText2("");
+
+                List<String> selectedProjects = new ArrayList<>(mavenProjects.size());
+                for (MavenProject each : mavenProjects) {
+                    MavenId id = each.getMavenId();
+                    selectedProjects.add(StringUtil.notNullize(id.getGroupId()) + ":" + id.getArtifactId());
+                }
+
+                Map<String, MavenProjectReaderResult> results = MavenProjectReader.generateSources(
+                    embedder,
+                    importingSettings,
+                    rootProject.getFile(),
+                    selectedProjects,
+                    profiles,
+                    FOLDERS_RESOLVE_THREADS,
+                    console
+                );
+                if (results == null) {
+                    return;
+                }
+
+                for (MavenProject each : mavenProjects) {
+                    Pair<Boolean, MavenProjectChanges> resolveResult =
+                        each.resolveFolders(results.get(each.getPath()));
+                    if (resolveResult.first) {
+                        fireFoldersResolved(Pair.create(each, resolveResult.second));
+                    }
+                }
+            }
+        );
+    }
+
     public MavenArtifactDownloader.DownloadResult downloadSourcesAndJavadocs(
         @Nonnull Project project,
         @Nonnull Collection<MavenProject> projects,
@@ -1555,6 +1888,19 @@ public class MavenProjectsTree {
         }
     }
 
+    private static class IndexedKeys {
+        @Nullable
+        private final MavenId parentId;
+        private final Set<MavenId> dependencyIds;
+        private final Set<File> moduleFiles;
+
+        private IndexedKeys(@Nullable MavenId parentId, Set<MavenId> dependencyIds, Set<File> moduleFiles) {
+            this.parentId = parentId;
+            this.dependencyIds = dependencyIds;
+            this.moduleFiles = moduleFiles;
+        }
+    }
+
     private class UpdateContext {
         public final Map<MavenProject, MavenProjectChanges> updatedProjectsWithChanges = new ConcurrentHashMap<>();
         public final Set<MavenProject> deletedProjects = ConcurrentHashMap.newKeySet();
@@ -1633,21 +1979,6 @@ public class MavenProjectsTree {
             return !(previous != null && !forceRead) && !Boolean.TRUE.equals(previous);
         }
 
-        private MavenProject findIntendedAggregator(VirtualFile file) {
-            readLock();
-            try {
-                for (MavenProject each : myVirtualFileToProjectMapping.values()) {
-                    if (each.getExistingModuleFiles().contains(file)) {
-                        return each;
-                    }
-                }
-                return null;
-            }
-            finally {
-                readUnlock();
-            }
-        }
-
         void update(VirtualFile file, boolean forceRead) {
             if (!startUpdate(file, forceRead)) return;
 
@@ -1946,19 +2277,4 @@ public class MavenProjectsTree {
         public void artifactsDownloaded(MavenProject project) {
         }
     }
-
-    private static class MavenCoordinateHashCodeStrategy implements HashingStrategy<MavenCoordinate> {
-        @Override
-        public int hashCode(MavenCoordinate object) {
-            String artifactId = object.getArtifactId();
-            return artifactId == null ? 0 : artifactId.hashCode();
-        }
-
-        @Override
-        public boolean equals(MavenCoordinate o1, MavenCoordinate o2) {
-            return Comparing.equal(o1.getArtifactId(), o2.getArtifactId())
-                && Comparing.equal(o1.getVersion(), o2.getVersion())
-                && Comparing.equal(o1.getGroupId(), o2.getGroupId());
-        }
-    }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2000-2013 JetBrains s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jetbrains.idea.maven.project;
+
+import consulo.application.ReadAction;
+import consulo.virtualFileSystem.VirtualFile;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.jetbrains.idea.maven.utils.MavenLog;
+import org.jetbrains.idea.maven.utils.MavenUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Encoded raw models of pom.xml files kept on disk between sessions, keyed by a hash of everything they are read from,
+ * so unchanged files are not parsed again. The least recently used entries are removed once the cache outgrows its size limit.
+ */
+class MavenRawModelCache {
+    // part of every key, so entries written by an older encoding are never found
+    private static final String VERSION = MavenRawModelCache.class.getSimpleName() + ".2";
+    private static final long MAX_SIZE = 32L * 1024 * 1024;
+
+    private static final MavenRawModelCache ourInstance = new MavenRawModelCache(MavenUtil.getPluginSystemDir("RawModels"), MAX_SIZE);
+
+    private final File myDir;
+    private final long myMaxSize;
+
+    // key -> size of the entry file, in access order; loaded on first use
+    private LinkedHashMap<String, Long> myEntries;
+    private long myTotalSize;
+
+    MavenRawModelCache(@Nonnull File dir, long maxSize) {
+        myDir = dir;
+        myMaxSize = maxSize;
+    }
+
+    @Nonnull
+    static MavenRawModelCache getInstance() {
+        return ourInstance;
+    }
+
+    /**
+     * @return the key of the raw model of the pom.xml, or null if it cannot be read
+     */
+    @Nullable
+    static String computeKey(@Nonnull VirtualFile file) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+
+        try {
+            update(digest, VERSION);
+            if (!addFile(digest, file)) {
+                return null;
+            }
+            // profiles.xml is read together with the pom.xml
+            VirtualFile profilesFile = MavenUtil.findProfilesXmlFile(file);
+            if (profilesFile != null && !addFile(digest, profilesFile)) {
+                return null;
+            }
+        }
+        catch (IOException e) {
+            return null;
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (byte each : digest.digest()) {
+            result.append(Character.forDigit((each >> 4) & 0xF, 16)).append(Character.forDigit(each & 0xF, 16));
+        }
+        return result.toString();
+    }
+
+    @Nullable
+    byte[] get(@Nonnull String key) {
+        synchronized (this) {
+            if (getEntries().get(key) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(myDir, key);
+        try {
+            byte[] result = Files.readAllBytes(file.toPath());
+            // the modification time keeps the access order for the next session
+            file.setLastModified(System.currentTimeMillis());
+            return result;
+        }
+        catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    void put(@Nonnull String key, @Nonnull byte[] data) {
+        if (data.length > myMaxSize) {
+            return;
+        }
+        try {
+            myDir.mkdirs();
+            File temp = File.createTempFile(key, ".tmp", myDir);
+            try {
+                Files.write(temp.toPath(), data);
+                Files.move(temp.toPath(), new File(myDir, key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            finally {
+                temp.delete();
+            }
+        }
+        catch (IOException e) {
+            MavenLog.LOG.warn("Cannot cache the model: " + e);
+            return;
+        }
+
+        synchronized (this) {
+            Long previous = getEntries().put(key, (long)data.length);
+            myTotalSize += data.length - (previous == null ? 0 : previous);
+            evict();
+        }
+    }
+
+    synchronized void remove(@Nonnull String key) {
+        Long size = getEntries().remove(key);
+        if (size != null) {
+            myTotalSize -= size;
+            new File(myDir, key).delete();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = myEntries.entrySet().iterator();
+        while (myTotalSize > myMaxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            iterator.remove();
+            myTotalSize -= eldest.getValue();
+            new File(myDir, eldest.getKey()).delete();
+        }
+    }
+
+    private LinkedHashMap<String, Long> getEntries() {
+        if (myEntries == null) {
+            myEntries = new LinkedHashMap<>(16, 0.75f, true);
+            File[] files = myDir.listFiles();
+            if (files != null) {
+                Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+                for (File each : files) {
+                    if (each.getName().endsWith(".tmp")) {
+                        each.delete();
+                        continue;
+                    }
+                    myEntries.put(each.getName(), each.length());
+                    myTotalSize += each.length();
+                }
+            }
+            evict();
+        }
+        return myEntries;
+    }
+
+    private static boolean addFile(MessageDigest digest, VirtualFile file) throws IOException {
+        if (!file.isValid()) {
+            return false;
+        }
+        byte[] content = ReadAction.compute(() -> file.contentsToByteArray());
+        // problems refer to the path, and the content is decoded with the file charset
+        update(digest, file.getPath());
+        update(digest, file.getCharset().name());
+        digest.update(content);
+        return true;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte)(bytes.length >>> 24));
+        digest.update((byte)(bytes.length >>> 16));
+        digest.update((byte)(bytes.length >>> 8));
+        digest.update((byte)bytes.length);
+        digest.update(bytes);
+    }
+}
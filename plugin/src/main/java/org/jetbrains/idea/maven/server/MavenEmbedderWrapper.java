@@ -33,10 +33,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServerEmbedder> {
     private Customization myCustomization;
 
+    // the workspace map the current wrappee was customized with, so that later customizations only send what changed
+    private String mySentWorkspaceMapId;
+    private long mySentWorkspaceMapGeneration;
+
     public MavenEmbedderWrapper(@Nullable RemoteObjectWrapper<?> parent) {
         super(parent);
     }
@@ -44,6 +49,7 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
     @Override
     protected synchronized void onWrappeeCreated() throws RemoteException {
         super.onWrappeeCreated();
+        mySentWorkspaceMapId = null;
         if (myCustomization != null) {
             doCustomize();
         }
@@ -90,13 +96,34 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
     }
 
     private synchronized void doCustomize() throws RemoteException {
-        getOrCreateWrappee().customize(
-            myCustomization.workspaceMap,
+        MavenServerEmbedder embedder = getOrCreateWrappee();
+        MavenWorkspaceMap workspaceMap = myCustomization.workspaceMap;
+        if (workspaceMap != null && workspaceMap.getId().equals(mySentWorkspaceMapId)) {
+            MavenWorkspaceMapDelta delta = workspaceMap.getDeltaSince(mySentWorkspaceMapGeneration);
+            if (delta != null && embedder.customize(
+                delta,
+                myCustomization.failOnUnresolvedDependency,
+                myCustomization.console,
+                myCustomization.indicator,
+                myCustomization.alwaysUpdateSnapshot
+            )) {
+                mySentWorkspaceMapGeneration = delta.getGeneration();
+                return;
+            }
+        }
+
+        mySentWorkspaceMapId = null;
+        embedder.customize(
+            workspaceMap,
             myCustomization.failOnUnresolvedDependency,
             myCustomization.console,
             myCustomization.indicator,
             myCustomization.alwaysUpdateSnapshot
         );
+        if (workspaceMap != null) {
+            mySentWorkspaceMapId = workspaceMap.getId();
+            mySentWorkspaceMapGeneration = workspaceMap.getGeneration();
+        }
     }
 
     @Nonnull
@@ -112,6 +139,23 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
         ));
     }
 
+    @Nonnull
+    public List<MavenServerExecutionResult> resolveProjects(
+        @Nonnull final Collection<VirtualFile> files,
+        @Nonnull final Collection<String> activeProfiles,
+        @Nonnull final Collection<String> inactiveProfiles
+    ) throws MavenProcessCanceledException {
+        final List<File> ioFiles = new ArrayList<>(files.size());
+        for (VirtualFile each : files) {
+            ioFiles.add(new File(each.getPath()));
+        }
+        return perform((RetriableCancelable<List<MavenServerExecutionResult>>)() -> getOrCreateWrappee().resolveProjects(
+            ioFiles,
+            activeProfiles,
+            inactiveProfiles
+        ));
+    }
+
     @Nullable
     public String evaluateEffectivePom(
         @Nonnull final VirtualFile file,
@@ -133,6 +177,37 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
         return perform((RetriableCancelable<MavenArtifact>)() -> getOrCreateWrappee().resolve(info, remoteRepositories));
     }
 
+    /**
+     * Resolves the artifacts in one call to the server, downloading up to {@code threads} of them at once.
+     *
+     * @param listener notified of every resolved artifact while the call is running
+     */
+    @Nonnull
+    public List<MavenArtifact> resolveArtifacts(
+        @Nonnull final List<MavenArtifactInfo> artifacts,
+        @Nonnull final List<MavenRemoteRepository> remoteRepositories,
+        int threads,
+        @Nonnull MavenServerDownloadListener listener
+    ) throws MavenProcessCanceledException {
+        MavenServerDownloadListener exported = MavenServerManager.wrapAndExport(listener);
+        try {
+            return perform((RetriableCancelable<List<MavenArtifact>>)() -> getOrCreateWrappee().resolveArtifacts(
+                artifacts,
+                remoteRepositories,
+                threads,
+                exported
+            ));
+        }
+        finally {
+            try {
+                UnicastRemoteObject.unexportObject(exported, true);
+            }
+            catch (NoSuchObjectException e) {
+                MavenLog.LOG.warn(e);
+            }
+        }
+    }
+
     @Nonnull
     public List<MavenArtifact> resolveTransitively(
         @Nonnull final List<MavenArtifactInfo> artifacts,
@@ -224,6 +299,30 @@ public abstract class MavenEmbedderWrapper extends RemoteObjectWrapper<MavenServ
         ));
     }
 
+    /**
+     * @see MavenServerEmbedder#executeReactor
+     */
+    @Nonnull
+    public Map<String, MavenServerExecutionResult> executeReactor(
+        @Nonnull final VirtualFile file,
+        @Nonnull final Collection<String> activeProfiles,
+        @Nonnull final Collection<String> inactiveProfiles,
+        @Nonnull final List<String> goals,
+        @Nonnull final List<String> selectedProjects,
+        final boolean alsoMake,
+        final int threads
+    ) throws MavenProcessCanceledException {
+        return perform((RetriableCancelable<Map<String, MavenServerExecutionResult>>)() -> getOrCreateWrappee().executeReactor(
+            new File(file.getPath()),
+            activeProfiles,
+            inactiveProfiles,
+            goals,
+            selectedProjects,
+            alsoMake,
+            threads
+        ));
+    }
+
     public void reset() {
         MavenServerEmbedder w = getWrappee();
         if (w == null) {
@@ -522,6 +522,18 @@ public class MavenServerManager extends RemoteObjectWrapper<MavenServer> impleme
         }
     }
 
+    public static MavenServerDownloadListener wrapAndExport(MavenServerDownloadListener listener) {
+        try {
+            RemoteMavenServerDownloadListener result = new RemoteMavenServerDownloadListener();
+            result.myListeners.add(listener);
+            UnicastRemoteObject.exportObject(result, 0);
+            return result;
+        }
+        catch (RemoteException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Nullable
     public File getCurrentMavenHomeFile() {
         return MavenUtil.resolveMavenHomeDirectory(myState.mavenBundleName);
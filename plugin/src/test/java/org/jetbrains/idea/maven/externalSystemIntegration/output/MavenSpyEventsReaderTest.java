@@ -0,0 +1,76 @@
+package org.jetbrains.idea.maven.externalSystemIntegration.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenSpyEventsReaderTest {
+    @TempDir
+    File myDir;
+
+    @Test
+    void readsUpToSequence() throws IOException {
+        File file = new File(myDir, "events.bin");
+        writeRecord(file, "SESSION_STARTED", "first");
+        writeRecord(file, "PROJECT_STARTED", "second\nline");
+        writeRecord(file, "MOJO_STARTED", "third");
+
+        MavenSpyEventsReader reader = new MavenSpyEventsReader(file);
+        List<String> events = new ArrayList<>();
+        MavenSpyEventsReader.EventConsumer consumer = (threadId, type, parameters) -> events.add(type + ":" + parameters.get("value"));
+
+        reader.readUpTo(2, consumer);
+        assertThat(events).containsExactly("SESSION_STARTED:first", "PROJECT_STARTED:second\nline");
+
+        reader.readUpTo(1, consumer);
+        assertThat(events).hasSize(2);
+
+        writeRecord(file, "SESSION_ENDED", "fourth");
+        reader.readUpTo(3, consumer);
+        assertThat(events).hasSize(3).last().isEqualTo("MOJO_STARTED:third");
+
+        reader.close(consumer);
+        assertThat(events).hasSize(4).last().isEqualTo("SESSION_ENDED:fourth");
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void missingFile() {
+        File file = new File(myDir, "missing.bin");
+        List<String> events = new ArrayList<>();
+
+        MavenSpyEventsReader reader = new MavenSpyEventsReader(file);
+        reader.readUpTo(1, (threadId, type, parameters) -> events.add(type));
+        reader.close((threadId, type, parameters) -> events.add(type));
+
+        assertThat(events).isEmpty();
+    }
+
+    private static void writeRecord(File file, String type, String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeLong(1);
+        record.writeUTF(type);
+        record.writeByte(1);
+        record.writeUTF("value");
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        record.writeInt(valueBytes.length);
+        record.write(valueBytes);
+        record.flush();
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.jetbrains.idea.maven.externalSystemIntegration.output.parsers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenSpyLineParserTest {
+    final MavenSpyLineParser myParser = new MavenSpyLineParser();
+
+    @Test
+    void event() {
+        assertThat(myParser.parse("12-MojoStarted-[IJ]-goal=compile-[IJ]-id=test:project:1")).isTrue();
+        assertThat(myParser.getThreadId()).isEqualTo(12);
+        assertThat(myParser.getType()).isSameAs(MavenEventType.MOJO_STARTED);
+        assertThat(myParser).containsExactly(Map.entry("goal", "compile"), Map.entry("id", "test:project:1"));
+        assertThat(myParser.get("goal")).isEqualTo("compile");
+        assertThat(myParser.get("error")).isNull();
+    }
+
+    @Test
+    void eventWithoutParameters() {
+        assertThat(myParser.parse("1-SessionEnded")).isFalse();
+        assertThat(myParser.parse("1-SessionEnded-[IJ]-")).isTrue();
+        assertThat(myParser).isEmpty();
+    }
+
+    @Test
+    void values() {
+        assertThat(myParser.parse("1-MojoFailed-[IJ]-error=line1-[N]-line2-[N]--[IJ]-expr=a=b-[IJ]-empty=-[IJ]-noValue")).isTrue();
+        assertThat(myParser.get("error")).isEqualTo("line1\nline2\n");
+        assertThat(myParser.get("expr")).isEqualTo("a=b");
+        assertThat(myParser.containsKey("empty")).isFalse();
+        assertThat(myParser.containsKey("noValue")).isFalse();
+        assertThat(myParser).hasSize(2);
+    }
+
+    @Test
+    void reuse() {
+        assertThat(myParser.parse("1-ProjectStarted-[IJ]-id=first")).isTrue();
+        assertThat(myParser.parse("2-ProjectSucceeded-[IJ]-id=second")).isTrue();
+        assertThat(myParser.getThreadId()).isEqualTo(2);
+        assertThat(myParser.getType()).isSameAs(MavenEventType.PROJECT_SUCCEEDED);
+        assertThat(myParser).containsExactly(Map.entry("id", "second"));
+    }
+
+    @Test
+    void largestThreadId() {
+        assertThat(myParser.parse("2147483647-MojoStarted-[IJ]-goal=compile")).isTrue();
+        assertThat(myParser.getThreadId()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(myParser.parse("0002147483647-MojoStarted-[IJ]-goal=compile")).isTrue();
+    }
+
+    @Test
+    void malformed() {
+        assertThat(myParser.parse("")).isFalse();
+        assertThat(myParser.parse("x-MojoStarted-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("-1-MojoStarted-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("99999999999-MojoStarted-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("4294967297-MojoStarted-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("2147483648-MojoStarted-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("1-Unknown-[IJ]-goal=compile")).isFalse();
+        assertThat(myParser.parse("1MojoStarted-[IJ]-goal=compile")).isFalse();
+    }
+}
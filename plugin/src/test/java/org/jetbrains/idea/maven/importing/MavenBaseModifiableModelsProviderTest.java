@@ -0,0 +1,67 @@
+package org.jetbrains.idea.maven.importing;
+
+import consulo.content.library.Library;
+import consulo.content.library.LibraryTable;
+import consulo.project.Project;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MavenBaseModifiableModelsProviderTest {
+    final List<Library> myLibraries = new ArrayList<>();
+    final LibraryTable.ModifiableModel myLibrariesModel = mock(LibraryTable.ModifiableModel.class);
+    final MavenBaseModifiableModelsProvider myProvider = mock(
+        MavenBaseModifiableModelsProvider.class,
+        Mockito.withSettings().useConstructor((Project)null).defaultAnswer(Mockito.CALLS_REAL_METHODS)
+    );
+
+    {
+        when(myLibrariesModel.getLibraries()).thenAnswer(invocation -> myLibraries.toArray(new Library[0]));
+        doReturn(myLibrariesModel).when(myProvider).getProjectLibrariesModel();
+    }
+
+    @Test
+    void looksUpLibrariesWithoutScanningTheTableEachTime() {
+        for (int i = 0; i < 1000; i++) {
+            myLibraries.add(library("Maven: org.example:lib" + i + ":1.0"));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(myProvider.getLibraryByName("Maven: org.example:lib" + i + ":1.0")).isSameAs(myLibraries.get(i));
+        }
+        assertThat(myProvider.getLibraryByName("Maven: org.example:missing:1.0")).isNull();
+
+        verify(myLibrariesModel, times(1)).getLibraries();
+    }
+
+    @Test
+    void firstLibraryWithTheNameWins() {
+        Library first = library("Maven: org.example:lib:1.0");
+        Library second = library("Maven: org.example:lib:1.0");
+        myLibraries.add(first);
+        myLibraries.add(second);
+
+        assertThat(myProvider.getLibraryByName("Maven: org.example:lib:1.0")).isSameAs(first);
+
+        myLibraries.remove(first);
+        myProvider.removeLibrary(first);
+
+        assertThat(myProvider.getLibraryByName("Maven: org.example:lib:1.0")).isSameAs(second);
+        verify(myLibrariesModel).removeLibrary(first);
+    }
+
+    private static Library library(String name) {
+        Library result = mock(Library.class);
+        when(result.getName()).thenReturn(name);
+        return result;
+    }
+}
@@ -0,0 +1,34 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenMergedIndexTest {
+    @Test
+    void mergesSortedAndDeduplicated() {
+        MavenSortedStringSet merged = MavenMergedIndex.merge(List.of(
+            MavenSortedStringSet.of(List.of("org.b", "com.a")),
+            MavenSortedStringSet.of(List.of("org.a", "org.b")),
+            MavenSortedStringSet.of(List.of("net.c"))
+        ));
+
+        assertThat(merged).containsExactly("com.a", "net.c", "org.a", "org.b");
+        assertThat(merged.withPrefix("org")).containsExactly("org.a", "org.b");
+    }
+
+    @Test
+    void singleNonEmptySourceIsReused() {
+        MavenSortedStringSet source = MavenSortedStringSet.of(List.of("org.a", "org.b"));
+
+        assertThat(MavenMergedIndex.merge(List.of(MavenSortedStringSet.EMPTY, source, MavenSortedStringSet.EMPTY))).isSameAs(source);
+    }
+
+    @Test
+    void noSources() {
+        assertThat(MavenMergedIndex.merge(List.of())).isEmpty();
+        assertThat(MavenMergedIndex.merge(List.of(MavenSortedStringSet.EMPTY))).isEmpty();
+    }
+}
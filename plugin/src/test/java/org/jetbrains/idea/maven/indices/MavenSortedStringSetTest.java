@@ -0,0 +1,54 @@
+package org.jetbrains.idea.maven.indices;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenSortedStringSetTest {
+    @Test
+    void sortsAndDeduplicates() {
+        MavenSortedStringSet set = MavenSortedStringSet.of(Arrays.asList("org.b", "com.a", null, "org.b", "org.a"));
+
+        assertThat(set).containsExactly("com.a", "org.a", "org.b");
+        assertThat(set.size()).isEqualTo(3);
+        assertThat(set.toArray()).containsExactly("com.a", "org.a", "org.b");
+        assertThat(MavenSortedStringSet.of(List.of())).isSameAs(MavenSortedStringSet.EMPTY);
+    }
+
+    @Test
+    void contains() {
+        MavenSortedStringSet set = MavenSortedStringSet.of(List.of("com.a", "org.a", "org.b"));
+
+        assertThat(set.contains("org.a")).isTrue();
+        assertThat(set.contains("org")).isFalse();
+        assertThat(set.contains("zzz")).isFalse();
+        assertThat(set.contains(1)).isFalse();
+        assertThat(MavenSortedStringSet.EMPTY.contains("org.a")).isFalse();
+    }
+
+    @Test
+    void withPrefix() {
+        MavenSortedStringSet set = MavenSortedStringSet.of(List.of("com.a", "org", "org.a", "org.b", "org.b.c", "orz"));
+
+        assertThat(set.withPrefix("")).isSameAs(set);
+        assertThat(set.withPrefix("org")).containsExactly("org", "org.a", "org.b", "org.b.c");
+        assertThat(set.withPrefix("org.b")).containsExactly("org.b", "org.b.c");
+        assertThat(set.withPrefix("net")).isSameAs(MavenSortedStringSet.EMPTY);
+        assertThat(set.withPrefix("zzz")).isEmpty();
+    }
+
+    @Test
+    void prefixViewIsBoundedToItsRange() {
+        MavenSortedStringSet view = MavenSortedStringSet.of(List.of("com.a", "org.a", "org.b", "orz")).withPrefix("org.");
+
+        assertThat(view.size()).isEqualTo(2);
+        assertThat(view.contains("org.a")).isTrue();
+        assertThat(view.contains("com.a")).isFalse();
+        assertThat(view.contains("orz")).isFalse();
+        assertThat(view.withPrefix("org.b")).containsExactly("org.b");
+        assertThat(view.withPrefix("orz")).isEmpty();
+    }
+}
@@ -0,0 +1,150 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.*;
+import consulo.maven.rt.server.common.server.ProfileApplicationResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that models are processed in the IDE only when nothing but the base directory and the explicit profiles
+ * decides the result, and that everything else is left to the server.
+ */
+public class MavenLocalModelProcessorTest {
+    @TempDir
+    File myBasedir;
+
+    private final MavenLocalModelProcessor myProcessor = new MavenLocalModelProcessor(true);
+
+    @Test
+    void aligningPathsOfModelWithoutExpressions() {
+        MavenModel model = createModel();
+        model.setName("project");
+        model.getProperties().setProperty("dir", "generated");
+        MavenBuild build = model.getBuild();
+        build.setDirectory(" out ");
+        build.setOutputDirectory("out/../classes");
+        build.setTestOutputDirectory(path("test-classes"));
+        build.setSources(List.of("src"));
+        build.setFilters(new ArrayList<>(List.of("filter.properties")));
+        build.setResources(List.of(new MavenResource("res", true, "target", new ArrayList<>(), new ArrayList<>())));
+        MavenProfile profile = addProfile(model, "profile");
+        profile.getProperties().setProperty("prop", "value");
+        profile.getBuild().setDirectory("profile-out");
+
+        MavenModel result = myProcessor.interpolateAndAlignModelLocally(model, myBasedir);
+
+        assertThat(result).isNotNull().isNotSameAs(model);
+        assertThat(result.getMavenId()).isEqualTo(model.getMavenId());
+        assertThat(result.getName()).isEqualTo("project");
+        assertThat(result.getProperties()).containsEntry("dir", "generated");
+        MavenBuild resultBuild = result.getBuild();
+        assertThat(resultBuild.getDirectory()).isEqualTo(path("out"));
+        assertThat(resultBuild.getOutputDirectory()).isEqualTo(path("classes"));
+        assertThat(resultBuild.getTestOutputDirectory()).isEqualTo(path("test-classes"));
+        assertThat(resultBuild.getSources()).containsExactly(path("src"));
+        assertThat(resultBuild.getTestSources()).isEmpty();
+        assertThat(resultBuild.getFilters()).containsExactly(path("filter.properties"));
+        assertThat(resultBuild.getResources()).extracting(MavenResource::getDirectory).containsExactly(path("res"));
+        assertThat(resultBuild.getResources()).extracting(MavenResource::getTargetPath).containsExactly("target");
+
+        // the server aligns only the model's own build, and does not send back the properties of profiles
+        assertThat(result.getProfiles()).hasSize(1);
+        assertThat(result.getProfiles().get(0).getBuild().getDirectory()).isEqualTo("profile-out");
+        assertThat(result.getProfiles().get(0).getProperties()).isEmpty();
+
+        assertThat(build.getDirectory()).isEqualTo(" out ");
+    }
+
+    @Test
+    void fallingBackToServerForExpressions() {
+        MavenModel name = createModel();
+        name.setName("${project.artifactId}");
+        MavenModel property = createModel();
+        property.getProperties().setProperty("dir", "${basedir}/generated");
+        MavenModel resource = createModel();
+        resource.getBuild().setResources(List.of(new MavenResource("${res}", false, null, new ArrayList<>(), new ArrayList<>())));
+        MavenModel activation = createModel();
+        addProfile(activation, "profile").setActivation(activationByProperty("${name}"));
+
+        for (MavenModel each : List.of(name, property, resource, activation)) {
+            assertThat(myProcessor.interpolateAndAlignModelLocally(each, myBasedir)).isNull();
+        }
+    }
+
+    @Test
+    void fallingBackToServerForWhatItDoesNotConvert() {
+        MavenModel model = createModel();
+        model.getBuild().setSources(List.of("src", "src2"));
+
+        assertThat(myProcessor.interpolateAndAlignModelLocally(model, myBasedir)).isNull();
+        assertThat(myProcessor.interpolateAndAlignModelLocally(createModel(), new File("relative"))).isNull();
+    }
+
+    @Test
+    void fallingBackToServerWhenDisabled() {
+        MavenLocalModelProcessor processor = new MavenLocalModelProcessor(false);
+
+        assertThat(processor.interpolateAndAlignModelLocally(createModel(), myBasedir)).isNull();
+        assertThat(processor.applyProfilesLocally(createModel(), MavenExplicitProfiles.NONE, Set.of())).isNull();
+    }
+
+    @Test
+    void applyingProfilesThatCannotBeActivated() {
+        MavenModel model = createModel();
+        addProfile(model, "one");
+        addProfile(model, "two");
+        addProfile(model, "disabled").setActivation(activationByProperty("name"));
+
+        ProfileApplicationResult result =
+            myProcessor.applyProfilesLocally(model, new MavenExplicitProfiles(Set.of(), Set.of("disabled", "missing")), Set.of());
+
+        assertThat(result).isNotNull();
+        assertThat(result.getActivatedProfiles().getEnabledProfiles()).isEmpty();
+        assertThat(result.getActivatedProfiles().getDisabledProfiles()).containsExactly("disabled");
+        assertThat(result.getModel()).isNotSameAs(model);
+        assertThat(result.getModel().getProfiles()).extracting(MavenProfile::getId).containsExactly("one", "two", "disabled");
+    }
+
+    @Test
+    void fallingBackToServerForProfilesThatMayBeActivated() {
+        MavenModel model = createModel();
+        addProfile(model, "one");
+        MavenModel activated = createModel();
+        addProfile(activated, "one").setActivation(activationByProperty("name"));
+
+        assertThat(myProcessor.applyProfilesLocally(model, new MavenExplicitProfiles(Set.of("one"), Set.of()), Set.of())).isNull();
+        assertThat(myProcessor.applyProfilesLocally(model, MavenExplicitProfiles.NONE, Set.of("one"))).isNull();
+        assertThat(myProcessor.applyProfilesLocally(activated, MavenExplicitProfiles.NONE, Set.of())).isNull();
+    }
+
+    private static MavenModel createModel() {
+        MavenModel result = new MavenModel();
+        result.setMavenId(new MavenId("test", "project", "1"));
+        result.setPackaging("jar");
+        result.setProfiles(new ArrayList<>());
+        return result;
+    }
+
+    private static MavenProfile addProfile(MavenModel model, String id) {
+        MavenProfile profile = new MavenProfile(id, MavenConstants.PROFILE_FROM_POM);
+        model.getProfiles().add(profile);
+        return profile;
+    }
+
+    private static MavenProfileActivation activationByProperty(String name) {
+        MavenProfileActivation result = new MavenProfileActivation();
+        result.setProperty(new MavenProfileActivationProperty(name, null));
+        return result;
+    }
+
+    private String path(String relativePath) {
+        return new File(myBasedir, relativePath).getAbsolutePath();
+    }
+}
@@ -0,0 +1,126 @@
+package org.jetbrains.idea.maven.project;
+
+import consulo.maven.rt.server.common.model.MavenBuild;
+import consulo.maven.rt.server.common.model.MavenExplicitProfiles;
+import consulo.maven.rt.server.common.model.MavenId;
+import consulo.maven.rt.server.common.model.MavenModel;
+import consulo.maven.rt.server.common.model.MavenPlugin;
+import consulo.util.io.BufferExposingByteArrayOutputStream;
+import org.jdom.Element;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MavenProjectStateCodecTest {
+    // longer than the 65535 bytes DataOutput.writeUTF can write, in characters that take more than one byte in UTF-8
+    private static final String LONG_VALUE = "é中".repeat(40 * 1024);
+
+    @Test
+    void stateRoundTrip() throws IOException {
+        MavenProject.State state = new MavenProject.State();
+        state.myLastReadStamp = 42;
+        state.myMavenId = new MavenId("org.example", "app", "1.0");
+        state.myPackaging = "jar";
+        state.myName = "app";
+        state.mySources = List.of("src/main/java", "src/main/kotlin");
+
+        Properties properties = new Properties();
+        properties.setProperty("long", LONG_VALUE);
+        properties.setProperty("short", "value");
+        state.myProperties = properties;
+
+        Element configuration = new Element("configuration");
+        configuration.addContent(new Element("script").setText(LONG_VALUE));
+        configuration.addContent(new Element("source").setText("17"));
+        state.myPlugins = MavenProjectStateCodec.Lazy.of(List.of(
+            new MavenPlugin("org.example", "plugin", "1.0", false, false, configuration, new ArrayList<>(), new ArrayList<>())
+        ));
+        state.myActivatedProfilesIds = new MavenExplicitProfiles(Set.of("dev"), Set.of());
+
+        MavenProject.State result = MavenProjectStateCodec.readState(decode(encode(state)));
+
+        assertThat(result.myLastReadStamp).isEqualTo(42);
+        assertThat(result.myMavenId).isEqualTo(state.myMavenId);
+        assertThat(result.myPackaging).isEqualTo("jar");
+        assertThat(result.mySources).containsExactly("src/main/java", "src/main/kotlin");
+        assertThat(result.myProperties).isEqualTo(properties);
+        assertThat(result.myActivatedProfilesIds.getEnabledProfiles()).containsExactly("dev");
+        assertThat(result.myTestSources).isNull();
+
+        List<MavenPlugin> plugins = result.getPlugins();
+        assertThat(plugins).hasSize(1);
+        assertThat(plugins.get(0).getMavenId()).isEqualTo(new MavenId("org.example", "plugin", "1.0"));
+        Element resultConfiguration = plugins.get(0).getConfigurationElement();
+        assertThat(resultConfiguration.getChildText("script")).isEqualTo(LONG_VALUE);
+        assertThat(resultConfiguration.getChildText("source")).isEqualTo("17");
+    }
+
+    @Test
+    void undecodedSectionIsCopiedOnSave() throws IOException {
+        MavenProject.State state = new MavenProject.State();
+        Element configuration = new Element("configuration").setText(LONG_VALUE);
+        state.myPlugins = MavenProjectStateCodec.Lazy.of(List.of(
+            new MavenPlugin("org.example", "plugin", "1.0", false, false, configuration, new ArrayList<>(), new ArrayList<>())
+        ));
+
+        // saved again without the plugins having been decoded
+        MavenProject.State copy = MavenProjectStateCodec.readState(decode(encode(state)));
+        MavenProject.State result = MavenProjectStateCodec.readState(decode(encode(copy)));
+
+        assertThat(result.getPlugins().get(0).getConfigurationElement().getText()).isEqualTo(LONG_VALUE);
+    }
+
+    @Test
+    void rawModelRoundTrip() throws IOException {
+        MavenModel model = new MavenModel();
+        model.setMavenId(new MavenId("org.example", "app", "1.0"));
+        model.setPackaging("pom");
+        model.setModules(List.of("core", "web"));
+        model.getProperties().setProperty("long", LONG_VALUE);
+        MavenBuild build = model.getBuild();
+        build.setSources(List.of("src/main/java"));
+        build.setTestSources(List.of("src/test/java"));
+        build.setFinalName("app");
+
+        List<String> alwaysOnProfiles = new ArrayList<>();
+        byte[] bytes = MavenProjectStateCodec.encodeRawModel(model, List.of("ci"));
+        MavenModel result = MavenProjectStateCodec.decodeRawModel(bytes, alwaysOnProfiles);
+
+        assertThat(result.getMavenId()).isEqualTo(model.getMavenId());
+        assertThat(result.getPackaging()).isEqualTo("pom");
+        assertThat(result.getModules()).containsExactly("core", "web");
+        assertThat(result.getProperties().getProperty("long")).isEqualTo(LONG_VALUE);
+        assertThat(result.getBuild().getSources()).containsExactly("src/main/java");
+        assertThat(result.getBuild().getTestSources()).containsExactly("src/test/java");
+        assertThat(result.getBuild().getFinalName()).isEqualTo("app");
+        assertThat(alwaysOnProfiles).containsExactly("ci");
+    }
+
+    private static byte[] encode(MavenProject.State state) throws IOException {
+        BufferExposingByteArrayOutputStream body = new BufferExposingByteArrayOutputStream();
+        DataOutputStream bodyStream = new DataOutputStream(body);
+        MavenProjectStateCodec.Output out = new MavenProjectStateCodec.Output(bodyStream);
+        MavenProjectStateCodec.writeState(out, state);
+        bodyStream.flush();
+
+        BufferExposingByteArrayOutputStream result = new BufferExposingByteArrayOutputStream();
+        DataOutputStream resultStream = new DataOutputStream(result);
+        out.writeStringTable(resultStream);
+        resultStream.write(body.getInternalBuffer(), 0, body.size());
+        resultStream.flush();
+        return result.toByteArray();
+    }
+
+    private static MavenProjectStateCodec.Input decode(byte[] bytes) throws IOException {
+        return new MavenProjectStateCodec.Input(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+}